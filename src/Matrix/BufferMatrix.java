@@ -0,0 +1,549 @@
+package Matrix;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+
+/**
+ * A matrix stored outside of the Java heap in NIO buffers. The elements
+ * are row-major, split over as many buffers as needed so a matrix isn't
+ * capped by the 2 GB limit of a single buffer. Every buffer holds whole
+ * rows.
+ * <p>
+ * Work is done a tile at a time. Tiles are copied onto the heap, run
+ * through the same kernels Matrix uses & written back, so only the
+ * tiles being worked on have to be resident.
+ *
+ * @author Harrison Davis
+ */
+public abstract class BufferMatrix implements AutoCloseable {
+
+    // The most floats a single buffer can address.
+    static final int MAX_CHUNK_FLOATS = Integer.MAX_VALUE / Float.BYTES;
+    // The edge length of the square tiles used by the tiled operations.
+    static final int TILE = 256;
+
+    // The row & column count.
+    final int r, c;
+    // How many rows each buffer holds.
+    final int rowsPerChunk;
+    // The raw buffers & float views over them.
+    private volatile ByteBuffer[] bytes;
+    private volatile FloatBuffer[] chunks;
+    // Held shared while the buffers are in use & exclusively by close().
+    private final java.util.concurrent.locks.ReentrantReadWriteLock lock = new java.util.concurrent.locks.ReentrantReadWriteLock();
+
+    //<editor-fold defaultstate="collapsed" desc=" Constructors ">
+    /**
+     * Wraps a set of buffers. Buffer k holds rows [ k * rowsPerChunk , ( k + 1 ) * rowsPerChunk ) .
+     *
+     * @param rows The amount of rows.
+     * @param columns The amount of columns.
+     * @param rowsPerChunk How many rows each buffer holds.
+     * @param bytes The buffers, their byte order is already set.
+     */
+    BufferMatrix(int rows, int columns, int rowsPerChunk, ByteBuffer[] bytes) {
+        r = rows; c = columns; this.rowsPerChunk = rowsPerChunk; this.bytes = bytes;
+        chunks = new FloatBuffer[bytes.length];
+        for (int k = 0; bytes.length > k; k++) chunks[k] = bytes[k].asFloatBuffer();
+    }
+
+    /**
+     * Works out how many rows can go into a single buffer.
+     *
+     * @param columns The amount of columns.
+     * @return The rows per buffer.
+     *
+     * @throws ArithmeticException if a single row doesn't fit in a buffer.
+     */
+    static int rowsPerChunk(int columns) throws ArithmeticException {
+        if (columns > MAX_CHUNK_FLOATS) throw new ArithmeticException("Too many columns for a buffer backed matrix ... " + columns);
+        return MAX_CHUNK_FLOATS / Math.max(1, columns);
+    }
+    /**
+     * Works out how many buffers a matrix needs.
+     *
+     * @param rows The amount of rows.
+     * @param rowsPerChunk How many rows each buffer holds.
+     * @return The amount of buffers.
+     */
+    static int chunkCount(int rows, int rowsPerChunk) { return Math.max(1, (rows + rowsPerChunk - 1) / rowsPerChunk); }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" Getters & Setters ">
+    /**
+     * Gets the amount of rows in this matrix.
+     *
+     * @return The amount of rows.
+     */
+    public int getRows() { return r; }
+    /**
+     * Gets the amount of columns in this matrix.
+     *
+     * @return The amount of columns.
+     */
+    public int getColumns() { return c; }
+    /**
+     * @return True once close() has been called.
+     */
+    public boolean isClosed() { return chunks == null; }
+
+    /**
+     * Gets a value at some position in the matrix.
+     *
+     * @param i The row position.
+     * @param j The column position.
+     * @return The value at that position.
+     *
+     * @throws ArrayIndexOutOfBoundsException If you try to get a value that's outside the matrix size.
+     * @throws IllegalStateException If this matrix has been closed.
+     */
+    public float getValue(int i, int j) throws ArrayIndexOutOfBoundsException, IllegalStateException {
+        this.checkIndex(i, j);
+        FloatBuffer[] ch = this.lockChunks();
+        try { return ch[i / rowsPerChunk].get((i % rowsPerChunk) * c + j); }
+        finally { this.unlockBuffers(); }
+    }
+    /**
+     * Sets a value at some position in the matrix.
+     *
+     * @param i The row position.
+     * @param j The column position.
+     * @param value The value to be placed at ( i , j )
+     *
+     * @throws ArrayIndexOutOfBoundsException If you try to set a value that's outside the matrix size.
+     * @throws IllegalStateException If this matrix has been closed.
+     */
+    public void setValue(int i, int j, float value) throws ArrayIndexOutOfBoundsException, IllegalStateException {
+        this.checkIndex(i, j);
+        FloatBuffer[] ch = this.lockChunks();
+        try { ch[i / rowsPerChunk].put((i % rowsPerChunk) * c + j, value); }
+        finally { this.unlockBuffers(); }
+    }
+
+    /**
+     * Copies a block of this matrix onto the heap.
+     *
+     * @param i0 The first row.
+     * @param j0 The first column.
+     * @param rows How many rows to copy.
+     * @param cols How many columns to copy.
+     * @param dst Where to copy to.
+     * @param dOff Where the block starts in dst.
+     * @param ldd The row stride of dst.
+     */
+    void read(int i0, int j0, int rows, int cols, float[] dst, int dOff, int ldd) {
+        FloatBuffer[] ch = this.lockChunks();
+        try {
+            for (int i = 0; rows > i; i++) {
+                int row = i0 + i;
+                ch[row / rowsPerChunk].get((row % rowsPerChunk) * c + j0, dst, dOff + i * ldd, cols);
+            }
+        } finally { this.unlockBuffers(); }
+    }
+    /**
+     * Copies a block from the heap into this matrix.
+     *
+     * @param i0 The first row.
+     * @param j0 The first column.
+     * @param rows How many rows to copy.
+     * @param cols How many columns to copy.
+     * @param src Where to copy from.
+     * @param sOff Where the block starts in src.
+     * @param lds The row stride of src.
+     */
+    void write(int i0, int j0, int rows, int cols, float[] src, int sOff, int lds) {
+        FloatBuffer[] ch = this.lockChunks();
+        try {
+            for (int i = 0; rows > i; i++) {
+                int row = i0 + i;
+                ch[row / rowsPerChunk].put((row % rowsPerChunk) * c + j0, src, sOff + i * lds, cols);
+            }
+        } finally { this.unlockBuffers(); }
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" Tiled Operations ">
+    /**
+     * Multiplies this by another matrix & writes the result into dest,
+     * one TILE x TILE block of dest at a time.
+     *
+     * @param o The other matrix.
+     * @param dest Where to write the result, it must be ( this rows ) x ( o columns ).
+     * @return dest.
+     *
+     * @throws ArithmeticException if the sizes don't line up or dest is one of the operands.
+     */
+    public BufferMatrix multiplyInto(BufferMatrix o, BufferMatrix dest) throws ArithmeticException {
+        if (this.c != o.r) throw new ArithmeticException("Cannot multiply these matrices ... " + this.c + " != " + o.r);
+        checkDestination(dest, this.r, o.c);
+        if (dest == this || dest == o) throw new ArithmeticException("Cannot multiply into one of the operands ...");
+        float[] a = new float[TILE * TILE], b = new float[TILE * TILE], t = new float[TILE * TILE];
+        for (int i0 = 0; r > i0; i0 += TILE) {
+            int mi = Math.min(TILE, r - i0);
+            for (int j0 = 0; o.c > j0; j0 += TILE) {
+                int nj = Math.min(TILE, o.c - j0);
+                java.util.Arrays.fill(t, 0.0f);
+                for (int k0 = 0; c > k0; k0 += TILE) {
+                    int kk = Math.min(TILE, c - k0);
+                    this.read(i0, k0, mi, kk, a, 0, kk);
+                    o.read(k0, j0, kk, nj, b, 0, nj);
+                    Gemm.multiply(a, 0, kk, b, 0, nj, t, 0, nj, mi, nj, kk);
+                }
+                dest.write(i0, j0, mi, nj, t, 0, nj);
+            }
+        }
+        return dest;
+    }
+    /**
+     * Transposes this matrix into dest, one tile at a time.
+     *
+     * @param dest Where to write the result, it must be ( this columns ) x ( this rows ).
+     * @return dest.
+     *
+     * @throws ArithmeticException if dest is the wrong size or is this matrix.
+     */
+    public BufferMatrix transposeInto(BufferMatrix dest) throws ArithmeticException {
+        checkDestination(dest, this.c, this.r);
+        if (dest == this) throw new ArithmeticException("Cannot transpose into the same matrix ...");
+        float[] a = new float[TILE * TILE], t = new float[TILE * TILE];
+        for (int i0 = 0; r > i0; i0 += TILE) {
+            int mi = Math.min(TILE, r - i0);
+            for (int j0 = 0; c > j0; j0 += TILE) {
+                int nj = Math.min(TILE, c - j0);
+                this.read(i0, j0, mi, nj, a, 0, nj);
+                for (int i = 0; mi > i; i++) for (int j = 0; nj > j; j++) t[j * mi + i] = a[i * nj + j];
+                dest.write(j0, i0, nj, mi, t, 0, mi);
+            }
+        }
+        return dest;
+    }
+    /**
+     * Adds two matrices & writes the result into dest. dest may be either operand.
+     *
+     * @param o The other matrix.
+     * @param dest Where to write the result.
+     * @return dest.
+     *
+     * @throws ArithmeticException if the three matrices are not equal in dimensions.
+     */
+    public BufferMatrix addInto(BufferMatrix o, BufferMatrix dest) throws ArithmeticException {
+        return this.elementWise(o, dest, 0);
+    }
+    /**
+     * Subtracts another matrix from this one & writes the result into dest.
+     * dest may be either operand.
+     *
+     * @param o The subtrahend matrix.
+     * @param dest Where to write the result.
+     * @return dest.
+     *
+     * @throws ArithmeticException if the three matrices are not equal in dimensions.
+     */
+    public BufferMatrix subtractInto(BufferMatrix o, BufferMatrix dest) throws ArithmeticException {
+        return this.elementWise(o, dest, 1);
+    }
+    /**
+     * Multiplies two matrices element by element & writes the result into
+     * dest. dest may be either operand.
+     *
+     * @param o The other matrix.
+     * @param dest Where to write the result.
+     * @return dest.
+     *
+     * @throws ArithmeticException if the three matrices are not equal in dimensions.
+     */
+    public BufferMatrix hadamardProductInto(BufferMatrix o, BufferMatrix dest) throws ArithmeticException {
+        return this.elementWise(o, dest, 2);
+    }
+    /**
+     * Scales every element & writes the result into dest. dest may be this matrix.
+     *
+     * @param f The scalar to scale by.
+     * @param dest Where to write the result.
+     * @return dest.
+     *
+     * @throws ArithmeticException if dest isn't the same size as this matrix.
+     */
+    public BufferMatrix scaleInto(float f, BufferMatrix dest) throws ArithmeticException {
+        checkDestination(dest, this.r, this.c);
+        int band = bandRows(), len = band * c;
+        float[] x = new float[len];
+        for (int i0 = 0; r > i0; i0 += band) {
+            int rows = Math.min(band, r - i0);
+            this.read(i0, 0, rows, c, x, 0, c);
+            ElementKernels.scale(x, 0, f, x, 0, rows * c);
+            dest.write(i0, 0, rows, c, x, 0, c);
+        }
+        return dest;
+    }
+
+    /**
+     * Streams bands of rows through an element-wise kernel.
+     *
+     * @param op 0 add, 1 subtract, 2 multiply.
+     */
+    private BufferMatrix elementWise(BufferMatrix o, BufferMatrix dest, int op) throws ArithmeticException {
+        if (this.r != o.r || this.c != o.c) throw new ArithmeticException("Matrices must be the same size ...");
+        checkDestination(dest, this.r, this.c);
+        int band = bandRows(), len = band * c;
+        float[] x = new float[len], y = new float[len];
+        for (int i0 = 0; r > i0; i0 += band) {
+            int rows = Math.min(band, r - i0), n = rows * c;
+            this.read(i0, 0, rows, c, x, 0, c);
+            o.read(i0, 0, rows, c, y, 0, c);
+            if (op == 0) ElementKernels.add(x, 0, y, 0, x, 0, n);
+            else if (op == 1) ElementKernels.subtract(x, 0, y, 0, x, 0, n);
+            else ElementKernels.multiply(x, 0, y, 0, x, 0, n);
+            dest.write(i0, 0, rows, c, x, 0, c);
+        }
+        return dest;
+    }
+    /**
+     * @return How many whole rows fit in one tile worth of floats.
+     */
+    private int bandRows() { return Math.max(1, Math.min(r, TILE * TILE / Math.max(1, c))); }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" Information Calculators ">
+    /**
+     * Calculates the determinant with partial pivoting. If a copy fits in
+     * half the free heap, that one copy is factored in place by the blocked
+     * LU Matrix uses. Otherwise a blocked LU runs over a scratch copy made
+     * by newScratch(), moving one TILE wide panel & one band of rows onto
+     * the heap at a time. This matrix isn't changed.
+     *
+     * @return The determinant.
+     *
+     * @throws ArithmeticException if this matrix isn't square.
+     */
+    public float determinant() throws ArithmeticException {
+        if (r != c) throw new ArithmeticException("Cannot calculate the determinant of a non-square matrix ...");
+        Runtime rt = Runtime.getRuntime();
+        long free = rt.maxMemory() - (rt.totalMemory() - rt.freeMemory());
+        if (MAX_CHUNK_FLOATS >= (long) r * c && free / 2 > (long) r * c * Float.BYTES) return new LUDecomposition(this.toMatrix().data, r, null).determinant();
+        try (BufferMatrix t = this.newScratch(r, c)) {
+            this.copyInto(t);
+            return t.factorDeterminant();
+        }
+    }
+
+    /**
+     * Right-looking blocked LU in place, keeping only the determinant. Each
+     * panel is factored on the heap, U12 is solved on the heap & the
+     * trailing matrix is updated a band of rows at a time through Gemm.
+     *
+     * @return The determinant.
+     */
+    private float factorDeterminant() {
+        int n = r;
+        float det = 1.0f;
+        for (int k0 = 0; n > k0; k0 += TILE) {
+            int nb = Math.min(TILE, n - k0), k1 = k0 + nb, h = n - k0, rest = n - k1;
+
+            // 1. Factor the panel, rows [ k0 , n ) & columns [ k0 , k1 ) .
+            float[] pa = new float[h * nb];
+            this.read(k0, k0, h, nb, pa, 0, nb);
+            int[] piv = new int[nb];
+            for (int p = 0; nb > p; p++) {
+                int maxRow = p;
+                float max = Math.abs(pa[p * nb + p]);
+                for (int i = p + 1; h > i; i++) {
+                    float v = Math.abs(pa[i * nb + p]);
+                    if (v > max) { max = v; maxRow = i; }
+                }
+                if (LUDecomposition.SINGULAR_EPSILON >= max) return 0.0f;
+                piv[p] = maxRow;
+                if (maxRow != p) {
+                    Matrix.swapRows(pa, p * nb, maxRow * nb, nb);
+                    det = -det;
+                }
+                int rp = p * nb;
+                float pivot = pa[rp + p];
+                det *= pivot;
+                for (int i = p + 1; h > i; i++) {
+                    int ri = i * nb;
+                    float f = pa[ri + p] / pivot;
+                    pa[ri + p] = f;
+                    ElementKernels.subtractScaled(pa, rp + p + 1, f, pa, ri + p + 1, nb - p - 1);
+                }
+            }
+            if (rest == 0) break;
+
+            // 2. Apply the panel's swaps to the columns past it & solve L11 * U12 = A12 .
+            float[] x = new float[rest], y = new float[rest];
+            for (int p = 0; nb > p; p++) {
+                if (piv[p] == p) continue;
+                this.read(k0 + p, k1, 1, rest, x, 0, rest);
+                this.read(k0 + piv[p], k1, 1, rest, y, 0, rest);
+                this.write(k0 + p, k1, 1, rest, y, 0, rest);
+                this.write(k0 + piv[p], k1, 1, rest, x, 0, rest);
+            }
+            float[] u = new float[nb * rest];
+            this.read(k0, k1, nb, rest, u, 0, rest);
+            for (int p = 0; nb > p; p++)
+                for (int i = p + 1; nb > i; i++) {
+                    float f = pa[i * nb + p];
+                    if (f != 0.0f) ElementKernels.subtractScaled(u, p * rest, f, u, i * rest, rest);
+                }
+
+            // 3. A22 -= L21 * U12 , one band of rows at a time.
+            int band = Math.max(1, Math.min(rest, TILE * TILE / rest));
+            float[] l = new float[band * nb], a = new float[band * rest];
+            for (int i0 = k1; n > i0; i0 += band) {
+                int rows = Math.min(band, n - i0);
+                for (int i = 0, src = (i0 - k0) * nb; rows * nb > i; i++) l[i] = -pa[src + i];
+                this.read(i0, k1, rows, rest, a, 0, rest);
+                Gemm.multiply(l, 0, nb, u, 0, rest, a, 0, rest, rows, rest, nb);
+                this.write(i0, k1, rows, rest, a, 0, rest);
+            }
+        }
+        return det;
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" Converters ">
+    /**
+     * Copies this matrix onto the heap.
+     *
+     * @return A new Matrix equal to this one.
+     */
+    public Matrix toMatrix() {
+        Matrix m = new Matrix(r, c);
+        this.read(0, 0, r, c, m.data, 0, c);
+        return m;
+    }
+    /**
+     * Copies this matrix into another of the same size a band of rows at a time.
+     */
+    private void copyInto(BufferMatrix dest) {
+        int band = bandRows();
+        float[] x = new float[band * c];
+        for (int i0 = 0; r > i0; i0 += band) {
+            int rows = Math.min(band, r - i0);
+            this.read(i0, 0, rows, c, x, 0, c);
+            dest.write(i0, 0, rows, c, x, 0, c);
+        }
+    }
+    /**
+     * Copies a heap Matrix into this one.
+     *
+     * @param m The Matrix to copy, it must be the same size.
+     * @return This matrix.
+     *
+     * @throws ArithmeticException if the sizes differ.
+     */
+    public BufferMatrix copyFrom(Matrix m) throws ArithmeticException {
+        if (m.getRows() != r || m.getColumns() != c) throw new ArithmeticException("Matrices must be the same size to copy ...");
+        this.write(0, 0, r, c, m.data, m.offset, m.stride);
+        return this;
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" Lifetime ">
+    /**
+     * Makes a temporary matrix of the same kind for intermediate results.
+     * The caller closes it.
+     *
+     * @param rows The amount of rows.
+     * @param columns The amount of columns.
+     * @return A new zeroed matrix.
+     */
+    abstract BufferMatrix newScratch(int rows, int columns);
+
+    /**
+     * Frees the buffers right away. Any use of this matrix afterwards
+     * throws an IllegalStateException. Closing twice does nothing. If
+     * another thread is in the middle of an operation this waits for it
+     * to finish first, so nothing ever touches freed memory.
+     *
+     * @throws IllegalStateException if called from inside an operation on this matrix.
+     */
+    @Override
+    public void close() throws IllegalStateException {
+        if (lock.getReadHoldCount() > 0) throw new IllegalStateException("Cannot close a matrix while it's in use ...");
+        ByteBuffer[] old;
+        lock.writeLock().lock();
+        try {
+            old = bytes;
+            bytes = null; chunks = null;
+        } finally { lock.writeLock().unlock(); }
+        if (old != null) for (ByteBuffer b : old) release(b);
+    }
+
+    /**
+     * Locks the raw buffers against close(). Every call must be paired
+     * with unlockBuffers().
+     *
+     * @return The raw buffers.
+     *
+     * @throws IllegalStateException if this matrix has been closed.
+     */
+    ByteBuffer[] lockBuffers() throws IllegalStateException {
+        lock.readLock().lock();
+        ByteBuffer[] b = bytes;
+        if (b == null) { lock.readLock().unlock(); throw new IllegalStateException("Matrix has been closed ..."); }
+        return b;
+    }
+    /**
+     * Lets close() go ahead again after lockBuffers() or lockChunks().
+     */
+    void unlockBuffers() { lock.readLock().unlock(); }
+    /**
+     * Locks the float buffers against close(). Every call must be paired
+     * with unlockBuffers().
+     */
+    private FloatBuffer[] lockChunks() throws IllegalStateException {
+        lock.readLock().lock();
+        FloatBuffer[] ch = chunks;
+        if (ch == null) { lock.readLock().unlock(); throw new IllegalStateException("Matrix has been closed ..."); }
+        return ch;
+    }
+
+    // sun.misc.Unsafe.invokeCleaner, used to free direct & mapped buffers right away.
+    private static final Object UNSAFE;
+    private static final java.lang.reflect.Method INVOKE_CLEANER;
+    static {
+        Object unsafe = null;
+        java.lang.reflect.Method clean = null;
+        try {
+            Class<?> type = Class.forName("sun.misc.Unsafe");
+            java.lang.reflect.Field field = type.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            unsafe = field.get(null);
+            clean = type.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            unsafe = null; clean = null;
+        }
+        UNSAFE = unsafe; INVOKE_CLEANER = clean;
+    }
+    /**
+     * Frees a direct buffer now rather than whenever it's collected. If
+     * that isn't possible on this runtime the buffer is left to the GC.
+     * Nothing may use the buffer, or any view of it, afterwards.
+     *
+     * @param b The buffer.
+     */
+    static void release(ByteBuffer b) {
+        if (INVOKE_CLEANER == null || !b.isDirect()) return;
+        try { INVOKE_CLEANER.invoke(UNSAFE, b); }
+        catch (ReflectiveOperationException | RuntimeException e) { /* Left for the GC */ }
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" Helpers ">
+    private void checkIndex(int i, int j) throws ArrayIndexOutOfBoundsException {
+        if (i > r - 1 || 0 > i) throw new ArrayIndexOutOfBoundsException("Row index, " + i + ", out of bounds!");
+        if (j > c - 1 || 0 > j) throw new ArrayIndexOutOfBoundsException("Column index, " + j + ", out of bounds!");
+    }
+    private static void checkDestination(BufferMatrix dest, int rows, int columns) throws ArithmeticException {
+        if (dest.r != rows || dest.c != columns)
+            throw new ArithmeticException("Destination matrix is " + dest.r + " x " + dest.c + ", expected " + rows + " x " + columns + " ...");
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" String Methods ">
+    @Override
+    public String toString() { return getClass().getSimpleName() + " " + r + " x " + c + (isClosed() ? " (closed)" : ""); }
+    //</editor-fold>
+
+}
@@ -0,0 +1,186 @@
+package Matrix;
+
+/**
+ * Cholesky decomposition of a symmetric positive-definite matrix, A = L * L^T .
+ * Only the lower triangle of A is read. The factor is computed one block of
+ * columns at a time so the trailing update streams through whole rows.
+ *
+ * @author Harrison Davis
+ */
+public class CholeskyDecomposition {
+
+    // How many columns are factored per block.
+    static final int BLOCK = 64;
+
+    // L stored row-major, n x n, zero above the diagonal.
+    final float[] l;
+    // The size.
+    final int n;
+    // False if a non-positive pivot was found.
+    private boolean spd;
+
+    //<editor-fold defaultstate="collapsed" desc=" Constructors ">
+    /**
+     * Factors a square matrix. The matrix itself isn't changed. If it turns
+     * out to not be positive-definite isSPD() will return false & the
+     * solvers will refuse to run.
+     *
+     * @param a The Matrix to factor.
+     *
+     * @throws ArithmeticException if the matrix isn't square.
+     */
+    public CholeskyDecomposition(Matrix a) throws ArithmeticException {
+        if (a.getRows() != a.getColumns()) throw new ArithmeticException("Cannot Cholesky decompose a non-square matrix ...");
+        n = a.getRows();
+        l = new Matrix(a).data;
+        spd = true;
+        factor();
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" Factorization ">
+    /**
+     * Blocked factorization. Each block of columns is finished left-looking
+     * against the columns before it in the same block, then the block is
+     * used to update the lower triangle of the trailing submatrix.
+     */
+    private void factor() {
+        for (int k0 = 0; n > k0 && spd; k0 += BLOCK) {
+            int k1 = Math.min(k0 + BLOCK, n);
+
+            // 1. Diagonal block & the panel under it.
+            for (int j = k0; k1 > j; j++) {
+                int rj = j * n;
+                float d = l[rj + j] - dot(l, rj + k0, rj + k0, j - k0);
+                if (!(d > 0.0f)) { spd = false; break; }
+                d = (float) Math.sqrt(d);
+                l[rj + j] = d;
+                for (int i = j + 1; n > i; i++) {
+                    int ri = i * n;
+                    l[ri + j] = (l[ri + j] - dot(l, ri + k0, rj + k0, j - k0)) / d;
+                }
+            }
+            if (!spd) break;
+
+            // 2. A22 -= L21 * L21^T , lower triangle only.
+            for (int i = k1; n > i; i++) {
+                int ri = i * n;
+                for (int j = k1; i >= j; j++) l[ri + j] -= dot(l, ri + k0, j * n + k0, k1 - k0);
+            }
+        }
+        // Clear whatever is left of A above the diagonal.
+        for (int i = 0; n > i; i++) java.util.Arrays.fill(l, i * n + i + 1, (i + 1) * n, 0.0f);
+    }
+
+    /**
+     * Dot product of two runs in the same array.
+     */
+    private static float dot(float[] a, int x, int y, int len) {
+        float sum = 0.0f;
+        for (int p = 0; len > p; p++) sum += a[x + p] * a[y + p];
+        return sum;
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" Getters ">
+    /**
+     * @return The size of the factored matrix.
+     */
+    public int getSize() { return n; }
+    /**
+     * @return True if the factored matrix is symmetric positive-definite.
+     */
+    public boolean isSPD() { return spd; }
+    /**
+     * @return A new Matrix holding the lower triangular factor L.
+     */
+    public Matrix getL() { return new Matrix(n, n, l); }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" Information Calculators ">
+    /**
+     * Calculates the determinant of the factored matrix, which is the
+     * square of the product of the diagonal of L.
+     *
+     * @return The determinant.
+     *
+     * @throws ArithmeticException if the matrix isn't positive-definite.
+     */
+    public float determinant() throws ArithmeticException {
+        if (!spd) throw new ArithmeticException("Matrix is not symmetric positive-definite ...");
+        float det = 1.0f;
+        for (int i = 0; n > i; i++) det *= l[i * n + i];
+        return det * det;
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" Solvers ">
+    /**
+     * Solves A * X = B for X.
+     *
+     * @param b The right hand sides, one per column. It must have n rows.
+     * @return A new Matrix X.
+     *
+     * @throws ArithmeticException if the row count of b is wrong or the matrix isn't positive-definite.
+     */
+    public Matrix solve(Matrix b) throws ArithmeticException {
+        if (b.getRows() != n) throw new ArithmeticException("Right hand side must have " + n + " rows, it has " + b.getRows() + " ...");
+        if (!spd) throw new ArithmeticException("Matrix is not symmetric positive-definite ...");
+        Matrix x = new Matrix(b);
+        substitute(x.data, x.getColumns());
+        return x;
+    }
+    /**
+     * Solves A * x = b for x.
+     *
+     * @param b The right hand side. It must have length n.
+     * @return A new array x.
+     *
+     * @throws ArithmeticException if the length of b is wrong or the matrix isn't positive-definite.
+     */
+    public float[] solve(float[] b) throws ArithmeticException {
+        if (b.length != n) throw new ArithmeticException("Right hand side must have length " + n + ", it has " + b.length + " ...");
+        if (!spd) throw new ArithmeticException("Matrix is not symmetric positive-definite ...");
+        float[] x = b.clone();
+        substitute(x, 1);
+        return x;
+    }
+    /**
+     * Calculates the inverse of the factored matrix.
+     *
+     * @return A new Matrix that's the inverse.
+     *
+     * @throws ArithmeticException if the matrix isn't positive-definite.
+     */
+    public Matrix inverse() throws ArithmeticException { return this.solve(Matrix.getIdentity(n)); }
+
+    /**
+     * Solves L * Y = B then L^T * X = Y in place over an n x m row-major array.
+     */
+    private void substitute(float[] x, int m) {
+        for (int k = 0; n > k; k++) {
+            int rk = k * m;
+            float d = l[k * n + k];
+            for (int j = 0; m > j; j++) x[rk + j] /= d;
+            for (int i = k + 1; n > i; i++) {
+                float f = l[i * n + k];
+                if (f == 0.0f) continue;
+                int ri = i * m;
+                for (int j = 0; m > j; j++) x[ri + j] -= f * x[rk + j];
+            }
+        }
+        for (int k = n - 1; k >= 0; k--) {
+            int rk = k * m, lk = k * n;
+            float d = l[lk + k];
+            for (int j = 0; m > j; j++) x[rk + j] /= d;
+            for (int i = 0; k > i; i++) {
+                float f = l[lk + i];
+                if (f == 0.0f) continue;
+                int ri = i * m;
+                for (int j = 0; m > j; j++) x[ri + j] -= f * x[rk + j];
+            }
+        }
+    }
+    //</editor-fold>
+
+}
@@ -0,0 +1,836 @@
+package Matrix;
+
+/**
+ * A double precision matrix with the same operations as Matrix. Use it
+ * where float runs out of range or accuracy, such as determinants of
+ * large matrices or inverses of badly conditioned ones, and convert back
+ * with toMatrix() when done.
+ *
+ * @author Harrison Davis
+ */
+public class DMatrix implements Iterable<double[]> {
+
+    // Pivots this small or smaller are treated as zero.
+    static final double SINGULAR_EPSILON = 1e-12;
+
+    // The backing array, element ( i , j ) lives at data[i * c + j].
+    final double[] data;
+    // The row & column count.
+    private final int r, c;
+
+    //<editor-fold defaultstate="collapsed" desc=" Constructors ">
+    /**
+     * Constructor for a square matrix.
+     *
+     * @param size The size. This will become the row & column count.
+     */
+    public DMatrix(int size) { this(size, size); }
+    /**
+     * Full explicit constructor.
+     *
+     * @param rows The amount of rows.
+     * @param columns The amount of columns.
+     *
+     * @throws ArithmeticException if a size is negative or rows * columns doesn't fit in an array.
+     */
+    public DMatrix(int rows, int columns) throws ArithmeticException { this(new double[Matrix.elements(rows, columns)], rows, columns); }
+    /**
+     * 2D array constructor. Transforms a 2D array into a matrix.
+     *
+     * @param data The 2D to use for this new matrix.
+     */
+    public DMatrix(double[][] data) {
+        this(data.length, data[0].length);
+        for (int i = 0; this.r > i; i++)
+            System.arraycopy(data[i], 0, this.data, i * this.c, this.c);
+    }
+    /**
+     * Flat array constructor. Copies a row-major array into a new matrix.
+     *
+     * @param rows The amount of rows.
+     * @param columns The amount of columns.
+     * @param data The row-major data, it must hold at least rows * columns values.
+     */
+    public DMatrix(int rows, int columns, double[] data) {
+        this(rows, columns);
+        System.arraycopy(data, 0, this.data, 0, this.data.length);
+    }
+    /**
+     * Copy constructor.
+     *
+     * @param copy The matrix to copy.
+     */
+    public DMatrix(DMatrix copy) { this(copy.r, copy.c, copy.data); }
+    /**
+     * Widening constructor. Every float of a Matrix is exactly representable
+     * as a double, so nothing is lost.
+     *
+     * @param copy The Matrix to copy.
+     */
+    public DMatrix(Matrix copy) {
+        this(copy.getRows(), copy.getColumns());
+        for (int i = 0; r > i; i++) {
+            int si = copy.offset + i * copy.stride, ti = i * c;
+            for (int j = 0; c > j; j++) data[ti + j] = copy.data[si + j];
+        }
+    }
+
+    private DMatrix(double[] data, int rows, int columns) { this.data = data; r = rows; c = columns; }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" Getters & Setters ">
+    /**
+     * Gets the amount of rows in this matrix.
+     *
+     * @return The amount of rows.
+     */
+    public int getRows() { return r; }
+    /**
+     * Gets the amount of columns in this matrix.
+     *
+     * @return The amount of columns.
+     */
+    public int getColumns() { return c; }
+
+    /**
+     * Gets a value at some position in the matrix.
+     * The row & column inputs must be within the matrix.
+     *
+     * @param i The row position.
+     * @param j The column position.
+     * @return The value at that position.
+     *
+     * @throws ArrayIndexOutOfBoundsException If you try to get a value that's outside the matrix size.
+     */
+    public double getValue(int i, int j) throws ArrayIndexOutOfBoundsException {
+        if (i > r - 1 || 0 > i) throw new ArrayIndexOutOfBoundsException("Row index, " + i + ", out of bounds!");
+        if (j > c - 1 || 0 > j) throw new ArrayIndexOutOfBoundsException("Column index, " + j + ", out of bounds!");
+        return data[i * c + j];
+    }
+    /**
+     * Sets a value at some position in the matrix.
+     * The row & column inputs must be within the matrix.
+     *
+     * @param i The row position.
+     * @param j The column position.
+     * @param value The value to be placed at ( i , j )
+     *
+     * @throws ArrayIndexOutOfBoundsException If you try to set a value that's outside the matrix size.
+     */
+    public void setValue(int i, int j, double value) throws ArrayIndexOutOfBoundsException {
+        if (i > r - 1 || 0 > i) throw new ArrayIndexOutOfBoundsException("Row index, " + i + ", out of bounds!");
+        if (j > c - 1 || 0 > j) throw new ArrayIndexOutOfBoundsException("Column index, " + j + ", out of bounds!");
+        data[i * c + j] = value;
+    }
+
+    /**
+     * Copies a row of this matrix into a new array.
+     *
+     * @param i The row position.
+     * @return A new array holding the values of row i.
+     *
+     * @throws ArrayIndexOutOfBoundsException If the row is outside the matrix.
+     */
+    public double[] getRowArray(int i) throws ArrayIndexOutOfBoundsException {
+        if (i > r - 1 || 0 > i) throw new ArrayIndexOutOfBoundsException("Row index, " + i + ", out of bounds!");
+        double[] row = new double[c];
+        System.arraycopy(data, i * c, row, 0, c);
+        return row;
+    }
+    /**
+     * Copies this matrix into a new 2D array.
+     *
+     * @return A new r x c array holding the values of this matrix.
+     */
+    public double[][] toArray() {
+        double[][] out = new double[r][c];
+        for (int i = 0; r > i; i++) System.arraycopy(data, i * c, out[i], 0, c);
+        return out;
+    }
+    /**
+     * Copies this matrix into a new row-major array.
+     *
+     * @return A new array of length r * c where element ( i , j ) is at i * c + j .
+     */
+    public double[] toFlatArray() { return data.clone(); }
+    /**
+     * Narrows this matrix to single precision. Values are rounded to the
+     * nearest float.
+     *
+     * @return A new Matrix.
+     */
+    public Matrix toMatrix() {
+        Matrix m = new Matrix(r, c);
+        for (int k = 0, n = r * c; n > k; k++) m.data[k] = (float) data[k];
+        return m;
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" Simple Scalar Operations ">
+    /**
+     * Adds a scalar to each element in the matrix.
+     *
+     * @param f The scalar to add.
+     * @return A new DMatrix where each element has had the value added.
+     */
+    public DMatrix add(double f) { return this.addInto(f, new DMatrix(this.r, this.c)); }
+    /**
+     * Subtracts a scalar to each element in the matrix.
+     *
+     * @param f The scalar to subtract.
+     * @return A new DMatrix where each element has had the value subtracted.
+     */
+    public DMatrix subtract(double f) { return this.add(-f); }
+    /**
+     * Scales each element in the matrix by some scalar.
+     *
+     * @param f The scalar to scale by.
+     * @return A new DMatrix where each element has been scaled.
+     */
+    public DMatrix scale(double f) { return this.scaleInto(f, new DMatrix(this.r, this.c)); }
+    /**
+     * Divides each element in the matrix by some scalar.
+     *
+     * @param f The scalar to divide by.
+     * @return A new DMatrix where each element has been scaled.
+     */
+    public DMatrix divide(double f) { return this.scale( 1/f ); }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" Simple Matrix Operations ">
+    /**
+     * Adds two matrices together. They must be of the same dimensions.
+     *
+     * @param o The other DMatrix to add.
+     * @return A new DMatrix that's elements are the sum of this one and the other.
+     *
+     * @throws ArithmeticException if the two matrices are not equal in dimensions.
+     */
+    public DMatrix add(DMatrix o) throws ArithmeticException { return this.addInto(o, new DMatrix(this.r, this.c)); }
+    /**
+     * Subtracts two matrices. They must be of the same dimensions.
+     *
+     * @param o The subtrahend DMatrix.
+     * @return A new DMatrix that's elements are the difference of this one and the other.
+     *
+     * @throws ArithmeticException if the two matrices are not equal in dimensions.
+     */
+    public DMatrix subtract(DMatrix o) throws ArithmeticException { return this.subtractInto(o, new DMatrix(this.r, this.c)); }
+    /**
+     * Multiplies two matrices together.
+     *
+     * @param o The other DMatrix.
+     * @return A new DMatrix with the calculated results.
+     *
+     * @throws ArithmeticException if the column count of this DMatrix is not equal to the row count of the other DMatrix.
+     */
+    public DMatrix multiply(DMatrix o) throws ArithmeticException { return this.multiplyInto(o, new DMatrix(this.r, o.c)); }
+    /**
+     * Multiplies two matrices together using the Hadamard product.
+     *
+     * @param o The other DMatrix.
+     * @return A new DMatrix that's elements are the product of this one and the other.
+     *
+     * @throws ArithmeticException if the two matrices are not equal in dimensions.
+     */
+    public DMatrix hadamardProduct(DMatrix o) throws ArithmeticException {
+        if (!this.sizeEquals(o)) throw new ArithmeticException("Matrices must be the same size to calculate the Hadamard Product ...");
+        DMatrix result = new DMatrix(this.r, this.c);
+        for (int k = 0, n = r * c; n > k; k++) result.data[k] = data[k] * o.data[k];
+        return result;
+    }
+    /**
+     * Solves X * o = this for X, which is this * o^-1 without forming the inverse.
+     *
+     * @param o The divisor DMatrix.
+     * @return A new DMatrix that's been divided.
+     *
+     * @throws ArithmeticException if the divisor DMatrix is not square or is singular.
+     */
+    public DMatrix divide(DMatrix o) throws ArithmeticException {
+        if (o.r != o.c) throw new ArithmeticException("Cannot divide by a non-square matrix ...");
+        return o.transpose().solve(this.transpose()).transpose();
+    }
+    /**
+     * Multiplies two matrices together using the Hadamard quotient.
+     *
+     * @param o The other DMatrix.
+     * @return A new DMatrix that's elements are the quotient of this one and the other.
+     *
+     * @throws ArithmeticException if the two matrices are not equal in dimensions.
+     */
+    public DMatrix hadamardquotient(DMatrix o) throws ArithmeticException {
+        if (!this.sizeEquals(o)) throw new ArithmeticException("Matrices must be the same size to calculate the Hadamard Product ...");
+        DMatrix result = new DMatrix(this.r, this.c);
+        for (int k = 0, n = r * c; n > k; k++) result.data[k] = data[k] / o.data[k];
+        return result;
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" Destination Operations ">
+    /**
+     * Adds a scalar to each element & writes the result into dest.
+     * dest may be this DMatrix.
+     *
+     * @param f The scalar to add.
+     * @param dest Where to write the result.
+     * @return dest.
+     *
+     * @throws ArithmeticException if dest isn't the same size as this DMatrix.
+     */
+    public DMatrix addInto(double f, DMatrix dest) throws ArithmeticException {
+        this.checkDestination(dest, this.r, this.c);
+        for (int k = 0, n = r * c; n > k; k++) dest.data[k] = data[k] + f;
+        return dest;
+    }
+    /**
+     * Scales each element by a scalar & writes the result into dest.
+     * dest may be this DMatrix.
+     *
+     * @param f The scalar to scale by.
+     * @param dest Where to write the result.
+     * @return dest.
+     *
+     * @throws ArithmeticException if dest isn't the same size as this DMatrix.
+     */
+    public DMatrix scaleInto(double f, DMatrix dest) throws ArithmeticException {
+        this.checkDestination(dest, this.r, this.c);
+        for (int k = 0, n = r * c; n > k; k++) dest.data[k] = data[k] * f;
+        return dest;
+    }
+    /**
+     * Adds two matrices together & writes the result into dest.
+     * dest may be either operand.
+     *
+     * @param o The other DMatrix to add.
+     * @param dest Where to write the result.
+     * @return dest.
+     *
+     * @throws ArithmeticException if the three matrices are not equal in dimensions.
+     */
+    public DMatrix addInto(DMatrix o, DMatrix dest) throws ArithmeticException {
+        if (!this.sizeEquals(o)) throw new ArithmeticException("Matrices must be the same size to add ...");
+        this.checkDestination(dest, this.r, this.c);
+        for (int k = 0, n = r * c; n > k; k++) dest.data[k] = data[k] + o.data[k];
+        return dest;
+    }
+    /**
+     * Subtracts another DMatrix from this one & writes the result into dest.
+     * dest may be either operand.
+     *
+     * @param o The subtrahend DMatrix.
+     * @param dest Where to write the result.
+     * @return dest.
+     *
+     * @throws ArithmeticException if the three matrices are not equal in dimensions.
+     */
+    public DMatrix subtractInto(DMatrix o, DMatrix dest) throws ArithmeticException {
+        if (!this.sizeEquals(o)) throw new ArithmeticException("Matrices must be the same size to subtract ...");
+        this.checkDestination(dest, this.r, this.c);
+        for (int k = 0, n = r * c; n > k; k++) dest.data[k] = data[k] - o.data[k];
+        return dest;
+    }
+    /**
+     * Multiplies two matrices together & writes the result into dest.
+     * dest must not be either operand.
+     *
+     * @param o The other DMatrix.
+     * @param dest Where to write the result, it must be ( this rows ) x ( o columns ).
+     * @return dest.
+     *
+     * @throws ArithmeticException if the matrices can't be multiplied, dest is
+     *      the wrong size, or dest is an operand.
+     */
+    public DMatrix multiplyInto(DMatrix o, DMatrix dest) throws ArithmeticException {
+        if (this.c != o.r)
+            throw new ArithmeticException
+                (
+                    "Cannot multiply these matrices ... \n" +
+                    "Column count of this matrix: " + this.c + "\n" +
+                    "Row count of the other matrix: " + o.r + "\n"
+                );
+        this.checkDestination(dest, this.r, o.c);
+        if (dest.data == this.data || dest.data == o.data)
+            throw new ArithmeticException("Cannot multiply into a matrix that shares storage with an operand ...");
+        java.util.Arrays.fill(dest.data, 0.0);
+        Gemm.multiply(this.data, 0, this.c, o.data, 0, o.c, dest.data, 0, o.c, this.r, o.c, this.c);
+        return dest;
+    }
+    /**
+     * Transposes this DMatrix into dest. dest must not be this DMatrix.
+     *
+     * @param dest Where to write the result, it must be ( this columns ) x ( this rows ).
+     * @return dest.
+     *
+     * @throws ArithmeticException if dest is the wrong size or is this DMatrix.
+     */
+    public DMatrix transposeInto(DMatrix dest) throws ArithmeticException {
+        this.checkDestination(dest, this.c, this.r);
+        if (dest.data == this.data) throw new ArithmeticException("Cannot transpose into a matrix that shares storage with this one ...");
+        for (int i = 0; r > i; i++)
+            for (int j = 0; c > j; j++) dest.data[j * r + i] = data[i * c + j];
+        return dest;
+    }
+
+    /**
+     * Adds a scalar to each element of this DMatrix in place.
+     *
+     * @param f The scalar to add.
+     * @return This DMatrix.
+     */
+    public DMatrix addLocal(double f) { return this.addInto(f, this); }
+    /**
+     * Scales each element of this DMatrix in place.
+     *
+     * @param f The scalar to scale by.
+     * @return This DMatrix.
+     */
+    public DMatrix scaleLocal(double f) { return this.scaleInto(f, this); }
+    /**
+     * Adds another DMatrix to this one in place.
+     *
+     * @param o The other DMatrix to add.
+     * @return This DMatrix.
+     *
+     * @throws ArithmeticException if the two matrices are not equal in dimensions.
+     */
+    public DMatrix addLocal(DMatrix o) throws ArithmeticException { return this.addInto(o, this); }
+    /**
+     * Subtracts another DMatrix from this one in place.
+     *
+     * @param o The subtrahend DMatrix.
+     * @return This DMatrix.
+     *
+     * @throws ArithmeticException if the two matrices are not equal in dimensions.
+     */
+    public DMatrix subtractLocal(DMatrix o) throws ArithmeticException { return this.subtractInto(o, this); }
+
+    private void checkDestination(DMatrix dest, int rows, int columns) throws ArithmeticException {
+        if (dest.r != rows || dest.c != columns)
+            throw new ArithmeticException("Destination matrix is " + dest.r + " x " + dest.c + ", expected " + rows + " x " + columns + " ...");
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" Information Calculators ">
+    /**
+     * Calculates the determinant of this matrix through an LU factorization.
+     *
+     * @return The determinant.
+     *
+     * @throws ArithmeticException if this matrix isn't a square matrix.
+     */
+    public double determinant() throws ArithmeticException {
+        if (r != c) throw new ArithmeticException("Cannot calculate the determinant of a non-square matrix ...");
+        double[] lu = data.clone();
+        int[] perm = new int[r];
+        int sign = factorLU(lu, perm, r);
+        if (sign == 0) return 0.0;
+        double det = sign;
+        for (int i = 0; r > i; i++) det *= lu[i * r + i];
+        return det;
+    }
+    /**
+     * Solves this * X = rhs for X without forming an inverse.
+     *
+     * @param rhs The right hand sides, one per column.
+     * @return A new DMatrix X.
+     *
+     * @throws ArithmeticException if this matrix isn't square, is singular,
+     *      or rhs has the wrong row count.
+     */
+    public DMatrix solve(DMatrix rhs) throws ArithmeticException {
+        if (r != c) throw new ArithmeticException("Cannot LU decompose a non-square matrix ...");
+        if (rhs.r != r) throw new ArithmeticException("Right hand side must have " + r + " rows, it has " + rhs.r + " ...");
+        double[] lu = data.clone();
+        int[] perm = new int[r];
+        if (factorLU(lu, perm, r) == 0) throw new ArithmeticException("Matrix is singular, cannot solve ...");
+        int m = rhs.c;
+        DMatrix x = new DMatrix(r, m);
+        for (int i = 0; r > i; i++) System.arraycopy(rhs.data, perm[i] * m, x.data, i * m, m);
+        substitute(lu, r, x.data, m);
+        return x;
+    }
+    /**
+     * Solves this * X = rhs in double precision for a single precision
+     * system, rounding the answer back to float at the end. This is the
+     * cheap way to run an ill-conditioned solve at higher accuracy.
+     *
+     * @param a The system Matrix.
+     * @param rhs The right hand sides, one per column.
+     * @return A new Matrix X.
+     *
+     * @throws ArithmeticException if a isn't square, is singular, or rhs has the wrong row count.
+     */
+    public static Matrix solve(Matrix a, Matrix rhs) throws ArithmeticException {
+        return new DMatrix(a).solve(new DMatrix(rhs)).toMatrix();
+    }
+
+    /**
+     * Gets the identity matrix of this matrix using it's size.
+     *
+     * @return A new DMatrix that's an identity DMatrix with equal size to this one.
+     *
+     * @throws ArithmeticException if this DMatrix isn't square.
+     */
+    public DMatrix getIdentity() throws ArithmeticException {
+        if (this.r != this.c) throw new ArithmeticException("Cannot get the identity of a non-square matrix ...");
+        return DMatrix.getIdentity(this.r);
+    }
+    /**
+     * Forms an identity matrix using the input size.
+     *
+     * @param n How large to make the DMatrix.
+     * @return A new DMatrix that's the identity matrix of size n.
+     */
+    public static DMatrix getIdentity(int n) {
+        DMatrix id = new DMatrix(n);
+        for (int i = 0; n > i; i++) id.data[i * n + i] = 1.0;
+        return id;
+    }
+
+    /**
+     * Calculates the square of this matrix's norm.
+     *
+     * @return The square of this DMatrix's norm.
+     */
+    public double squareNorm() {
+        double sum = 0.0;
+        for (double v : data) sum += v * v;
+        return sum;
+    }
+    /**
+     * Calculates and returns the norm of this matrix.
+     *
+     * @return The norm of this DMatrix.
+     */
+    public double norm() { return Math.sqrt(this.squareNorm()); }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" Transformers ">
+    /**
+     * Negates every element of this matrix.
+     *
+     * @return A new DMatrix that's equal to this matrix but each element has been negated.
+     */
+    public DMatrix negate() { return this.scale(-1.0); }
+    /**
+     * Calculates the inverse of this matrix (M^-1) and returns it.
+     *
+     * @return A new DMatrix that's the inverse of this DMatrix.
+     *
+     * @throws ArithmeticException if this matrix isn't square or is singular.
+     */
+    public DMatrix inverse() throws ArithmeticException {
+        if (r != c) throw new ArithmeticException("Cannot inverse a non-square matrix ...");
+        double[] lu = data.clone();
+        int[] perm = new int[r];
+        if (factorLU(lu, perm, r) == 0) throw new ArithmeticException("Matrix is singular and cannot be inverted ...");
+        DMatrix x = new DMatrix(r);
+        for (int i = 0; r > i; i++) x.data[i * r + perm[i]] = 1.0;
+        substitute(lu, r, x.data, r);
+        return x;
+    }
+    /**
+     * Performs Gaussian elimination. Assumes the right half of this matrix is the identity or another matrix.
+     *
+     * @return A new matrix that's the left half of the reduced augmented matrix.
+     *
+     * @throws ArithmeticException if the column count is odd.
+     */
+    public DMatrix gaussianEliminate() throws ArithmeticException {
+        if (this.c % 2 == 1) throw new ArithmeticException("Cannot perform a guassian elimination without explicit column arguement if column count is odd ...");
+        return this.getLeftHalf().guassianEliminate(this.getRightHalf());
+    }
+    /**
+     * Performs Gaussian elimination with another augmented matrix, o.
+     *
+     * @param o The other DMatrix.
+     * @return A new DMatrix that's been reduced.
+     *
+     * @throws ArithmeticException if the matrix is singular.
+     */
+    public DMatrix guassianEliminate(DMatrix o) throws ArithmeticException {
+        // Return a compact copy of the left half (the reduced original matrix).
+        return this.reduce(this.augment(o)).getLeft(this.c);
+    }
+    /**
+     * Gauss-Jordan elimination with partial pivoting on an augmented matrix
+     * whose left part is this one, done in place.
+     *
+     * @param augmented ( this | o ) .
+     * @return augmented.
+     *
+     * @throws ArithmeticException if this matrix is wide or singular.
+     */
+    private DMatrix reduce(DMatrix augmented) throws ArithmeticException {
+        if (this.c > this.r) throw new ArithmeticException("Cannot eliminate a matrix with more columns than rows ...");
+        double[] a = augmented.data;
+        int ac = augmented.c;
+        for (int pivot = 0; this.c > pivot; pivot++) {
+            int p = pivot * ac;
+            // 1. Swap the row with the largest entry in this column up
+            int best = pivot;
+            double max = Math.abs(a[p + pivot]);
+            for (int k = pivot + 1; this.r > k; k++) {
+                double v = Math.abs(a[k * ac + pivot]);
+                if (v > max) { max = v; best = k; }
+            }
+            if (max == 0) throw new ArithmeticException("Matrix is singular, cannot eliminate ...");
+            if (best != pivot) swapRows(a, p, best * ac, ac);
+
+            // 2. Scale pivot row so pivot = 1, everything left of it is already 0
+            double pivotVal = a[p + pivot];
+            for (int j = pivot; ac > j; j++) a[p + j] /= pivotVal;
+
+            // 3. Eliminate other rows in this column
+            for (int k = 0; this.r > k; k++) {
+                if (k == pivot) continue;
+                int rk = k * ac;
+                double f = a[rk + pivot];
+                if (f == 0.0) continue;
+                for (int j = pivot; ac > j; j++) a[rk + j] -= f * a[p + j];
+            }
+        }
+        return augmented;
+    }
+    /**
+     * Creates a new DMatrix & copies this one to it, then
+     * augments (or concatenates) another DMatrix to it.
+     *
+     * @param o The other DMatrix
+     * @return A new DMatrix that's equal to ( this | o ) .
+     *
+     * @throws ArithmeticException if the two matrices have different row counts.
+     */
+    public DMatrix augment(DMatrix o) throws ArithmeticException {
+        if (this.r != o.r) throw new ArithmeticException("Cannot augment two matrices if they have different row counts ...");
+        int nc = this.c + o.c;
+        DMatrix augmented = new DMatrix(this.r, nc);
+        for (int i = 0; this.r > i; i++) {
+            System.arraycopy(this.data, i * this.c, augmented.data, i * nc, this.c);
+            System.arraycopy(o.data, i * o.c, augmented.data, i * nc + this.c, o.c);
+        }
+        return augmented;
+    }
+    /**
+     * Creates a new DMatrix and fills it with the right half of this one.
+     *
+     * @return A new sub DMatrix with the right half of this DMatrix.
+     *
+     * @throws ArithmeticException if the column count is odd.
+     */
+    public DMatrix getRightHalf() throws ArithmeticException {
+        if (this.c % 2 == 1) throw new ArithmeticException("Cannot get the right half of a matrix with an odd column count ...");
+        return this.getRight(this.c / 2);
+    }
+    /**
+     * Creates a new DMatrix and fills it with whatever is to
+     * the right of colStart.
+     *
+     * @param colStart The column to start the split.
+     * @return A new sub DMatrix with whatever is to the right of colStart.
+     */
+    public DMatrix getRight(int colStart) {
+        int nc = this.c - colStart;
+        DMatrix right = new DMatrix(this.r, nc);
+        for (int i = 0; this.r > i; i++) System.arraycopy(data, i * c + colStart, right.data, i * nc, nc);
+        return right;
+    }
+    /**
+     * Creates a new DMatrix and fills it with the left half of this one.
+     *
+     * @return A new sub DMatrix with the left half of this DMatrix.
+     *
+     * @throws ArithmeticException if the column count is odd.
+     */
+    public DMatrix getLeftHalf() throws ArithmeticException {
+        if (this.c % 2 == 1) throw new ArithmeticException("Cannot get the left half of a matrix with an odd column count ...");
+        return this.getLeft(this.c / 2);
+    }
+    /**
+     * Creates a new DMatrix and fills it with whatever is to
+     * the left of colEnd.
+     *
+     * @param colEnd The column to end the split.
+     * @return A new sub DMatrix with whatever is to the left of colEnd.
+     */
+    public DMatrix getLeft(int colEnd) {
+        DMatrix left = new DMatrix(this.r, colEnd);
+        for (int i = 0; this.r > i; i++) System.arraycopy(data, i * c, left.data, i * colEnd, colEnd);
+        return left;
+    }
+    /**
+     * Calculates a new normalized DMatrix using this one.
+     *
+     * @return A new DMatrix that's been normalized.
+     */
+    public DMatrix normalize() { return this.divide(this.norm()); }
+    /**
+     * @return A new DMatrix that is this DMatrix but flipped over the diagonal.
+     */
+    public DMatrix transpose() { return this.transposeInto(new DMatrix(this.c, this.r)); }
+
+    public void mutate(java.util.function.DoubleUnaryOperator mutator) {
+        for (int k = 0, n = r * c; n > k; k++) data[k] = mutator.applyAsDouble(data[k]);
+    }
+    public DMatrix mutateCopy(java.util.function.DoubleUnaryOperator mutator) {
+        DMatrix copy = new DMatrix(this);
+               copy.mutate(mutator);
+        return copy;
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" String Methods ">
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < this.r; i++) {
+            for (int j = 0; j < this.c; j++) sb.append(String.format("%8.3f", data[i * c + j]));
+            sb.append("\n");
+        }
+        return sb.toString();
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" Equal Operators ">
+    public boolean sizeEquals(DMatrix o) { return this.r == o.r && this.c == o.c; }
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof DMatrix)) return false;
+        if (this == obj) return true;
+        return this.equals((DMatrix) obj);
+    }
+    /**
+     * Checks if this DMatrix and another are equal to another.
+     *
+     * @param o The other DMatrix.
+     * @return True if they're equal, false if not.
+     */
+    public boolean equals(DMatrix o) { return this.sizeEquals(o) && java.util.Arrays.equals(this.data, o.data); }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" Overrides ">
+    @Override
+    public int hashCode() { return java.util.Arrays.hashCode(data) ^ (31 * r + c); }
+
+    /**
+     * Iterates over copies of each row.
+     */
+    @Override
+    public java.util.Iterator<double[]> iterator() {
+        return new java.util.Iterator<double[]>() {
+            private int i = 0;
+
+            @Override
+            public boolean hasNext() { return i < r; }
+
+            @Override
+            public double[] next() {
+                if (i >= r) throw new java.util.NoSuchElementException();
+                return getRowArray(i++);
+            }
+        };
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" Helpers ">
+    /**
+     * Factors an n x n row-major array in place into P * A = L * U with
+     * partial pivoting, blocked the same way LUDecomposition is. Each block
+     * of columns is factored on its own & the trailing submatrix gets one
+     * rank LUDecomposition.BLOCK update through the double Gemm kernel.
+     *
+     * @param lu The matrix, overwritten with L below the diagonal & U on & above it.
+     * @param perm Filled with the row permutation.
+     * @param n The size.
+     * @return The sign of the permutation, or 0 if the matrix is singular.
+     */
+    static int factorLU(double[] lu, int[] perm, int n) {
+        int sign = 1;
+        for (int i = 0; n > i; i++) perm[i] = i;
+        for (int k0 = 0; n > k0; k0 += LUDecomposition.BLOCK) {
+            int k1 = Math.min(k0 + LUDecomposition.BLOCK, n), nb = k1 - k0, rest = n - k1;
+
+            // 1. The panel, columns [ k0 , k1 ) from row k0 down.
+            for (int p = k0; k1 > p; p++) {
+                int maxRow = p;
+                for (int i = p + 1; n > i; i++)
+                    if (Math.abs(lu[i * n + p]) > Math.abs(lu[maxRow * n + p])) maxRow = i;
+                if (maxRow != p) {
+                    swapRows(lu, p * n, maxRow * n, n);
+                    int t = perm[p]; perm[p] = perm[maxRow]; perm[maxRow] = t;
+                    sign = -sign;
+                }
+
+                double pivot = lu[p * n + p];
+                if (Math.abs(pivot) <= SINGULAR_EPSILON) return 0;
+
+                int rp = p * n;
+                for (int i = p + 1; n > i; i++) {
+                    int ri = i * n;
+                    double factor = lu[ri + p] / pivot;
+                    lu[ri + p] = factor;
+                    for (int j = p + 1; k1 > j; j++) lu[ri + j] -= factor * lu[rp + j];
+                }
+            }
+            if (rest == 0) break;
+
+            // 2. U12 = L11^-1 * A12 .
+            for (int p = k0; k1 > p; p++) {
+                int rp = p * n;
+                for (int i = p + 1; k1 > i; i++) {
+                    int ri = i * n;
+                    double l = lu[ri + p];
+                    for (int j = k1; n > j; j++) lu[ri + j] -= l * lu[rp + j];
+                }
+            }
+
+            // 3. A22 -= L21 * U12 , as A22 += ( -L21 ) * U12 .
+            double[] l21 = new double[rest * nb];
+            for (int i = 0; rest > i; i++) {
+                int ri = (k1 + i) * n + k0, ti = i * nb;
+                for (int j = 0; nb > j; j++) l21[ti + j] = -lu[ri + j];
+            }
+            Gemm.multiply(l21, 0, nb, lu, k0 * n + k1, n, lu, k1 * n + k1, n, rest, rest, nb);
+        }
+        return sign;
+    }
+    /**
+     * Swaps two rows of len values in the same array.
+     */
+    private static void swapRows(double[] a, int x, int y, int len) {
+        for (int j = 0; len > j; j++) { double t = a[x + j]; a[x + j] = a[y + j]; a[y + j] = t; }
+    }
+    /**
+     * Forward & back substitution of a permuted n x m right hand side.
+     *
+     * @param lu The packed factors from factorLU().
+     * @param n The size.
+     * @param x The right hand side, overwritten with the solution.
+     * @param m The column count of x.
+     */
+    static void substitute(double[] lu, int n, double[] x, int m) {
+        for (int k = 0; n > k; k++) {
+            int rk = k * m;
+            for (int i = k + 1; n > i; i++) {
+                double l = lu[i * n + k];
+                if (l == 0.0) continue;
+                int ri = i * m;
+                for (int j = 0; m > j; j++) x[ri + j] -= l * x[rk + j];
+            }
+        }
+        for (int k = n - 1; k >= 0; k--) {
+            int rk = k * m;
+            double d = lu[k * n + k];
+            for (int j = 0; m > j; j++) x[rk + j] /= d;
+            for (int i = 0; k > i; i++) {
+                double u = lu[i * n + k];
+                if (u == 0.0) continue;
+                int ri = i * m;
+                for (int j = 0; m > j; j++) x[ri + j] -= u * x[rk + j];
+            }
+        }
+    }
+    //</editor-fold>
+
+}
@@ -0,0 +1,335 @@
+package Matrix;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Streaming loader for delimited text matrices such as CSV or TSV. Input is
+ * fed one character at a time into a small state machine and numbers are
+ * parsed straight out of a reusable char buffer, so no String is made per
+ * value & the file never has to be held in memory as text.
+ * <p>
+ * Each non-blank line is a row. Values are separated by the delimiter and
+ * may be padded with spaces. Every row must have the same amount of values.
+ *
+ * @author Harrison Davis
+ */
+public final class DelimitedMatrixReader {
+
+    // How many bytes are read from a channel at a time.
+    private static final int CHUNK_BYTES = 1 << 20;
+    // Parallel parsing won't split a file into pieces smaller than this.
+    private static final int MIN_PART_BYTES = 1 << 20;
+    // Powers of ten that are exact as floats, 5^10 still fits in 24 bits.
+    private static final float[] POW10 = {
+        1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f
+    };
+    // The largest mantissa a float holds exactly.
+    private static final long MAX_EXACT = 1L << 24;
+
+    private DelimitedMatrixReader() { }
+
+    //<editor-fold defaultstate="collapsed" desc=" Readers ">
+    /**
+     * Parses a matrix from the remaining bytes of a buffer. The bytes are
+     * treated as ASCII, which also covers UTF-8 numeric text.
+     *
+     * @param in The buffer, its position is moved to its limit.
+     * @param delimiter The value separator, such as ',' or '\t'.
+     * @return A new Matrix.
+     *
+     * @throws NumberFormatException if a value can't be parsed or the rows are ragged.
+     */
+    public static Matrix read(ByteBuffer in, char delimiter) throws NumberFormatException {
+        RowParser p = new RowParser(delimiter);
+        while (in.hasRemaining()) p.accept(in.get() & 0xFF);
+        return p.finish().toMatrix();
+    }
+    /**
+     * Parses a matrix from a Reader.
+     *
+     * @param in The reader. It isn't closed.
+     * @param delimiter The value separator, such as ',' or '\t'.
+     * @return A new Matrix.
+     *
+     * @throws IOException if the reader fails.
+     * @throws NumberFormatException if a value can't be parsed or the rows are ragged.
+     */
+    public static Matrix read(Reader in, char delimiter) throws IOException, NumberFormatException {
+        RowParser p = new RowParser(delimiter);
+        char[] buf = new char[CHUNK_BYTES / 2];
+        for (int n; (n = in.read(buf)) >= 0; )
+            for (int i = 0; n > i; i++) p.accept(buf[i]);
+        return p.finish().toMatrix();
+    }
+    /**
+     * Parses a matrix from a file, streaming it through a fixed size buffer.
+     *
+     * @param file The file to read.
+     * @param delimiter The value separator, such as ',' or '\t'.
+     * @return A new Matrix.
+     *
+     * @throws IOException if the file can't be read.
+     * @throws NumberFormatException if a value can't be parsed or the rows are ragged.
+     */
+    public static Matrix read(Path file, char delimiter) throws IOException, NumberFormatException {
+        RowParser p = new RowParser(delimiter);
+        ByteBuffer buf = ByteBuffer.allocateDirect(CHUNK_BYTES);
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (ch.read(buf) >= 0) {
+                buf.flip();
+                while (buf.hasRemaining()) p.accept(buf.get() & 0xFF);
+                buf.clear();
+            }
+        }
+        return p.finish().toMatrix();
+    }
+    /**
+     * Parses a matrix from a file on a fork/join pool. The file is mapped,
+     * cut into pieces at line breaks & every piece is parsed on its own,
+     * then the rows are stitched back together in order. Files over 2 GB
+     * are read sequentially.
+     *
+     * @param file The file to read.
+     * @param delimiter The value separator, such as ',' or '\t'.
+     * @param pool The pool to run on.
+     * @return A new Matrix.
+     *
+     * @throws IOException if the file can't be read.
+     * @throws NumberFormatException if a value can't be parsed or the rows are ragged.
+     */
+    public static Matrix readParallel(Path file, char delimiter, java.util.concurrent.ForkJoinPool pool) throws IOException, NumberFormatException {
+        MappedByteBuffer map;
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size > Integer.MAX_VALUE || MIN_PART_BYTES >= size) return read(file, delimiter);
+            map = ch.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        java.util.List<java.util.concurrent.ForkJoinTask<Parsed>> tasks = new java.util.ArrayList<>();
+        try {
+            int size = map.limit();
+            int parts = (int) Math.max(1, Math.min(pool.getParallelism() * 4L, size / MIN_PART_BYTES));
+
+            // Cut at the first line break after each even split point.
+            int[] bounds = new int[parts + 1];
+            bounds[parts] = size;
+            for (int k = 1; parts > k; k++) {
+                int b = Math.max(bounds[k - 1], (int) ((long) size * k / parts));
+                while (size > b && map.get(b) != '\n') b++;
+                bounds[k] = Math.min(size, b + 1);
+            }
+
+            // Count the line breaks in every piece so each one knows its first line number.
+            java.util.List<java.util.concurrent.ForkJoinTask<Long>> counts = new java.util.ArrayList<>();
+            for (int k = 0; parts > k; k++) {
+                ByteBuffer piece = map.slice(bounds[k], bounds[k + 1] - bounds[k]);
+                counts.add(pool.submit(() -> {
+                    long n = 0;
+                    while (piece.hasRemaining()) if (piece.get() == '\n') n++;
+                    return n;
+                }));
+            }
+            long[] firstLine = new long[parts];
+            firstLine[0] = 1;
+            try {
+                for (int k = 1; parts > k; k++) firstLine[k] = firstLine[k - 1] + join(counts.get(k - 1));
+            } finally {
+                for (java.util.concurrent.ForkJoinTask<Long> t : counts) t.quietlyJoin();
+            }
+
+            for (int k = 0; parts > k; k++) {
+                ByteBuffer piece = map.slice(bounds[k], bounds[k + 1] - bounds[k]);
+                long line = firstLine[k];
+                tasks.add(pool.submit(() -> {
+                    RowParser p = new RowParser(delimiter, line);
+                    while (piece.hasRemaining()) p.accept(piece.get() & 0xFF);
+                    return p.finish();
+                }));
+            }
+
+            int rows = 0, cols = -1;
+            Parsed[] done = new Parsed[parts];
+            for (int k = 0; parts > k; k++) {
+                done[k] = join(tasks.get(k));
+                if (done[k].rows == 0) continue;
+                if (cols != -1 && done[k].cols != cols)
+                    throw new NumberFormatException("Error parsing matrix ...\nRows have " + done[k].cols + " values, expected " + cols);
+                cols = done[k].cols;
+                rows += done[k].rows;
+            }
+            if (rows == 0) return new Matrix(0, 0);
+
+            Matrix m = new Matrix(rows, cols);
+            int at = 0;
+            for (Parsed part : done) {
+                int n = part.rows * part.cols;
+                System.arraycopy(part.values, 0, m.data, at, n);
+                at += n;
+            }
+            return m;
+        } finally {
+            // No piece may still be reading the mapping when it's released.
+            for (java.util.concurrent.ForkJoinTask<Parsed> t : tasks) t.quietlyJoin();
+            BufferMatrix.release(map);
+        }
+    }
+
+    /**
+     * Joins a task, rethrowing a parse error with its original message.
+     * A task that failed on another thread hands back a copy of the error
+     * made without the message, with the original as its cause.
+     */
+    private static <T> T join(java.util.concurrent.ForkJoinTask<T> task) throws NumberFormatException {
+        try {
+            return task.join();
+        } catch (NumberFormatException e) {
+            if (e.getCause() instanceof NumberFormatException) throw (NumberFormatException) e.getCause();
+            throw e;
+        }
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" Parsing ">
+    /**
+     * The output of one parser.
+     */
+    private static final class Parsed {
+        final float[] values;
+        final int rows, cols;
+        Parsed(float[] values, int rows, int cols) { this.values = values; this.rows = rows; this.cols = cols; }
+
+        Matrix toMatrix() {
+            if (rows == 0) return new Matrix(0, 0);
+            float[] exact = values.length == rows * cols ? values : java.util.Arrays.copyOf(values, rows * cols);
+            return new Matrix(exact, 0, cols, rows, cols);
+        }
+    }
+
+    /**
+     * Character at a time state machine. Characters of the current value
+     * are collected into tok, and the value is parsed when a delimiter or
+     * line break ends it.
+     */
+    private static final class RowParser {
+        private final char delimiter;
+        private float[] values = new float[1024];
+        private int size, rows, cols = -1, inRow;
+        private long line;
+
+        private char[] tok = new char[64];
+        private int len;
+        // True once whitespace follows the value, only more whitespace may come before the delimiter.
+        private boolean ended;
+        // True if anything, even an empty value, has been seen on this line.
+        private boolean lineStarted;
+
+        RowParser(char delimiter) { this(delimiter, 1); }
+        RowParser(char delimiter, long firstLine) { this.delimiter = delimiter; this.line = firstLine; }
+
+        void accept(int ch) {
+            if (ch == delimiter) { lineStarted = true; endValue(); return; }
+            switch (ch) {
+                case '\n': endLine(); return;
+                case '\r': case ' ': case '\t':
+                    if (len > 0) ended = true;
+                    return;
+                default:
+                    if (ended) throw error("Unexpected '" + (char) ch + "' after a value");
+                    lineStarted = true;
+                    if (len == tok.length) tok = java.util.Arrays.copyOf(tok, len * 2);
+                    tok[len++] = (char) ch;
+            }
+        }
+
+        Parsed finish() {
+            endLine();
+            return new Parsed(values, rows, Math.max(0, cols));
+        }
+
+        private void endValue() {
+            if (len == 0) throw error("Empty value");
+            float v = parse(tok, len);
+            if (size == values.length) values = java.util.Arrays.copyOf(values, size * 2);
+            values[size++] = v;
+            inRow++;
+            len = 0; ended = false;
+        }
+        private void endLine() {
+            // Blank lines are skipped.
+            if (lineStarted || len > 0) {
+                endValue();
+                if (cols == -1) cols = inRow;
+                else if (inRow != cols) throw error("Row has " + inRow + " values, expected " + cols);
+                rows++;
+            }
+            inRow = 0; lineStarted = false;
+            line++;
+        }
+
+        private float parse(char[] t, int n) {
+            float v = parseFast(t, n);
+            if (!Float.isNaN(v)) return v;
+            // Anything the fast path can't handle exactly goes through the JDK.
+            try { return Float.parseFloat(new String(t, 0, n)); }
+            catch (NumberFormatException e) { throw error("Bad number \"" + new String(t, 0, n) + "\""); }
+        }
+
+        private NumberFormatException error(String message) {
+            return new NumberFormatException("Error parsing matrix ...\nLine " + line + ": " + message);
+        }
+    }
+
+    /**
+     * Parses plain decimal numbers whose digits fit in 24 bits with an
+     * exponent of at most 10 either way. The mantissa & the power of ten
+     * are then both exact floats, so one float multiply or divide gives
+     * the correctly rounded result, the same as Float.parseFloat.
+     *
+     * @return The value, or NaN if the token needs the slow path.
+     */
+    static float parseFast(char[] t, int n) {
+        int i = 0;
+        boolean neg = false;
+        if (n > i && (t[i] == '-' || t[i] == '+')) { neg = t[i] == '-'; i++; }
+
+        long mant = 0;
+        int exp = 0;
+        boolean any = false;
+        for (; n > i && t[i] >= '0' && t[i] <= '9'; i++) {
+            any = true;
+            mant = mant * 10 + (t[i] - '0');
+            if (mant > MAX_EXACT) return Float.NaN;
+        }
+        if (n > i && t[i] == '.') {
+            for (i++; n > i && t[i] >= '0' && t[i] <= '9'; i++) {
+                any = true;
+                mant = mant * 10 + (t[i] - '0');
+                if (mant > MAX_EXACT) return Float.NaN;
+                exp--;
+            }
+        }
+        if (!any) return Float.NaN;
+        if (n > i && (t[i] == 'e' || t[i] == 'E')) {
+            i++;
+            boolean eneg = false;
+            if (n > i && (t[i] == '-' || t[i] == '+')) { eneg = t[i] == '-'; i++; }
+            int e = 0, start = i;
+            for (; n > i && t[i] >= '0' && t[i] <= '9'; i++) if (1000 > e) e = e * 10 + (t[i] - '0');
+            if (i == start) return Float.NaN;
+            exp += eneg ? -e : e;
+        }
+        if (i != n) return Float.NaN;
+        if (mant == 0) return neg ? -0.0f : 0.0f;
+        if (exp > 10 || -10 > exp) return Float.NaN;
+
+        float v = exp >= 0 ? mant * POW10[exp] : mant / POW10[-exp];
+        return neg ? -v : v;
+    }
+    //</editor-fold>
+
+}
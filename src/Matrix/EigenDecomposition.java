@@ -0,0 +1,270 @@
+package Matrix;
+
+/**
+ * Eigen decomposition of a symmetric matrix, A = V * D * V^T . The matrix is
+ * first reduced to tridiagonal form with Householder reflections, then the
+ * tridiagonal matrix is diagonalized with the implicit QL algorithm. All the
+ * work is done in double precision, the results are handed back as floats.
+ *
+ * @author Harrison Davis
+ */
+public class EigenDecomposition {
+
+    // Give up on an eigenvalue after this many QL sweeps.
+    static final int MAX_ITERATIONS = 64;
+
+    // The eigenvalues, ascending.
+    final double[] d;
+    // The eigenvectors stored as rows, n x n. Row k belongs to d[k].
+    final double[] vt;
+    // The size.
+    final int n;
+
+    //<editor-fold defaultstate="collapsed" desc=" Constructors ">
+    /**
+     * Factors a symmetric matrix. The matrix itself isn't changed.
+     *
+     * @param a The Matrix to factor.
+     *
+     * @throws ArithmeticException if the matrix isn't symmetric or the QL iteration doesn't converge.
+     */
+    public EigenDecomposition(Matrix a) throws ArithmeticException {
+        if (!a.isSymmetric(1e-5f)) throw new ArithmeticException("Cannot eigen decompose a non-symmetric matrix ...");
+        n = a.getRows();
+        d = new double[n];
+        double[] e = new double[n];
+        double[] v = new double[n * n];
+        for (int i = 0; n > i; i++) for (int j = 0; n > j; j++) v[i * n + j] = a.getValue(i, j);
+        tridiagonalize(v, e);
+        // QL rotates pairs of columns, so keep them as rows from here on.
+        vt = new double[n * n];
+        for (int i = 0; n > i; i++) for (int j = 0; n > j; j++) vt[j * n + i] = v[i * n + j];
+        diagonalize(e);
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" Factorization ">
+    /**
+     * Householder reduction to tridiagonal form. On return v holds the
+     * accumulated orthogonal transform, d the diagonal & e the sub-diagonal
+     * in e[1 .. n-1].
+     */
+    private void tridiagonalize(double[] v, double[] e) {
+        if (n == 0) return;
+        int last = (n - 1) * n;
+        System.arraycopy(v, last, d, 0, n);
+
+        for (int i = n - 1; i > 0; i--) {
+            int ri = i * n;
+            double scale = 0.0, h = 0.0;
+            for (int k = 0; i > k; k++) scale += Math.abs(d[k]);
+            if (scale == 0.0) {
+                e[i] = d[i - 1];
+                for (int j = 0; i > j; j++) {
+                    d[j] = v[ri - n + j];
+                    v[ri + j] = 0.0;
+                    v[j * n + i] = 0.0;
+                }
+            } else {
+                // Form the Householder vector.
+                for (int k = 0; i > k; k++) { d[k] /= scale; h += d[k] * d[k]; }
+                double f = d[i - 1];
+                double g = Math.sqrt(h);
+                if (f > 0) g = -g;
+                e[i] = scale * g;
+                h -= f * g;
+                d[i - 1] = f - g;
+                java.util.Arrays.fill(e, 0, i, 0.0);
+
+                // Apply the similarity transform to the remaining columns.
+                for (int j = 0; i > j; j++) {
+                    int rj = j * n;
+                    f = d[j];
+                    v[rj + i] = f;
+                    g = e[j] + v[rj + j] * f;
+                    for (int k = j + 1; i > k; k++) {
+                        g += v[k * n + j] * d[k];
+                        e[k] += v[k * n + j] * f;
+                    }
+                    e[j] = g;
+                }
+                f = 0.0;
+                for (int j = 0; i > j; j++) { e[j] /= h; f += e[j] * d[j]; }
+                double hh = f / (h + h);
+                for (int j = 0; i > j; j++) e[j] -= hh * d[j];
+                for (int j = 0; i > j; j++) {
+                    f = d[j]; g = e[j];
+                    for (int k = j; i > k; k++) v[k * n + j] -= (f * e[k] + g * d[k]);
+                    d[j] = v[ri - n + j];
+                    v[ri + j] = 0.0;
+                }
+            }
+            d[i] = h;
+        }
+
+        // Accumulate the transformations.
+        for (int i = 0; n - 1 > i; i++) {
+            v[last + i] = v[i * n + i];
+            v[i * n + i] = 1.0;
+            double h = d[i + 1];
+            if (h != 0.0) {
+                for (int k = 0; i >= k; k++) d[k] = v[k * n + i + 1] / h;
+                for (int j = 0; i >= j; j++) {
+                    double g = 0.0;
+                    for (int k = 0; i >= k; k++) g += v[k * n + i + 1] * v[k * n + j];
+                    for (int k = 0; i >= k; k++) v[k * n + j] -= g * d[k];
+                }
+            }
+            for (int k = 0; i >= k; k++) v[k * n + i + 1] = 0.0;
+        }
+        for (int j = 0; n > j; j++) { d[j] = v[last + j]; v[last + j] = 0.0; }
+        v[last + n - 1] = 1.0;
+        e[0] = 0.0;
+    }
+
+    /**
+     * Implicit QL on the tridiagonal matrix held in d & e, rotating the rows
+     * of vt along with it. The eigenvalues are sorted ascending at the end.
+     */
+    private void diagonalize(double[] e) throws ArithmeticException {
+        if (n == 0) return;
+        for (int i = 1; n > i; i++) e[i - 1] = e[i];
+        e[n - 1] = 0.0;
+
+        double f = 0.0, tst1 = 0.0;
+        final double eps = Math.ulp(1.0);
+        for (int l = 0; n > l; l++) {
+            // Find a small sub-diagonal element.
+            tst1 = Math.max(tst1, Math.abs(d[l]) + Math.abs(e[l]));
+            int m = l;
+            while (n > m && Math.abs(e[m]) > eps * tst1) m++;
+
+            // If it isn't e[l] iterate until it is.
+            if (m > l) {
+                int iter = 0;
+                do {
+                    if (++iter > MAX_ITERATIONS) throw new ArithmeticException("Eigenvalues did not converge ...");
+                    double g = d[l];
+                    double p = (d[l + 1] - g) / (2.0 * e[l]);
+                    double r = Math.hypot(p, 1.0);
+                    if (p < 0) r = -r;
+                    d[l] = e[l] / (p + r);
+                    d[l + 1] = e[l] * (p + r);
+                    double dl1 = d[l + 1];
+                    double h = g - d[l];
+                    for (int i = l + 2; n > i; i++) d[i] -= h;
+                    f += h;
+
+                    p = d[m];
+                    double c = 1.0, c2 = c, c3 = c;
+                    double el1 = e[l + 1];
+                    double s = 0.0, s2 = 0.0;
+                    for (int i = m - 1; i >= l; i--) {
+                        c3 = c2; c2 = c; s2 = s;
+                        g = c * e[i];
+                        h = c * p;
+                        r = Math.hypot(p, e[i]);
+                        e[i + 1] = s * r;
+                        s = e[i] / r;
+                        c = p / r;
+                        p = c * d[i] - s * g;
+                        d[i + 1] = h + s * (c * g + s * d[i]);
+                        rotate(i, c, s);
+                    }
+                    p = -s * s2 * c3 * el1 * e[l] / dl1;
+                    e[l] = s * p;
+                    d[l] = c * p;
+                } while (Math.abs(e[l]) > eps * tst1);
+            }
+            d[l] += f;
+            e[l] = 0.0;
+        }
+
+        // Selection sort, swapping whole rows of vt.
+        for (int i = 0; n - 1 > i; i++) {
+            int k = i;
+            for (int j = i + 1; n > j; j++) if (d[k] > d[j]) k = j;
+            if (k == i) continue;
+            double p = d[k]; d[k] = d[i]; d[i] = p;
+            double[] tmp = new double[n];
+            System.arraycopy(vt, i * n, tmp, 0, n);
+            System.arraycopy(vt, k * n, vt, i * n, n);
+            System.arraycopy(tmp, 0, vt, k * n, n);
+        }
+    }
+
+    /**
+     * Applies a Givens rotation to rows i & i + 1 of vt.
+     */
+    private void rotate(int i, double c, double s) {
+        int ri = i * n, rn = ri + n;
+        for (int k = 0; n > k; k++) {
+            double h = vt[rn + k];
+            vt[rn + k] = s * vt[ri + k] + c * h;
+            vt[ri + k] = c * vt[ri + k] - s * h;
+        }
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" Getters ">
+    /**
+     * @return The size of the factored matrix.
+     */
+    public int getSize() { return n; }
+    /**
+     * @return A new array holding the eigenvalues in ascending order.
+     */
+    public float[] getEigenvalues() {
+        float[] out = new float[n];
+        for (int i = 0; n > i; i++) out[i] = (float) d[i];
+        return out;
+    }
+    /**
+     * @return A new diagonal Matrix holding the eigenvalues.
+     */
+    public Matrix getD() {
+        Matrix m = new Matrix(n, n);
+        for (int i = 0; n > i; i++) m.data[i * n + i] = (float) d[i];
+        return m;
+    }
+    /**
+     * @return A new Matrix whose columns are the unit eigenvectors, in the same order as the eigenvalues.
+     */
+    public Matrix getV() {
+        Matrix m = new Matrix(n, n);
+        for (int i = 0; n > i; i++) for (int j = 0; n > j; j++) m.data[i * n + j] = (float) vt[j * n + i];
+        return m;
+    }
+    /**
+     * Gets a single eigenvector.
+     *
+     * @param k The index of the eigenvalue.
+     * @return A new array holding the unit eigenvector of the k-th eigenvalue.
+     */
+    public float[] getEigenvector(int k) {
+        if (k < 0 || k >= n) throw new ArrayIndexOutOfBoundsException("Eigenvalue index, " + k + ", out of bounds!");
+        float[] out = new float[n];
+        for (int i = 0; n > i; i++) out[i] = (float) vt[k * n + i];
+        return out;
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" Information Calculators ">
+    /**
+     * @return The determinant, the product of the eigenvalues.
+     */
+    public float determinant() {
+        double det = 1.0;
+        for (int i = 0; n > i; i++) det *= d[i];
+        return (float) det;
+    }
+    /**
+     * @return The spectral norm, the largest absolute eigenvalue.
+     */
+    public float norm2() {
+        if (n == 0) return 0.0f;
+        return (float) Math.max(Math.abs(d[0]), Math.abs(d[n - 1]));
+    }
+    //</editor-fold>
+
+}
@@ -0,0 +1,230 @@
+package Matrix;
+
+/**
+ * Element-wise kernels over flat row-major storage. Each kernel takes an
+ * ( array , offset , row stride ) triple per operand & collapses to one
+ * linear run when every operand is contiguous. The runs themselves go 
+ * through the Vector API when jdk.incubator.vector is available at 
+ * runtime & fall back to plain loops when it isn't.
+ *
+ * @author Harrison Davis
+ */
+final class ElementKernels {
+
+    // True if the runtime was started with --add-modules jdk.incubator.vector.
+    static final boolean SIMD = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+    // The fewest elements a parallel map task will take.
+    static final int MAP_TASK_ELEMENTS = 1 << 15;
+    // The fewest elements a parallel elimination task will update.
+    static final int ELIMINATE_TASK_ELEMENTS = 1 << 14;
+
+    private ElementKernels() { }
+
+    //<editor-fold defaultstate="collapsed" desc=" Matrix Kernels ">
+    /**
+     * Z = X + Y .
+     */
+    static void add(float[] x, int xo, int ldx, float[] y, int yo, int ldy,
+                    float[] z, int zo, int ldz, int rows, int cols) {
+        if (ldx == cols && ldy == cols && ldz == cols) { add(x, xo, y, yo, z, zo, rows * cols); return; }
+        for (int i = 0; rows > i; i++) add(x, xo + i * ldx, y, yo + i * ldy, z, zo + i * ldz, cols);
+    }
+    /**
+     * Z = X - Y .
+     */
+    static void subtract(float[] x, int xo, int ldx, float[] y, int yo, int ldy,
+                         float[] z, int zo, int ldz, int rows, int cols) {
+        if (ldx == cols && ldy == cols && ldz == cols) { subtract(x, xo, y, yo, z, zo, rows * cols); return; }
+        for (int i = 0; rows > i; i++) subtract(x, xo + i * ldx, y, yo + i * ldy, z, zo + i * ldz, cols);
+    }
+    /**
+     * Z = X * Y , element by element.
+     */
+    static void multiply(float[] x, int xo, int ldx, float[] y, int yo, int ldy,
+                         float[] z, int zo, int ldz, int rows, int cols) {
+        if (ldx == cols && ldy == cols && ldz == cols) { multiply(x, xo, y, yo, z, zo, rows * cols); return; }
+        for (int i = 0; rows > i; i++) multiply(x, xo + i * ldx, y, yo + i * ldy, z, zo + i * ldz, cols);
+    }
+    /**
+     * Z = X / Y , element by element.
+     */
+    static void divide(float[] x, int xo, int ldx, float[] y, int yo, int ldy,
+                       float[] z, int zo, int ldz, int rows, int cols) {
+        if (ldx == cols && ldy == cols && ldz == cols) { divide(x, xo, y, yo, z, zo, rows * cols); return; }
+        for (int i = 0; rows > i; i++) divide(x, xo + i * ldx, y, yo + i * ldy, z, zo + i * ldz, cols);
+    }
+    /**
+     * Z = X + f .
+     */
+    static void add(float[] x, int xo, int ldx, float f, float[] z, int zo, int ldz, int rows, int cols) {
+        if (ldx == cols && ldz == cols) { add(x, xo, f, z, zo, rows * cols); return; }
+        for (int i = 0; rows > i; i++) add(x, xo + i * ldx, f, z, zo + i * ldz, cols);
+    }
+    /**
+     * Z = X * f .
+     */
+    static void scale(float[] x, int xo, int ldx, float f, float[] z, int zo, int ldz, int rows, int cols) {
+        if (ldx == cols && ldz == cols) { scale(x, xo, f, z, zo, rows * cols); return; }
+        for (int i = 0; rows > i; i++) scale(x, xo + i * ldx, f, z, zo + i * ldz, cols);
+    }
+    /**
+     * @return The sum of every element of X squared.
+     */
+    static float sumSquares(float[] x, int xo, int ldx, int rows, int cols) {
+        if (ldx == cols) return sumSquares(x, xo, rows * cols);
+        float sum = 0.0f;
+        for (int i = 0; rows > i; i++) sum += sumSquares(x, xo + i * ldx, cols);
+        return sum;
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" Map Kernels ">
+    /**
+     * X = f( X ) over rows [ i0 , i0 + rows ) .
+     */
+    static void map(float[] x, int xo, int ldx, int i0, int rows, int cols, FloatUnaryOperator f) {
+        if (ldx == cols) {
+            for (int k = xo + i0 * ldx, end = k + rows * cols; end > k; k++) x[k] = f.applyAsFloat(x[k]);
+            return;
+        }
+        for (int i = i0; i0 + rows > i; i++)
+            for (int k = xo + i * ldx, end = k + cols; end > k; k++) x[k] = f.applyAsFloat(x[k]);
+    }
+    /**
+     * X = f( i , j , X ) over rows [ i0 , i0 + rows ) .
+     */
+    static void map(float[] x, int xo, int ldx, int i0, int rows, int cols, IndexedFloatOperator f) {
+        for (int i = i0; i0 + rows > i; i++) {
+            int xi = xo + i * ldx;
+            for (int j = 0; cols > j; j++) x[xi + j] = f.apply(i, j, x[xi + j]);
+        }
+    }
+    static void mapParallel(float[] x, int xo, int ldx, int rows, int cols, FloatUnaryOperator f,
+                            java.util.concurrent.ForkJoinPool pool) {
+        if ((long) rows * cols <= MAP_TASK_ELEMENTS) map(x, xo, ldx, 0, rows, cols, f);
+        else pool.invoke(new MapTask(x, xo, ldx, 0, rows, cols, f, null));
+    }
+    static void mapParallel(float[] x, int xo, int ldx, int rows, int cols, IndexedFloatOperator f,
+                            java.util.concurrent.ForkJoinPool pool) {
+        if ((long) rows * cols <= MAP_TASK_ELEMENTS) map(x, xo, ldx, 0, rows, cols, f);
+        else pool.invoke(new MapTask(x, xo, ldx, 0, rows, cols, null, f));
+    }
+
+    /**
+     * Maps rows [ i0 , i0 + rows ) , splitting them in half until a task
+     * has at most MAP_TASK_ELEMENTS elements or a single row. Exactly one
+     * of f & g is set.
+     */
+    private static final class MapTask extends java.util.concurrent.RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final float[] x;
+        private final int xo, ldx, i0, rows, cols;
+        private final FloatUnaryOperator f;
+        private final IndexedFloatOperator g;
+
+        MapTask(float[] x, int xo, int ldx, int i0, int rows, int cols, FloatUnaryOperator f, IndexedFloatOperator g) {
+            this.x = x; this.xo = xo; this.ldx = ldx; this.i0 = i0; this.rows = rows; this.cols = cols; this.f = f; this.g = g;
+        }
+
+        @Override
+        protected void compute() {
+            if (rows == 1 || (long) rows * cols <= MAP_TASK_ELEMENTS) {
+                if (f != null) map(x, xo, ldx, i0, rows, cols, f);
+                else map(x, xo, ldx, i0, rows, cols, g);
+                return;
+            }
+            int half = rows >>> 1;
+            invokeAll(new MapTask(x, xo, ldx, i0, half, cols, f, g),
+                      new MapTask(x, xo, ldx, i0 + half, rows - half, cols, f, g));
+        }
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" Row Kernels ">
+    /**
+     * One Gauss-Jordan step. Row p of the rows x width matrix a is the
+     * scaled pivot row, with zeros left of column p & a 1 at column p.
+     * Every other row in [ i0 , i1 ) has the pivot row, scaled by its own
+     * entry in column p, subtracted from it.
+     */
+    static void eliminate(float[] a, int lda, int p, int i0, int i1, int width) {
+        int rp = p * lda + p, len = width - p;
+        for (int i = i0; i1 > i; i++) {
+            if (i == p) continue;
+            int ri = i * lda + p;
+            float f = a[ri];
+            if (f != 0.0f) subtractScaled(a, rp, f, a, ri, len);
+        }
+    }
+    static void eliminateParallel(float[] a, int lda, int p, int rows, int width, java.util.concurrent.ForkJoinPool pool) {
+        if ((long) rows * (width - p) <= ELIMINATE_TASK_ELEMENTS) eliminate(a, lda, p, 0, rows, width);
+        else pool.invoke(new EliminateTask(a, lda, p, 0, rows, width));
+    }
+
+    /**
+     * Eliminates rows [ i0 , i1 ) , splitting them in half until a task
+     * updates at most ELIMINATE_TASK_ELEMENTS elements or a single row.
+     */
+    private static final class EliminateTask extends java.util.concurrent.RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final float[] a;
+        private final int lda, p, i0, i1, width;
+
+        EliminateTask(float[] a, int lda, int p, int i0, int i1, int width) {
+            this.a = a; this.lda = lda; this.p = p; this.i0 = i0; this.i1 = i1; this.width = width;
+        }
+
+        @Override
+        protected void compute() {
+            if (i1 - i0 == 1 || (long) (i1 - i0) * (width - p) <= ELIMINATE_TASK_ELEMENTS) {
+                eliminate(a, lda, p, i0, i1, width);
+                return;
+            }
+            int mid = (i0 + i1) >>> 1;
+            invokeAll(new EliminateTask(a, lda, p, i0, mid, width),
+                      new EliminateTask(a, lda, p, mid, i1, width));
+        }
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" Linear Kernels ">
+    static void add(float[] x, int xo, float[] y, int yo, float[] z, int zo, int n) {
+        if (SIMD) { VectorKernels.add(x, xo, y, yo, z, zo, n); return; }
+        for (int i = 0; n > i; i++) z[zo + i] = x[xo + i] + y[yo + i];
+    }
+    static void subtract(float[] x, int xo, float[] y, int yo, float[] z, int zo, int n) {
+        if (SIMD) { VectorKernels.subtract(x, xo, y, yo, z, zo, n); return; }
+        for (int i = 0; n > i; i++) z[zo + i] = x[xo + i] - y[yo + i];
+    }
+    static void multiply(float[] x, int xo, float[] y, int yo, float[] z, int zo, int n) {
+        if (SIMD) { VectorKernels.multiply(x, xo, y, yo, z, zo, n); return; }
+        for (int i = 0; n > i; i++) z[zo + i] = x[xo + i] * y[yo + i];
+    }
+    static void divide(float[] x, int xo, float[] y, int yo, float[] z, int zo, int n) {
+        if (SIMD) { VectorKernels.divide(x, xo, y, yo, z, zo, n); return; }
+        for (int i = 0; n > i; i++) z[zo + i] = x[xo + i] / y[yo + i];
+    }
+    static void add(float[] x, int xo, float f, float[] z, int zo, int n) {
+        if (SIMD) { VectorKernels.add(x, xo, f, z, zo, n); return; }
+        for (int i = 0; n > i; i++) z[zo + i] = x[xo + i] + f;
+    }
+    static void scale(float[] x, int xo, float f, float[] z, int zo, int n) {
+        if (SIMD) { VectorKernels.scale(x, xo, f, z, zo, n); return; }
+        for (int i = 0; n > i; i++) z[zo + i] = x[xo + i] * f;
+    }
+    static void subtractScaled(float[] x, int xo, float f, float[] y, int yo, int n) {
+        if (SIMD) { VectorKernels.subtractScaled(x, xo, f, y, yo, n); return; }
+        for (int i = 0; n > i; i++) y[yo + i] -= f * x[xo + i];
+    }
+    static float sumSquares(float[] x, int xo, int n) {
+        if (SIMD) return VectorKernels.sumSquares(x, xo, n);
+        float sum = 0.0f;
+        for (int i = 0; n > i; i++) sum += x[xo + i] * x[xo + i];
+        return sum;
+    }
+    //</editor-fold>
+
+}
@@ -0,0 +1,18 @@
+package Matrix;
+
+/**
+ * A float to float function that works on primitives, so mapping it over
+ * a matrix doesn't box every element like Function&lt;Float, Float&gt; does.
+ *
+ * @author Harrison Davis
+ */
+@FunctionalInterface
+public interface FloatUnaryOperator {
+
+    /**
+     * @param v The input value.
+     * @return The mapped value.
+     */
+    float applyAsFloat(float v);
+
+}
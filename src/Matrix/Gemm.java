@@ -0,0 +1,535 @@
+package Matrix;
+
+/**
+ * Matrix multiply kernels that work on the flat row-major storage used by
+ * Matrix. Everything in here computes C += A * B where each operand is a
+ * ( array , offset , row stride ) triple.
+ *
+ * @author Harrison Davis
+ */
+final class Gemm {
+
+    // Multiplies with at least this many multiply-adds use the blocked kernel.
+    static final long BLOCKED_THRESHOLD = 64L * 64L * 64L;
+
+    // Default amount of multiply-adds a single fork/join task will do.
+    static final long PARALLEL_THRESHOLD = 128L * 128L * 128L;
+
+    // Strassen-Winograd recursion stops at or below this size.
+    static final int STRASSEN_CUTOFF = 256;
+
+    // Micro-tile size, these are held in registers.
+    private static final int MR = 4, NR = 4;
+    // Cache block sizes. A KC x NC panel of B is packed & reused for every row of A.
+    private static final int KC = 256, NC = 256;
+    // Each thread's packing buffers for blocked(), grown as needed & never shrunk.
+    private static final ThreadLocal<float[]> PACKED = new ThreadLocal<>();
+    private static final ThreadLocal<double[]> PACKED_DOUBLE = new ThreadLocal<>();
+
+    private Gemm() { }
+
+    //<editor-fold defaultstate="collapsed" desc=" Naive Kernel ">
+    /**
+     * Straight i-k-j multiply. Used for small matrices where packing
+     * would cost more than it saves. Zeros in A aren't skipped, so a NaN
+     * or infinity in B still reaches C.
+     *
+     * @param a The left operand.
+     * @param aOff Where A ( 0 , 0 ) lives.
+     * @param lda The row stride of A.
+     * @param b The right operand.
+     * @param bOff Where B ( 0 , 0 ) lives.
+     * @param ldb The row stride of B.
+     * @param c The result, which is added to.
+     * @param cOff Where C ( 0 , 0 ) lives.
+     * @param ldc The row stride of C.
+     * @param m The row count of A & C.
+     * @param n The column count of B & C.
+     * @param k The column count of A & the row count of B.
+     */
+    static void naive(float[] a, int aOff, int lda, float[] b, int bOff, int ldb,
+                      float[] c, int cOff, int ldc, int m, int n, int k) {
+        for (int i = 0; m > i; i++) {
+            int ai = aOff + i * lda, ci = cOff + i * ldc;
+            for (int p = 0; k > p; p++) {
+                float aip = a[ai + p];
+                int bp = bOff + p * ldb;
+                for (int j = 0; n > j; j++) c[ci + j] += aip * b[bp + j];
+            }
+        }
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" Blocked Kernel ">
+    /**
+     * Cache blocked multiply. B is packed one KC x NC panel at a time into
+     * NR wide strips, then every MR rows of A are run against each strip
+     * with an unrolled MR x NR register tile. The packing buffer is kept
+     * per thread, so repeated calls don't allocate.
+     *
+     * @param a The left operand.
+     * @param aOff Where A ( 0 , 0 ) lives.
+     * @param lda The row stride of A.
+     * @param b The right operand.
+     * @param bOff Where B ( 0 , 0 ) lives.
+     * @param ldb The row stride of B.
+     * @param c The result, which is added to.
+     * @param cOff Where C ( 0 , 0 ) lives.
+     * @param ldc The row stride of C.
+     * @param m The row count of A & C.
+     * @param n The column count of B & C.
+     * @param k The column count of A & the row count of B.
+     */
+    static void blocked(float[] a, int aOff, int lda, float[] b, int bOff, int ldb,
+                        float[] c, int cOff, int ldc, int m, int n, int k) {
+        float[] packed = buffer(Math.min(KC, k) * width(Math.min(NC, n)));
+        for (int jj = 0; n > jj; jj += NC) {
+            int nc = Math.min(NC, n - jj);
+            for (int kk = 0; k > kk; kk += KC) {
+                int kc = Math.min(KC, k - kk);
+                pack(b, bOff + kk * ldb + jj, ldb, packed, 0, kc, nc);
+                panel(a, aOff + kk, lda, packed, 0, c, cOff + jj, ldc, m, nc, kc);
+            }
+        }
+    }
+
+    /**
+     * Gets this thread's packing buffer, growing it to at least size.
+     */
+    private static float[] buffer(int size) {
+        float[] packed = PACKED.get();
+        if (packed == null || size > packed.length) {
+            packed = new float[size];
+            PACKED.set(packed);
+        }
+        return packed;
+    }
+    /**
+     * @return nc rounded up to a whole number of NR wide strips.
+     */
+    private static int width(int nc) { return (nc + NR - 1) / NR * NR; }
+
+    /**
+     * Multiplies rows [ 0 , m ) of an A block against one packed panel of B.
+     *
+     * @param a The left operand.
+     * @param aOff Where the A block starts.
+     * @param lda The row stride of A.
+     * @param packed The packed B panel.
+     * @param pOff Where the panel starts in packed.
+     * @param c The result.
+     * @param cOff Where the C block starts.
+     * @param ldc The row stride of C.
+     * @param m The amount of rows.
+     * @param nc The amount of columns in the panel.
+     * @param kc The depth of the panel.
+     */
+    static void panel(float[] a, int aOff, int lda, float[] packed, int pOff,
+                      float[] c, int cOff, int ldc, int m, int nc, int kc) {
+        for (int s = 0; nc > s; s += NR) {
+            int pb = pOff + s * kc, w = Math.min(NR, nc - s);
+            int i = 0;
+            for (; m - MR >= i; i += MR)
+                tile4(a, aOff + i * lda, lda, packed, pb, c, cOff + i * ldc + s, ldc, kc, w);
+            for (; m > i; i++)
+                tile1(a, aOff + i * lda, packed, pb, c, cOff + i * ldc + s, kc, w);
+        }
+    }
+
+    /**
+     * Packs a kc x nc block of B into NR wide strips, each strip stored
+     * k-major so the micro kernel reads it front to back. Columns past
+     * nc in the last strip are zero filled.
+     *
+     * @param b The right operand.
+     * @param bOff Where the block starts.
+     * @param ldb The row stride of B.
+     * @param packed Where to pack into.
+     * @param pOff Where the panel starts in packed.
+     * @param kc The amount of rows in the block.
+     * @param nc The amount of columns in the block.
+     */
+    static void pack(float[] b, int bOff, int ldb, float[] packed, int pOff, int kc, int nc) {
+        for (int s = 0; nc > s; s += NR) {
+            int base = pOff + s * kc, w = Math.min(NR, nc - s);
+            for (int p = 0; kc > p; p++) {
+                int src = bOff + p * ldb + s, dst = base + p * NR;
+                for (int j = 0; w > j; j++) packed[dst + j] = b[src + j];
+                for (int j = w; NR > j; j++) packed[dst + j] = 0.0f;
+            }
+        }
+    }
+
+    /**
+     * 4 x 4 register tile.
+     */
+    private static void tile4(float[] a, int a0, int lda, float[] packed, int pb,
+                              float[] c, int c0, int ldc, int kc, int w) {
+        int a1 = a0 + lda, a2 = a1 + lda, a3 = a2 + lda;
+        float c00 = 0, c01 = 0, c02 = 0, c03 = 0,
+              c10 = 0, c11 = 0, c12 = 0, c13 = 0,
+              c20 = 0, c21 = 0, c22 = 0, c23 = 0,
+              c30 = 0, c31 = 0, c32 = 0, c33 = 0;
+        for (int p = 0; kc > p; p++) {
+            int q = pb + p * NR;
+            float b0 = packed[q], b1 = packed[q + 1], b2 = packed[q + 2], b3 = packed[q + 3];
+            float x0 = a[a0 + p], x1 = a[a1 + p], x2 = a[a2 + p], x3 = a[a3 + p];
+            c00 += x0 * b0; c01 += x0 * b1; c02 += x0 * b2; c03 += x0 * b3;
+            c10 += x1 * b0; c11 += x1 * b1; c12 += x1 * b2; c13 += x1 * b3;
+            c20 += x2 * b0; c21 += x2 * b1; c22 += x2 * b2; c23 += x2 * b3;
+            c30 += x3 * b0; c31 += x3 * b1; c32 += x3 * b2; c33 += x3 * b3;
+        }
+        store(c, c0, w, c00, c01, c02, c03); c0 += ldc;
+        store(c, c0, w, c10, c11, c12, c13); c0 += ldc;
+        store(c, c0, w, c20, c21, c22, c23); c0 += ldc;
+        store(c, c0, w, c30, c31, c32, c33);
+    }
+    /**
+     * 1 x 4 register tile for the leftover rows.
+     */
+    private static void tile1(float[] a, int a0, float[] packed, int pb,
+                              float[] c, int c0, int kc, int w) {
+        float c00 = 0, c01 = 0, c02 = 0, c03 = 0;
+        for (int p = 0; kc > p; p++) {
+            int q = pb + p * NR;
+            float x0 = a[a0 + p];
+            c00 += x0 * packed[q]; c01 += x0 * packed[q + 1]; c02 += x0 * packed[q + 2]; c03 += x0 * packed[q + 3];
+        }
+        store(c, c0, w, c00, c01, c02, c03);
+    }
+    /**
+     * Adds up to four accumulated values into a row of C.
+     */
+    private static void store(float[] c, int c0, int w, float v0, float v1, float v2, float v3) {
+        c[c0] += v0;
+        if (w > 1) c[c0 + 1] += v1;
+        if (w > 2) c[c0 + 2] += v2;
+        if (w > 3) c[c0 + 3] += v3;
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" Dispatch ">
+    /**
+     * Picks a kernel based on the size of the problem & runs it.
+     *
+     * @param a The left operand.
+     * @param aOff Where A ( 0 , 0 ) lives.
+     * @param lda The row stride of A.
+     * @param b The right operand.
+     * @param bOff Where B ( 0 , 0 ) lives.
+     * @param ldb The row stride of B.
+     * @param c The result, which is added to.
+     * @param cOff Where C ( 0 , 0 ) lives.
+     * @param ldc The row stride of C.
+     * @param m The row count of A & C.
+     * @param n The column count of B & C.
+     * @param k The column count of A & the row count of B.
+     */
+    static void multiply(float[] a, int aOff, int lda, float[] b, int bOff, int ldb,
+                         float[] c, int cOff, int ldc, int m, int n, int k) {
+        if ((long) m * n * k >= BLOCKED_THRESHOLD) blocked(a, aOff, lda, b, bOff, ldb, c, cOff, ldc, m, n, k);
+        else naive(a, aOff, lda, b, bOff, ldb, c, cOff, ldc, m, n, k);
+    }
+    /**
+     * Computes C += A * B on whole matrices.
+     *
+     * @param a The left operand.
+     * @param b The right operand.
+     * @param c The result, which is added to.
+     */
+    static void multiply(Matrix a, Matrix b, Matrix c) {
+        multiply(a.data, a.offset, a.stride, b.data, b.offset, b.stride,
+                 c.data, c.offset, c.stride, a.getRows(), b.getColumns(), a.getColumns());
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" Double Precision ">
+    /**
+     * Computes C += A * B in double precision, picking a kernel the same
+     * way the float multiply() does. Used by DMatrix.
+     *
+     * @param a The left operand.
+     * @param aOff Where A ( 0 , 0 ) lives.
+     * @param lda The row stride of A.
+     * @param b The right operand.
+     * @param bOff Where B ( 0 , 0 ) lives.
+     * @param ldb The row stride of B.
+     * @param c The result, which is added to.
+     * @param cOff Where C ( 0 , 0 ) lives.
+     * @param ldc The row stride of C.
+     * @param m The row count of A & C.
+     * @param n The column count of B & C.
+     * @param k The column count of A & the row count of B.
+     */
+    static void multiply(double[] a, int aOff, int lda, double[] b, int bOff, int ldb,
+                         double[] c, int cOff, int ldc, int m, int n, int k) {
+        if ((long) m * n * k >= BLOCKED_THRESHOLD) blocked(a, aOff, lda, b, bOff, ldb, c, cOff, ldc, m, n, k);
+        else naive(a, aOff, lda, b, bOff, ldb, c, cOff, ldc, m, n, k);
+    }
+    /**
+     * Straight i-k-j multiply in double precision.
+     */
+    static void naive(double[] a, int aOff, int lda, double[] b, int bOff, int ldb,
+                      double[] c, int cOff, int ldc, int m, int n, int k) {
+        for (int i = 0; m > i; i++) {
+            int ai = aOff + i * lda, ci = cOff + i * ldc;
+            for (int p = 0; k > p; p++) {
+                double aip = a[ai + p];
+                int bp = bOff + p * ldb;
+                for (int j = 0; n > j; j++) c[ci + j] += aip * b[bp + j];
+            }
+        }
+    }
+    /**
+     * Cache blocked multiply in double precision, laid out like the float
+     * blocked() with the same panel & tile sizes.
+     */
+    static void blocked(double[] a, int aOff, int lda, double[] b, int bOff, int ldb,
+                        double[] c, int cOff, int ldc, int m, int n, int k) {
+        int size = Math.min(KC, k) * width(Math.min(NC, n));
+        double[] packed = PACKED_DOUBLE.get();
+        if (packed == null || size > packed.length) {
+            packed = new double[size];
+            PACKED_DOUBLE.set(packed);
+        }
+        for (int jj = 0; n > jj; jj += NC) {
+            int nc = Math.min(NC, n - jj);
+            for (int kk = 0; k > kk; kk += KC) {
+                int kc = Math.min(KC, k - kk);
+                // Pack the kc x nc block of B into zero padded NR wide strips.
+                for (int s = 0; nc > s; s += NR) {
+                    int base = s * kc, w = Math.min(NR, nc - s);
+                    for (int p = 0; kc > p; p++) {
+                        int src = bOff + (kk + p) * ldb + jj + s, dst = base + p * NR;
+                        for (int j = 0; w > j; j++) packed[dst + j] = b[src + j];
+                        for (int j = w; NR > j; j++) packed[dst + j] = 0.0;
+                    }
+                }
+                for (int s = 0; nc > s; s += NR) {
+                    int pb = s * kc, w = Math.min(NR, nc - s), i = 0;
+                    for (; m - MR >= i; i += MR)
+                        tile4(a, aOff + i * lda + kk, lda, packed, pb, c, cOff + i * ldc + jj + s, ldc, kc, w);
+                    for (; m > i; i++)
+                        tile1(a, aOff + i * lda + kk, packed, pb, c, cOff + i * ldc + jj + s, kc, w);
+                }
+            }
+        }
+    }
+    /**
+     * 4 x 4 register tile in double precision.
+     */
+    private static void tile4(double[] a, int a0, int lda, double[] packed, int pb,
+                              double[] c, int c0, int ldc, int kc, int w) {
+        int a1 = a0 + lda, a2 = a1 + lda, a3 = a2 + lda;
+        double c00 = 0, c01 = 0, c02 = 0, c03 = 0,
+               c10 = 0, c11 = 0, c12 = 0, c13 = 0,
+               c20 = 0, c21 = 0, c22 = 0, c23 = 0,
+               c30 = 0, c31 = 0, c32 = 0, c33 = 0;
+        for (int p = 0; kc > p; p++) {
+            int q = pb + p * NR;
+            double b0 = packed[q], b1 = packed[q + 1], b2 = packed[q + 2], b3 = packed[q + 3];
+            double x0 = a[a0 + p], x1 = a[a1 + p], x2 = a[a2 + p], x3 = a[a3 + p];
+            c00 += x0 * b0; c01 += x0 * b1; c02 += x0 * b2; c03 += x0 * b3;
+            c10 += x1 * b0; c11 += x1 * b1; c12 += x1 * b2; c13 += x1 * b3;
+            c20 += x2 * b0; c21 += x2 * b1; c22 += x2 * b2; c23 += x2 * b3;
+            c30 += x3 * b0; c31 += x3 * b1; c32 += x3 * b2; c33 += x3 * b3;
+        }
+        store(c, c0, w, c00, c01, c02, c03); c0 += ldc;
+        store(c, c0, w, c10, c11, c12, c13); c0 += ldc;
+        store(c, c0, w, c20, c21, c22, c23); c0 += ldc;
+        store(c, c0, w, c30, c31, c32, c33);
+    }
+    /**
+     * 1 x 4 register tile in double precision.
+     */
+    private static void tile1(double[] a, int a0, double[] packed, int pb,
+                              double[] c, int c0, int kc, int w) {
+        double c00 = 0, c01 = 0, c02 = 0, c03 = 0;
+        for (int p = 0; kc > p; p++) {
+            int q = pb + p * NR;
+            double x0 = a[a0 + p];
+            c00 += x0 * packed[q]; c01 += x0 * packed[q + 1]; c02 += x0 * packed[q + 2]; c03 += x0 * packed[q + 3];
+        }
+        store(c, c0, w, c00, c01, c02, c03);
+    }
+    private static void store(double[] c, int c0, int w, double v0, double v1, double v2, double v3) {
+        c[c0] += v0;
+        if (w > 1) c[c0 + 1] += v1;
+        if (w > 2) c[c0 + 2] += v2;
+        if (w > 3) c[c0 + 3] += v3;
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" Fork/Join ">
+    /**
+     * Computes C += A * B on a pool. All of B is packed once up front, then
+     * C is split recursively into blocks of rows & NC wide column panels,
+     * every block reading the same packed B.
+     *
+     * @param a The left operand.
+     * @param b The right operand.
+     * @param c The result, which is added to.
+     * @param pool The pool to run on.
+     * @param threshold The most multiply-adds a leaf task will do.
+     */
+    static void parallel(Matrix a, Matrix b, Matrix c, java.util.concurrent.ForkJoinPool pool, long threshold) {
+        int m = a.getRows(), n = b.getColumns(), k = a.getColumns();
+        threshold = Math.max(1L, threshold);
+        long work = (long) m * n * k;
+        if (threshold >= work || BLOCKED_THRESHOLD > work) { multiply(a, b, c); return; }
+
+        // Panel ( jj , kk ) starts at jj * k + kk * width( nc ) as every panel before jj is NC wide.
+        float[] packed = new float[Matrix.elements(k, width(n))];
+        for (int jj = 0; n > jj; jj += NC) {
+            int nc = Math.min(NC, n - jj), w = width(nc);
+            for (int kk = 0; k > kk; kk += KC)
+                pack(b.data, b.offset + kk * b.stride + jj, b.stride, packed, jj * k + kk * w, Math.min(KC, k - kk), nc);
+        }
+        pool.invoke(new MultiplyTask(a.data, a.offset, a.stride, packed, c.data, c.offset, c.stride, 0, m, 0, n, k, threshold));
+    }
+
+    /**
+     * Computes the block of C in rows [ i0 , i1 ) & columns [ j0 , j1 )
+     * from a fully packed B. j0 always falls on a panel boundary.
+     */
+    private static final class MultiplyTask extends java.util.concurrent.RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final float[] a, packed, c;
+        private final int aOff, lda, cOff, ldc, i0, i1, j0, j1, k;
+        private final long threshold;
+
+        MultiplyTask(float[] a, int aOff, int lda, float[] packed, float[] c, int cOff, int ldc,
+                     int i0, int i1, int j0, int j1, int k, long threshold) {
+            this.a = a; this.aOff = aOff; this.lda = lda; this.packed = packed;
+            this.c = c; this.cOff = cOff; this.ldc = ldc;
+            this.i0 = i0; this.i1 = i1; this.j0 = j0; this.j1 = j1; this.k = k;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            int m = i1 - i0, n = j1 - j0;
+            if ((long) m * n * k <= threshold || (MR >= m && NC >= n)) {
+                for (int jj = j0; j1 > jj; jj += NC) {
+                    int nc = Math.min(NC, j1 - jj), w = width(nc);
+                    for (int kk = 0; k > kk; kk += KC)
+                        panel(a, aOff + i0 * lda + kk, lda, packed, jj * k + kk * w,
+                              c, cOff + i0 * ldc + jj, ldc, m, nc, Math.min(KC, k - kk));
+                }
+                return;
+            }
+            // Split rows on micro-tile boundaries, or columns on panel boundaries once rows run out.
+            if (m > MR && (m >= n || NC >= n)) {
+                int mid = i0 + Math.max(MR, (m / 2) / MR * MR);
+                invokeAll(new MultiplyTask(a, aOff, lda, packed, c, cOff, ldc, i0, mid, j0, j1, k, threshold),
+                          new MultiplyTask(a, aOff, lda, packed, c, cOff, ldc, mid, i1, j0, j1, k, threshold));
+            } else {
+                int mid = j0 + Math.max(NC, (n / 2) / NC * NC);
+                invokeAll(new MultiplyTask(a, aOff, lda, packed, c, cOff, ldc, i0, i1, j0, mid, k, threshold),
+                          new MultiplyTask(a, aOff, lda, packed, c, cOff, ldc, i0, i1, mid, j1, k, threshold));
+            }
+        }
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" Strassen-Winograd ">
+    /**
+     * Multiplies two n x n matrices with the Strassen-Winograd scheme. Both
+     * are padded with zeros up to q * 2^d, where q is no larger than the
+     * cutoff, so every level splits evenly & the leaves are q x q.
+     *
+     * @param a The left operand.
+     * @param b The right operand.
+     * @param c The result, which is overwritten.
+     * @param cutoff Blocks this size or smaller use the blocked kernel.
+     */
+    static void strassen(Matrix a, Matrix b, Matrix c, int cutoff) {
+        int n = a.getRows(), q = n, d = 0;
+        while (q > cutoff) { q = (q + 1) / 2; d++; }
+        int p = q << d;
+
+        if (p == n) {
+            fill(c.data, c.offset, c.stride, n, 0.0f);
+            strassen(a.data, a.offset, a.stride, b.data, b.offset, b.stride, c.data, c.offset, c.stride, n, cutoff);
+            return;
+        }
+        float[] pa = padded(a, p), pb = padded(b, p), pc = new float[p * p];
+        strassen(pa, 0, p, pb, 0, p, pc, 0, p, p, cutoff);
+        for (int i = 0; n > i; i++) System.arraycopy(pc, i * p, c.data, c.offset + i * c.stride, n);
+    }
+
+    /**
+     * Recursive step. C is expected to be zeroed on entry.
+     */
+    private static void strassen(float[] a, int aOff, int lda, float[] b, int bOff, int ldb,
+                                 float[] c, int cOff, int ldc, int n, int cutoff) {
+        if (cutoff >= n || (n & 1) == 1) {
+            multiply(a, aOff, lda, b, bOff, ldb, c, cOff, ldc, n, n, n);
+            return;
+        }
+        int h = n / 2, hh = h * h;
+        int a11 = aOff, a12 = aOff + h, a21 = aOff + h * lda, a22 = a21 + h;
+        int b11 = bOff, b12 = bOff + h, b21 = bOff + h * ldb, b22 = b21 + h;
+        int c11 = cOff, c12 = cOff + h, c21 = cOff + h * ldc, c22 = c21 + h;
+
+        // s holds S1 - S4, t holds T1 - T4, m holds M1 - M7. Each block is h x h.
+        float[] s = new float[4 * hh], t = new float[4 * hh], m = new float[7 * hh];
+        int s1 = 0, s2 = hh, s3 = 2 * hh, s4 = 3 * hh;
+        int t1 = 0, t2 = hh, t3 = 2 * hh, t4 = 3 * hh;
+
+        add(a, a21, lda, a, a22, lda, s, s1, h, h, 1.0f);   // S1 = A21 + A22
+        add(s, s1, h, a, a11, lda, s, s2, h, h, -1.0f);     // S2 = S1 - A11
+        add(a, a11, lda, a, a21, lda, s, s3, h, h, -1.0f);  // S3 = A11 - A21
+        add(a, a12, lda, s, s2, h, s, s4, h, h, -1.0f);     // S4 = A12 - S2
+        add(b, b12, ldb, b, b11, ldb, t, t1, h, h, -1.0f);  // T1 = B12 - B11
+        add(b, b22, ldb, t, t1, h, t, t2, h, h, -1.0f);     // T2 = B22 - T1
+        add(b, b22, ldb, b, b12, ldb, t, t3, h, h, -1.0f);  // T3 = B22 - B12
+        add(t, t2, h, b, b21, ldb, t, t4, h, h, -1.0f);     // T4 = T2 - B21
+
+        strassen(a, a11, lda, b, b11, ldb, m, 0, h, h, cutoff);       // M1 = A11 * B11
+        strassen(a, a12, lda, b, b21, ldb, m, hh, h, h, cutoff);      // M2 = A12 * B21
+        strassen(s, s4, h, b, b22, ldb, m, 2 * hh, h, h, cutoff);     // M3 = S4 * B22
+        strassen(a, a22, lda, t, t4, h, m, 3 * hh, h, h, cutoff);     // M4 = A22 * T4
+        strassen(s, s1, h, t, t1, h, m, 4 * hh, h, h, cutoff);        // M5 = S1 * T1
+        strassen(s, s2, h, t, t2, h, m, 5 * hh, h, h, cutoff);        // M6 = S2 * T2
+        strassen(s, s3, h, t, t3, h, m, 6 * hh, h, h, cutoff);        // M7 = S3 * T3
+
+        // The S & T blocks are no longer needed, reuse them for the U sums.
+        add(m, 0, h, m, hh, h, c, c11, ldc, h, 1.0f);          // C11 = U1 = M1 + M2
+        add(m, 0, h, m, 5 * hh, h, s, 0, h, h, 1.0f);          // U2 = M1 + M6
+        add(s, 0, h, m, 6 * hh, h, s, hh, h, h, 1.0f);         // U3 = U2 + M7
+        add(s, 0, h, m, 4 * hh, h, s, 2 * hh, h, h, 1.0f);     // U4 = U2 + M5
+        add(s, 2 * hh, h, m, 2 * hh, h, c, c12, ldc, h, 1.0f); // C12 = U5 = U4 + M3
+        add(s, hh, h, m, 3 * hh, h, c, c21, ldc, h, -1.0f);    // C21 = U6 = U3 - M4
+        add(s, hh, h, m, 4 * hh, h, c, c22, ldc, h, 1.0f);     // C22 = U7 = U3 + M5
+    }
+
+    /**
+     * Z = X + sign * Y over an h x h block.
+     */
+    private static void add(float[] x, int xOff, int ldx, float[] y, int yOff, int ldy,
+                            float[] z, int zOff, int ldz, int h, float sign) {
+        for (int i = 0; h > i; i++) {
+            int xi = xOff + i * ldx, yi = yOff + i * ldy, zi = zOff + i * ldz;
+            for (int j = 0; h > j; j++) z[zi + j] = x[xi + j] + sign * y[yi + j];
+        }
+    }
+    /**
+     * Sets every value of an n x n block.
+     */
+    private static void fill(float[] z, int zOff, int ldz, int n, float value) {
+        for (int i = 0; n > i; i++) java.util.Arrays.fill(z, zOff + i * ldz, zOff + i * ldz + n, value);
+    }
+    /**
+     * Copies a square matrix into the top left of a zeroed p x p array.
+     */
+    private static float[] padded(Matrix m, int p) {
+        int n = m.getRows();
+        float[] out = new float[p * p];
+        for (int i = 0; n > i; i++) System.arraycopy(m.data, m.offset + i * m.stride, out, i * p, n);
+        return out;
+    }
+    //</editor-fold>
+
+}
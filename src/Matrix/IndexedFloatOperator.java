@@ -0,0 +1,20 @@
+package Matrix;
+
+/**
+ * A float to float function that's also told where the element lives,
+ * for mutations that depend on the row or column.
+ *
+ * @author Harrison Davis
+ */
+@FunctionalInterface
+public interface IndexedFloatOperator {
+
+    /**
+     * @param i The row position.
+     * @param j The column position.
+     * @param v The value at ( i , j ) .
+     * @return The new value for ( i , j ) .
+     */
+    float apply(int i, int j, float v);
+
+}
@@ -0,0 +1,420 @@
+package Matrix;
+
+/**
+ * LU decomposition with partial pivoting, P * A = L * U. The factors are
+ * computed once when this is constructed, so every determinant, solve
+ * or inverse afterwards only costs the substitution steps. Factoring is
+ * blocked, so nearly all of the work is one matrix multiply per block of
+ * columns, which can run on a fork/join pool.
+ *
+ * @author Harrison Davis
+ */
+public class LUDecomposition {
+
+    // Pivots this small or smaller are treated as zero.
+    static final float SINGULAR_EPSILON = 1e-6f;
+    // The fewest right hand side columns a parallel solve task will take.
+    static final int COLUMNS_PER_TASK = 64;
+    // How many columns are factored per block.
+    static final int BLOCK = 64;
+
+    // L & U packed into one row-major n x n array. L has an implicit unit diagonal.
+    final float[] lu;
+    // perm[i] is the row of the original matrix that ended up in row i.
+    final int[] perm;
+    // The size & the sign of the row permutation.
+    final int n;
+    private int pivSign;
+    // True if a zero pivot was found.
+    private boolean singular;
+
+    //<editor-fold defaultstate="collapsed" desc=" Constructors ">
+    /**
+     * Factors a square matrix. The matrix itself isn't changed.
+     *
+     * @param a The Matrix to factor.
+     *
+     * @throws ArithmeticException if the matrix isn't square.
+     */
+    public LUDecomposition(Matrix a) throws ArithmeticException { this(a, null); }
+    /**
+     * Factors a square matrix, running the trailing updates on a pool.
+     * The matrix itself isn't changed.
+     *
+     * @param a The Matrix to factor.
+     * @param pool The pool to run on, serial if null.
+     *
+     * @throws ArithmeticException if the matrix isn't square.
+     */
+    public LUDecomposition(Matrix a, java.util.concurrent.ForkJoinPool pool) throws ArithmeticException {
+        if (a.getRows() != a.getColumns()) throw new ArithmeticException("Cannot LU decompose a non-square matrix ...");
+        n = a.getRows();
+        lu = new Matrix(a).data;
+        perm = new int[n];
+        for (int i = 0; n > i; i++) perm[i] = i;
+        pivSign = 1;
+        factor(pool);
+    }
+    /**
+     * Factors a row-major n x n array in place, without copying it. The
+     * decomposition owns the array afterwards.
+     *
+     * @param a The array to factor.
+     * @param n The size.
+     * @param pool The pool to run on, serial if null.
+     */
+    LUDecomposition(float[] a, int n, java.util.concurrent.ForkJoinPool pool) {
+        this.n = n;
+        lu = a;
+        perm = new int[n];
+        for (int i = 0; n > i; i++) perm[i] = i;
+        pivSign = 1;
+        factor(pool);
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" Factorization ">
+    /**
+     * Blocked right-looking elimination. Each block of columns is factored
+     * on its own, then the rows of U right of it are solved & the trailing
+     * submatrix gets one rank BLOCK update through the multiply kernel.
+     */
+    private void factor(java.util.concurrent.ForkJoinPool pool) {
+        for (int k0 = 0; n > k0; k0 += BLOCK) {
+            int k1 = Math.min(k0 + BLOCK, n), nb = k1 - k0, rest = n - k1;
+
+            // 1. The panel, columns [ k0 , k1 ) from row k0 down.
+            factorPanel(k0, k1);
+            if (rest == 0) break;
+
+            // 2. U12 = L11^-1 * A12 .
+            for (int p = k0; k1 > p; p++) {
+                int rp = p * n + k1;
+                for (int i = p + 1; k1 > i; i++) {
+                    float l = lu[i * n + p];
+                    if (l != 0.0f) ElementKernels.subtractScaled(lu, rp, l, lu, i * n + k1, rest);
+                }
+            }
+
+            // 3. A22 -= L21 * U12 , as A22 += ( -L21 ) * U12 .
+            float[] l21 = new float[rest * nb];
+            for (int i = 0; rest > i; i++) {
+                int ri = (k1 + i) * n + k0, ti = i * nb;
+                for (int j = 0; nb > j; j++) l21[ti + j] = -lu[ri + j];
+            }
+            Matrix a = new Matrix(l21, 0, nb, rest, nb),
+                   b = new Matrix(lu, k0 * n + k1, n, nb, rest),
+                   c = new Matrix(lu, k1 * n + k1, n, rest, rest);
+            if (pool == null) Gemm.multiply(a, b, c);
+            else Gemm.parallel(a, b, c, pool, Gemm.PARALLEL_THRESHOLD);
+        }
+    }
+
+    /**
+     * Unblocked elimination of columns [ k0 , k1 ) . Rows are swapped across
+     * the whole matrix, but only the columns of the panel are updated.
+     */
+    private void factorPanel(int k0, int k1) {
+        for (int p = k0; k1 > p; p++) {
+            // Find the largest pivot in this column.
+            int maxRow = p;
+            for (int i = p + 1; n > i; i++)
+                if (Math.abs(lu[i * n + p]) > Math.abs(lu[maxRow * n + p]))
+                    maxRow = i;
+            if (maxRow != p) {
+                Matrix.swapRows(lu, p * n, maxRow * n, n);
+                int t = perm[p]; perm[p] = perm[maxRow]; perm[maxRow] = t;
+                pivSign = -pivSign;
+            }
+
+            float pivot = lu[p * n + p];
+            if (Math.abs(pivot) <= SINGULAR_EPSILON) { singular = true; continue; }
+
+            int rp = p * n + p + 1, len = k1 - p - 1;
+            for (int i = p + 1; n > i; i++) {
+                int ri = i * n + p;
+                float factor = lu[ri] / pivot;
+                lu[ri] = factor;
+                if (factor != 0.0f && len > 0) ElementKernels.subtractScaled(lu, rp, factor, lu, ri + 1, len);
+            }
+        }
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" Getters ">
+    /**
+     * @return The size of the factored matrix.
+     */
+    public int getSize() { return n; }
+    /**
+     * @return True if the factored matrix is singular.
+     */
+    public boolean isSingular() { return singular; }
+    /**
+     * @return A new Matrix holding the unit lower triangular factor L.
+     */
+    public Matrix getL() {
+        Matrix l = new Matrix(n);
+        for (int i = 0; n > i; i++) {
+            System.arraycopy(lu, i * n, l.data, i * n, i);
+            l.data[i * n + i] = 1.0f;
+        }
+        return l;
+    }
+    /**
+     * @return A new Matrix holding the upper triangular factor U.
+     */
+    public Matrix getU() {
+        Matrix u = new Matrix(n);
+        for (int i = 0; n > i; i++) System.arraycopy(lu, i * n + i, u.data, i * n + i, n - i);
+        return u;
+    }
+    /**
+     * @return A copy of the row permutation. Row i of P * A is row [i] of A.
+     */
+    public int[] getPivot() { return perm.clone(); }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" Information Calculators ">
+    /**
+     * Calculates the determinant of the factored matrix. This is the
+     * product of the diagonal of U with the sign of the row swaps.
+     *
+     * @return The determinant, or 0 if the matrix is singular.
+     */
+    public float determinant() {
+        if (singular) return 0.0f;
+        float det = pivSign;
+        for (int i = 0; n > i; i++) det *= lu[i * n + i];
+        return det;
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" Solvers ">
+    /**
+     * Solves A * X = B for X.
+     *
+     * @param b The right hand sides, one per column. It must have n rows.
+     * @return A new Matrix X.
+     *
+     * @throws ArithmeticException if the row count of b is wrong or the matrix is singular.
+     */
+    public Matrix solve(Matrix b) throws ArithmeticException {
+        Matrix x = this.permuted(b);
+        int m = x.getColumns();
+        substitute(x.data, m, 0, m);
+        return x;
+    }
+    /**
+     * Solves A * X = B for X, splitting the columns of B across a fork/join 
+     * pool. Every column is independent, so this pays off once there are 
+     * a lot of right hand sides.
+     *
+     * @param b The right hand sides, one per column. It must have n rows.
+     * @param pool The pool to run on.
+     * @return A new Matrix X.
+     *
+     * @throws ArithmeticException if the row count of b is wrong or the matrix is singular.
+     */
+    public Matrix solve(Matrix b, java.util.concurrent.ForkJoinPool pool) throws ArithmeticException {
+        Matrix x = this.permuted(b);
+        int m = x.getColumns();
+        if (COLUMNS_PER_TASK >= m) substitute(x.data, m, 0, m);
+        else pool.invoke(new SubstituteTask(x.data, m, 0, m, false));
+        return x;
+    }
+    /**
+     * Solves A * x = b for x.
+     *
+     * @param b The right hand side. It must have length n.
+     * @return A new array x.
+     *
+     * @throws ArithmeticException if the length of b is wrong or the matrix is singular.
+     */
+    public float[] solve(float[] b) throws ArithmeticException {
+        if (b.length != n) throw new ArithmeticException("Right hand side must have length " + n + ", it has " + b.length + " ...");
+        if (singular) throw new ArithmeticException("Matrix is singular, cannot solve ...");
+        float[] x = new float[n];
+        for (int i = 0; n > i; i++) x[i] = b[perm[i]];
+        substitute(x, 1, 0, 1);
+        return x;
+    }
+    /**
+     * Calculates the inverse of the factored matrix.
+     *
+     * @return A new Matrix that's the inverse.
+     *
+     * @throws ArithmeticException if the matrix is singular.
+     */
+    public Matrix inverse() throws ArithmeticException { return this.solve(Matrix.getIdentity(n)); }
+    /**
+     * Solves A^T * X = B for X with the same factors, as A^T = U^T * L^T * P .
+     *
+     * @param b The right hand sides, one per column. It must have n rows.
+     * @return A new Matrix X.
+     *
+     * @throws ArithmeticException if the row count of b is wrong or the matrix is singular.
+     */
+    public Matrix solveTranspose(Matrix b) throws ArithmeticException {
+        Matrix y = this.checked(b);
+        int m = y.getColumns();
+        substituteTranspose(y.data, m, 0, m);
+        return this.unpermuted(y);
+    }
+    /**
+     * Solves A^T * X = B for X, splitting the columns of B across a pool.
+     *
+     * @param b The right hand sides, one per column. It must have n rows.
+     * @param pool The pool to run on.
+     * @return A new Matrix X.
+     *
+     * @throws ArithmeticException if the row count of b is wrong or the matrix is singular.
+     */
+    public Matrix solveTranspose(Matrix b, java.util.concurrent.ForkJoinPool pool) throws ArithmeticException {
+        Matrix y = this.checked(b);
+        int m = y.getColumns();
+        if (COLUMNS_PER_TASK >= m) substituteTranspose(y.data, m, 0, m);
+        else pool.invoke(new SubstituteTask(y.data, m, 0, m, true));
+        return this.unpermuted(y);
+    }
+
+    /**
+     * Checks a right hand side & copies it with its rows put in pivot order.
+     *
+     * @param b The right hand sides.
+     * @return A new Matrix equal to P * B .
+     *
+     * @throws ArithmeticException if the row count of b is wrong or the matrix is singular.
+     */
+    private Matrix permuted(Matrix b) throws ArithmeticException {
+        if (b.getRows() != n) throw new ArithmeticException("Right hand side must have " + n + " rows, it has " + b.getRows() + " ...");
+        if (singular) throw new ArithmeticException("Matrix is singular, cannot solve ...");
+        int m = b.getColumns();
+        Matrix x = new Matrix(n, m);
+        for (int i = 0; n > i; i++)
+            System.arraycopy(b.data, b.offset + perm[i] * b.stride, x.data, i * m, m);
+        return x;
+    }
+    /**
+     * Checks a right hand side for a transposed solve & copies it.
+     *
+     * @param b The right hand sides.
+     * @return A new Matrix equal to B .
+     *
+     * @throws ArithmeticException if the row count of b is wrong or the matrix is singular.
+     */
+    private Matrix checked(Matrix b) throws ArithmeticException {
+        if (b.getRows() != n) throw new ArithmeticException("Right hand side must have " + n + " rows, it has " + b.getRows() + " ...");
+        if (singular) throw new ArithmeticException("Matrix is singular, cannot solve ...");
+        return new Matrix(b);
+    }
+    /**
+     * Undoes the row permutation, X = P^T * Z .
+     *
+     * @param z The solution in pivot order.
+     * @return A new Matrix with row perm[i] equal to row i of z.
+     */
+    private Matrix unpermuted(Matrix z) {
+        int m = z.getColumns();
+        Matrix x = new Matrix(n, m);
+        for (int i = 0; n > i; i++) System.arraycopy(z.data, i * m, x.data, perm[i] * m, m);
+        return x;
+    }
+    /**
+     * Runs forward then back substitution over columns [ j0 , j1 ) of
+     * an already permuted n x m row-major right hand side.
+     *
+     * @param x The right hand side, overwritten with the solution.
+     * @param m The row stride of x.
+     * @param j0 The first column to solve.
+     * @param j1 One past the last column to solve.
+     */
+    void substitute(float[] x, int m, int j0, int j1) {
+        // L * Y = P * B
+        for (int k = 0; n > k; k++) {
+            int rk = k * m;
+            for (int i = k + 1; n > i; i++) {
+                float l = lu[i * n + k];
+                if (l == 0.0f) continue;
+                int ri = i * m;
+                for (int j = j0; j1 > j; j++) x[ri + j] -= l * x[rk + j];
+            }
+        }
+        // U * X = Y
+        for (int k = n - 1; k >= 0; k--) {
+            int rk = k * m;
+            float d = lu[k * n + k];
+            for (int j = j0; j1 > j; j++) x[rk + j] /= d;
+            for (int i = 0; k > i; i++) {
+                float u = lu[i * n + k];
+                if (u == 0.0f) continue;
+                int ri = i * m;
+                for (int j = j0; j1 > j; j++) x[ri + j] -= u * x[rk + j];
+            }
+        }
+    }
+
+    /**
+     * Solves U^T * Y = B then L^T * Z = Y over columns [ j0 , j1 ) of an
+     * n x m row-major right hand side. Both sweeps walk rows of lu.
+     *
+     * @param x The right hand side, overwritten with Z.
+     * @param m The row stride of x.
+     * @param j0 The first column to solve.
+     * @param j1 One past the last column to solve.
+     */
+    void substituteTranspose(float[] x, int m, int j0, int j1) {
+        // U^T * Y = B , U^T ( i , k ) = U ( k , i ) .
+        for (int k = 0; n > k; k++) {
+            int rk = k * m, lk = k * n;
+            float d = lu[lk + k];
+            for (int j = j0; j1 > j; j++) x[rk + j] /= d;
+            for (int i = k + 1; n > i; i++) {
+                float u = lu[lk + i];
+                if (u == 0.0f) continue;
+                int ri = i * m;
+                for (int j = j0; j1 > j; j++) x[ri + j] -= u * x[rk + j];
+            }
+        }
+        // L^T * Z = Y , L^T ( i , k ) = L ( k , i ) with a unit diagonal.
+        for (int k = n - 1; k > 0; k--) {
+            int rk = k * m, lk = k * n;
+            for (int i = 0; k > i; i++) {
+                float l = lu[lk + i];
+                if (l == 0.0f) continue;
+                int ri = i * m;
+                for (int j = j0; j1 > j; j++) x[ri + j] -= l * x[rk + j];
+            }
+        }
+    }
+
+    /**
+     * Substitutes columns [ j0 , j1 ) , splitting them in half until
+     * a task has at most COLUMNS_PER_TASK of them.
+     */
+    private final class SubstituteTask extends java.util.concurrent.RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final float[] x;
+        private final int m, j0, j1;
+        // True to solve with A^T instead of A.
+        private final boolean transpose;
+
+        SubstituteTask(float[] x, int m, int j0, int j1, boolean transpose) {
+            this.x = x; this.m = m; this.j0 = j0; this.j1 = j1; this.transpose = transpose;
+        }
+
+        @Override
+        protected void compute() {
+            if (COLUMNS_PER_TASK >= j1 - j0) {
+                if (transpose) substituteTranspose(x, m, j0, j1);
+                else substitute(x, m, j0, j1);
+                return;
+            }
+            int mid = (j0 + j1) >>> 1;
+            invokeAll(new SubstituteTask(x, m, j0, mid, transpose), new SubstituteTask(x, m, mid, j1, transpose));
+        }
+    }
+    //</editor-fold>
+
+}
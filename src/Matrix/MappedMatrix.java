@@ -0,0 +1,240 @@
+package Matrix;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A matrix backed by a memory-mapped file, for operands that don't fit in
+ * RAM. The file holds the elements as little-endian row-major floats,
+ * optionally after a header. It's mapped in bands of whole rows of at most
+ * MAP_BYTES each, and the OS only pages in the parts a tile actually
+ * touches.
+ *
+ * @author Harrison Davis
+ */
+public class MappedMatrix extends BufferMatrix {
+
+    // The largest region mapped at once.
+    static final int MAP_BYTES = 1 << 28;
+
+    // The backing file & whether it should go away on close.
+    private final Path file;
+    private final boolean deleteOnClose;
+    private final boolean readOnly;
+
+    //<editor-fold defaultstate="collapsed" desc=" Constructors ">
+    private MappedMatrix(Path file, int rows, int columns, int rowsPerChunk, ByteBuffer[] maps, boolean readOnly, boolean deleteOnClose) {
+        super(rows, columns, rowsPerChunk, maps);
+        this.file = file; this.readOnly = readOnly; this.deleteOnClose = deleteOnClose;
+    }
+
+    /**
+     * Creates a new file big enough for a rows x columns matrix of zeros
+     * & maps it read-write. An existing file is replaced.
+     *
+     * @param file The file to create.
+     * @param rows The amount of rows.
+     * @param columns The amount of columns.
+     * @return The mapped matrix.
+     *
+     * @throws IOException if the file can't be created or mapped.
+     */
+    public static MappedMatrix create(Path file, int rows, int columns) throws IOException {
+        return create(file, rows, columns, 0L);
+    }
+    /**
+     * Creates a new file with room for a header followed by a rows x columns
+     * matrix of zeros & maps the matrix part read-write. An existing file is replaced.
+     *
+     * @param file The file to create.
+     * @param rows The amount of rows.
+     * @param columns The amount of columns.
+     * @param headerBytes How many bytes to leave in front of the data.
+     * @return The mapped matrix.
+     *
+     * @throws IOException if the file can't be created or mapped.
+     */
+    public static MappedMatrix create(Path file, int rows, int columns, long headerBytes) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                                               StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // Writing the last byte sizes the file without touching the rest of it.
+            long size = headerBytes + (long) rows * columns * Float.BYTES;
+            if (size > 0) ch.write(ByteBuffer.allocate(1), size - 1);
+            return map(ch, file, rows, columns, headerBytes, false, false);
+        }
+    }
+    /**
+     * Maps an existing file that holds a rows x columns matrix starting at some offset.
+     *
+     * @param file The file to map.
+     * @param rows The amount of rows.
+     * @param columns The amount of columns.
+     * @param headerBytes Where the first element starts in the file.
+     * @param readOnly True to map read only, any write then throws a ReadOnlyBufferException.
+     * @return The mapped matrix.
+     *
+     * @throws IOException if the file is too small or can't be mapped.
+     */
+    public static MappedMatrix open(Path file, int rows, int columns, long headerBytes, boolean readOnly) throws IOException {
+        StandardOpenOption[] options = readOnly
+                ? new StandardOpenOption[] { StandardOpenOption.READ }
+                : new StandardOpenOption[] { StandardOpenOption.READ, StandardOpenOption.WRITE };
+        try (FileChannel ch = FileChannel.open(file, options)) {
+            long need = headerBytes + (long) rows * columns * Float.BYTES;
+            if (need > ch.size()) throw new IOException("File " + file + " is " + ch.size() + " bytes, a " + rows + " x " + columns + " matrix needs " + need + " ...");
+            return map(ch, file, rows, columns, headerBytes, readOnly, false);
+        }
+    }
+    /**
+     * Creates a zeroed matrix in a temporary file that is deleted on close.
+     *
+     * @param rows The amount of rows.
+     * @param columns The amount of columns.
+     * @return The mapped matrix.
+     *
+     * @throws IOException if the file can't be created or mapped.
+     */
+    public static MappedMatrix createTemp(int rows, int columns) throws IOException {
+        Path file = Files.createTempFile("matrix", ".bin");
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = (long) rows * columns * Float.BYTES;
+            if (size > 0) ch.write(ByteBuffer.allocate(1), size - 1);
+            return map(ch, file, rows, columns, 0L, false, true);
+        }
+    }
+
+    /**
+     * Maps a channel in bands of whole rows. The mappings stay valid after
+     * the channel is closed.
+     */
+    private static MappedMatrix map(FileChannel ch, Path file, int rows, int columns, long headerBytes,
+                                    boolean readOnly, boolean deleteOnClose) throws IOException {
+        long rowBytes = (long) columns * Float.BYTES;
+        int rowsPerChunk = (int) Math.max(1, Math.min(rowsPerChunk(columns), MAP_BYTES / Math.max(1, rowBytes)));
+        ByteBuffer[] maps = new ByteBuffer[chunkCount(rows, rowsPerChunk)];
+        FileChannel.MapMode mode = readOnly ? FileChannel.MapMode.READ_ONLY : FileChannel.MapMode.READ_WRITE;
+        for (int k = 0; maps.length > k; k++) {
+            int chunkRows = Math.max(0, Math.min(rowsPerChunk, rows - k * rowsPerChunk));
+            long position = headerBytes + (long) k * rowsPerChunk * rowBytes;
+            maps[k] = ch.map(mode, position, chunkRows * rowBytes).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        return new MappedMatrix(file, rows, columns, rowsPerChunk, maps, readOnly, deleteOnClose);
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" Getters ">
+    /**
+     * @return The backing file.
+     */
+    public Path getFile() { return file; }
+    /**
+     * @return True if this matrix was mapped read only.
+     */
+    public boolean isReadOnly() { return readOnly; }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" Operations ">
+    /**
+     * Multiplies two matrices together, streaming tiles of both operands
+     * & writing the product into a new file.
+     *
+     * @param o The other matrix.
+     * @param out The file to write the product to.
+     * @return The product, mapped from out.
+     *
+     * @throws ArithmeticException if the column count of this matrix is not equal to the row count of the other.
+     * @throws IOException if out can't be created.
+     */
+    public MappedMatrix multiply(BufferMatrix o, Path out) throws ArithmeticException, IOException {
+        if (this.c != o.r) throw new ArithmeticException("Cannot multiply these matrices ... " + this.c + " != " + o.r);
+        MappedMatrix result = create(out, this.r, o.c);
+        this.multiplyInto(o, result);
+        return result;
+    }
+    /**
+     * Transposes this matrix into a new file.
+     *
+     * @param out The file to write the transpose to.
+     * @return The transpose, mapped from out.
+     *
+     * @throws IOException if out can't be created.
+     */
+    public MappedMatrix transpose(Path out) throws IOException {
+        MappedMatrix result = create(out, this.c, this.r);
+        this.transposeInto(result);
+        return result;
+    }
+    /**
+     * Adds two matrices together into a new file.
+     *
+     * @param o The other matrix.
+     * @param out The file to write the sum to.
+     * @return The sum, mapped from out.
+     *
+     * @throws ArithmeticException if the two matrices are not equal in dimensions.
+     * @throws IOException if out can't be created.
+     */
+    public MappedMatrix add(BufferMatrix o, Path out) throws ArithmeticException, IOException {
+        if (this.r != o.r || this.c != o.c) throw new ArithmeticException("Matrices must be the same size to add ...");
+        MappedMatrix result = create(out, this.r, this.c);
+        this.addInto(o, result);
+        return result;
+    }
+    /**
+     * Scales each element into a new file.
+     *
+     * @param f The scalar to scale by.
+     * @param out The file to write the result to.
+     * @return The scaled matrix, mapped from out.
+     *
+     * @throws IOException if out can't be created.
+     */
+    public MappedMatrix scale(float f, Path out) throws IOException {
+        MappedMatrix result = create(out, this.r, this.c);
+        this.scaleInto(f, result);
+        return result;
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" Lifetime ">
+    /**
+     * Writes any changes back to the file now instead of whenever the OS gets to it.
+     */
+    public void force() {
+        if (readOnly) return;
+        ByteBuffer[] maps = this.lockBuffers();
+        try { for (ByteBuffer b : maps) if (b instanceof java.nio.MappedByteBuffer) ((java.nio.MappedByteBuffer) b).force(); }
+        finally { this.unlockBuffers(); }
+    }
+
+    @Override
+    BufferMatrix newScratch(int rows, int columns) {
+        try { return createTemp(rows, columns); }
+        catch (IOException e) { throw new UncheckedIOException(e); }
+    }
+
+    /**
+     * Unmaps the file & deletes it if it was a temporary one. Changes are
+     * written back by the OS when the mapping is released. Where the file
+     * can't be deleted yet it's deleted when the JVM exits instead.
+     *
+     * @throws IllegalStateException if called from inside an operation on this matrix.
+     */
+    @Override
+    public void close() throws IllegalStateException {
+        if (this.isClosed()) return;
+        super.close();
+        if (deleteOnClose) {
+            try { Files.deleteIfExists(file); }
+            catch (IOException e) { file.toFile().deleteOnExit(); }
+        }
+    }
+    //</editor-fold>
+
+}
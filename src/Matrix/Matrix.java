@@ -7,10 +7,19 @@ package Matrix;
  */
 public class Matrix implements Iterable<float[]> {
 
-    // The matrix.
-    private float[][] mat;
+    // The backing array. Elements are stored row-major in one contiguous
+    // block, element ( i , j ) lives at data[offset + i * stride + j].
+    final float[] data;
+    // Where the first element lives & the distance between two rows.
+    final int offset, stride;
     // The row & column count.
-    private int r, c;
+    private final int r, c;
+    // Remembered derived values, null unless caching is on.
+    private MatrixCache cache;
+    // The matrix that owns the storage, this one unless this is a view.
+    private final Matrix root;
+    // How many writes have gone through this storage, only kept on the root.
+    private long writes;
     
     //<editor-fold defaultstate="collapsed" desc=" Constructors ">
     /**
@@ -18,24 +27,36 @@ public class Matrix implements Iterable<float[]> {
      * 
      * @param size The size. This will become the row & column count. 
      */
-    public Matrix(int size) { mat = new float[size][size]; r = size; c = size; }
+    public Matrix(int size) { this(size, size); }
     /**
      * Full explicit constructor. 
      * 
      * @param rows The amount of rows.
      * @param columns The amount of columns.
+     * 
+     * @throws ArithmeticException if a size is negative or rows * columns doesn't fit in an array.
      */
-    public Matrix(int rows, int columns) { mat = new float[rows][columns]; r = rows; c = columns; }
+    public Matrix(int rows, int columns) throws ArithmeticException { this(new float[elements(rows, columns)], 0, columns, rows, columns); }
     /**
      * 2D array constructor. Transforms a 2D array into a matrix.
      * 
      * @param data The 2D to use for this new matrix.
      */
     public Matrix(float[][] data) {
-        r = data.length; c = data[0].length;
-        this.mat = new float[r][c];
-        for (int i = 0; this.r > i; i++) for (int j = 0; this.c > j; j++) 
-            this.mat[i][j] = data[i][j];
+        this(data.length, data[0].length);
+        for (int i = 0; this.r > i; i++) 
+            System.arraycopy(data[i], 0, this.data, i * this.c, this.c);
+    }
+    /**
+     * Flat array constructor. Copies a row-major array into a new matrix.
+     * 
+     * @param rows The amount of rows.
+     * @param columns The amount of columns.
+     * @param data The row-major data, it must hold at least rows * columns values.
+     */
+    public Matrix(int rows, int columns, float[] data) {
+        this(rows, columns);
+        System.arraycopy(data, 0, this.data, 0, rows * columns);
     }
     
     /**
@@ -45,8 +66,48 @@ public class Matrix implements Iterable<float[]> {
      */
     public Matrix(Matrix copy) {
         this(copy.r, copy.c);
-        for (int i = 0; copy.r > i; i++) for (int j = 0; copy.c > j; j++) 
-            mat[i][j] = copy.mat[i][j];
+        if (copy.isContiguous()) System.arraycopy(copy.data, copy.offset, data, 0, r * c);
+        else for (int i = 0; copy.r > i; i++) 
+            System.arraycopy(copy.data, copy.offset + i * copy.stride, data, i * c, c);
+    }
+    
+    /**
+     * Storage constructor. The new matrix shares the array with whoever
+     * passed it in, nothing is copied.
+     * 
+     * @param data The backing array.
+     * @param offset Where element ( 0 , 0 ) lives in the array.
+     * @param stride The distance between the starts of two rows.
+     * @param rows The amount of rows.
+     * @param columns The amount of columns.
+     */
+    Matrix(float[] data, int offset, int stride, int rows, int columns) {
+        this.data = data; this.offset = offset; this.stride = stride; r = rows; c = columns;
+        root = this;
+    }
+    /**
+     * View constructor. The new matrix shares the storage of root, so its
+     * writes clear the caches of every matrix over that storage.
+     */
+    private Matrix(Matrix root, int offset, int stride, int rows, int columns) {
+        this.data = root.data; this.offset = offset; this.stride = stride; r = rows; c = columns;
+        this.root = root;
+    }
+    /**
+     * Wraps a row-major array without copying it. The matrix & the array 
+     * share elements, so only hand over arrays nobody else will write to.
+     * 
+     * @param rows The amount of rows.
+     * @param columns The amount of columns.
+     * @param data The row-major data, it must hold at least rows * columns values.
+     * @return A new Matrix backed by data.
+     * 
+     * @throws ArithmeticException if data is too short.
+     */
+    public static Matrix wrap(int rows, int columns, float[] data) throws ArithmeticException {
+        int n = elements(rows, columns);
+        if (n > data.length) throw new ArithmeticException("A " + rows + " x " + columns + " matrix needs " + n + " values, the array holds " + data.length + " ...");
+        return new Matrix(data, 0, columns, rows, columns);
     }
     //</editor-fold>
     
@@ -79,7 +140,7 @@ public class Matrix implements Iterable<float[]> {
         if (i > r - 1 || 0 > i) throw new ArrayIndexOutOfBoundsException("Row index, " + i + ", out of bounds!");
         if (j > c - 1 || 0 > j) throw new ArrayIndexOutOfBoundsException("Column index, " + j + ", out of bounds!");
         //If it's valid return the data.
-        return mat[i][j];
+        return data[offset + i * stride + j];
     }
     /**
      * Sets a value at some position in the matrix.
@@ -96,8 +157,176 @@ public class Matrix implements Iterable<float[]> {
         if (i > r - 1 || 0 > i) throw new ArrayIndexOutOfBoundsException("Row index, " + i + ", out of bounds!");
         if (j > c - 1 || 0 > j) throw new ArrayIndexOutOfBoundsException("Column index, " + j + ", out of bounds!");
         //If it's valid set the data
-        mat[i][j] = value;
+        data[offset + i * stride + j] = value;
+        this.invalidateCache();
     } 
+    
+    /**
+     * Gets a row of this matrix as a 1 x c Matrix that shares this
+     * matrix's storage. Writes to the row are visible in this matrix.
+     * 
+     * @param i The row position.
+     * @return A view of row i.
+     * 
+     * @throws ArrayIndexOutOfBoundsException If the row is outside the matrix.
+     */
+    public Matrix getRow(int i) throws ArrayIndexOutOfBoundsException {
+        if (i > r - 1 || 0 > i) throw new ArrayIndexOutOfBoundsException("Row index, " + i + ", out of bounds!");
+        return new Matrix(root, offset + i * stride, c, 1, c);
+    }
+    /**
+     * Gets a window of this matrix that shares this matrix's storage.
+     * Nothing is copied, writes to the view are visible in this matrix
+     * & every operation works on it like on any other Matrix.
+     *
+     * @param i The first row of the window.
+     * @param j The first column of the window.
+     * @param rows The amount of rows in the window.
+     * @param columns The amount of columns in the window.
+     * @return A rows x columns view starting at ( i , j ) .
+     *
+     * @throws ArrayIndexOutOfBoundsException If the window reaches outside the matrix.
+     */
+    public Matrix getView(int i, int j, int rows, int columns) throws ArrayIndexOutOfBoundsException {
+        if (0 > i || 0 > rows || i + rows > r) throw new ArrayIndexOutOfBoundsException("Row index, " + (0 > i ? i : i + rows) + ", out of bounds!");
+        if (0 > j || 0 > columns || j + columns > c) throw new ArrayIndexOutOfBoundsException("Column index, " + (0 > j ? j : j + columns) + ", out of bounds!");
+        return new Matrix(root, offset + i * stride + j, stride, rows, columns);
+    }
+    /**
+     * @return True if this matrix is a window onto a bigger backing array.
+     */
+    public boolean isView() { return offset != 0 || data.length != r * c; }
+    /**
+     * Copies a row of this matrix into a new array.
+     * 
+     * @param i The row position.
+     * @return A new array holding the values of row i.
+     * 
+     * @throws ArrayIndexOutOfBoundsException If the row is outside the matrix.
+     */
+    public float[] getRowArray(int i) throws ArrayIndexOutOfBoundsException {
+        if (i > r - 1 || 0 > i) throw new ArrayIndexOutOfBoundsException("Row index, " + i + ", out of bounds!");
+        float[] row = new float[c];
+        System.arraycopy(data, offset + i * stride, row, 0, c);
+        return row;
+    }
+    /**
+     * Copies this matrix into a new 2D array.
+     * 
+     * @return A new r x c array holding the values of this matrix.
+     */
+    public float[][] toArray() {
+        float[][] out = new float[r][c];
+        for (int i = 0; r > i; i++) System.arraycopy(data, offset + i * stride, out[i], 0, c);
+        return out;
+    }
+    
+    /**
+     * Copies this matrix into a new row-major array.
+     * 
+     * @return A new array of length r * c where element ( i , j ) is at i * c + j .
+     */
+    public float[] toFlatArray() {
+        float[] out = new float[r * c];
+        if (this.isContiguous()) System.arraycopy(data, offset, out, 0, r * c);
+        else for (int i = 0; r > i; i++) System.arraycopy(data, offset + i * stride, out, i * c, c);
+        return out;
+    }
+    
+    /**
+     * Widens this matrix to double precision. Nothing is lost.
+     *
+     * @return A new DMatrix with the same values.
+     */
+    public DMatrix toDMatrix() { return new DMatrix(this); }
+
+    /**
+     * @return True if the rows of this matrix sit back to back in the backing array.
+     */
+    boolean isContiguous() { return stride == c; }
+    /**
+     * Counts the elements of a rows x columns matrix, refusing sizes that 
+     * can't be held in one flat array.
+     * 
+     * @throws ArithmeticException if a size is negative or the count overflows.
+     */
+    static int elements(int rows, int columns) throws ArithmeticException {
+        if (0 > rows || 0 > columns) throw new ArithmeticException("Cannot make a " + rows + " x " + columns + " matrix, sizes must not be negative ...");
+        try {
+            return Math.multiplyExact(rows, columns);
+        } catch (ArithmeticException e) {
+            throw new ArithmeticException("Cannot make a " + rows + " x " + columns + " matrix, it has too many elements for one array ...");
+        }
+    }
+    //</editor-fold>
+    
+    //<editor-fold defaultstate="collapsed" desc=" Caching ">
+    /**
+     * Turns remembering of the norm, determinant, inverse & the LU,
+     * Cholesky & QR factors on or off. With it on, asking again for any
+     * of them, or solving again with this matrix, is free until this
+     * matrix changes. setValue, mutate & every in-place or Into operation
+     * clear the cache, including ones that write through a view or row
+     * of this matrix, or through the matrix a view was taken from.
+     * 
+     * @param on True to start caching, false to stop & drop everything cached.
+     */
+    public void setCaching(boolean on) {
+        if (!on) cache = null;
+        else if (cache == null) {
+            cache = new MatrixCache();
+            cache.version = root.writes;
+        }
+    }
+    /**
+     * @return True if this matrix remembers its derived values.
+     */
+    public boolean isCaching() { return cache != null; }
+    /**
+     * Forgets every cached value, here & in every matrix sharing this
+     * one's storage. Writes to the array passed to wrap() can't be seen,
+     * call this after those.
+     */
+    public void invalidateCache() {
+        root.writes++;
+        if (cache != null) cache.clear();
+    }
+    /**
+     * Gets the cache, first emptying it if anything sharing this matrix's
+     * storage has been written since it was filled.
+     *
+     * @return The cache, null unless caching is on.
+     */
+    private MatrixCache cache() {
+        MatrixCache k = cache;
+        if (k != null && k.version != root.writes) {
+            k.clear();
+            k.version = root.writes;
+        }
+        return k;
+    }
+    /**
+     * @return How many cached lookups found their value already computed.
+     */
+    public long getCacheHits() { return cache == null ? 0 : cache.hits; }
+    /**
+     * @return How many cached lookups had to compute their value.
+     */
+    public long getCacheMisses() { return cache == null ? 0 : cache.misses; }
+    /**
+     * Checks if any element of this matrix is also an element of o, which
+     * can only happen when both are views of the same array.
+     */
+    boolean overlaps(Matrix o) {
+        if (data != o.data || r == 0 || c == 0 || o.r == 0 || o.c == 0) return false;
+        // Two windows with the same row length overlap only if their row & column ranges both do.
+        if (stride == o.stride && stride > 0 && offset % stride + c <= stride && o.offset % stride + o.c <= stride) {
+            int r0 = offset / stride, c0 = offset % stride, r1 = o.offset / stride, c1 = o.offset % stride;
+            return r1 + o.r > r0 && r0 + r > r1 && c1 + o.c > c0 && c0 + c > c1;
+        }
+        long end = offset + (long) (r - 1) * stride + c, oEnd = o.offset + (long) (o.r - 1) * o.stride + o.c;
+        return oEnd > offset && end > o.offset;
+    }
     //</editor-fold>
     
     //<editor-fold defaultstate="collapsed" desc=" Simple Scalar Operations ">
@@ -107,12 +336,7 @@ public class Matrix implements Iterable<float[]> {
      * @param f The scalar to add.
      * @return A new Matrix where each element has had the value added.
      */
-    public Matrix add(float f) {
-        Matrix result = new Matrix(this);
-        for (int i = 0; this.r > i; i++) for (int j = 0; this.c > j; j++) 
-            result.mat[i][j] += f;
-        return result;
-    }
+    public Matrix add(float f) { return this.addInto(f, new Matrix(this.r, this.c)); }
     /**
      * Subtracts a scalar to each element in the matrix.
      * 
@@ -126,12 +350,7 @@ public class Matrix implements Iterable<float[]> {
      * @param f The scalar to scale by.
      * @return A new Matrix where each element has been scaled.
      */
-    public Matrix scale(float f) {
-        Matrix result = new Matrix(this);
-        for (int i = 0; this.r > i; i++) for (int j = 0; this.c > j; j++) 
-            result.mat[i][j] *= f;
-        return result;
-    }
+    public Matrix scale(float f) { return this.scaleInto(f, new Matrix(this.r, this.c)); }
     /**
      * Divides each element in the matrix by some scalar.
      * 
@@ -150,13 +369,7 @@ public class Matrix implements Iterable<float[]> {
      * 
      * @throws ArithmeticException if the two matrices are not equal in dimensions.
      */
-    public Matrix add(Matrix o) throws ArithmeticException {
-        if (!this.sizeEquals(o)) throw new ArithmeticException("Matrices must be the same size to add ...");
-        Matrix result = new Matrix(this);
-        for (int i = 0; this.r > i; i++) for (int j = 0; this.c > j; j++) 
-            result.mat[i][j] += o.mat[i][j];
-        return result;
-    }
+    public Matrix add(Matrix o) throws ArithmeticException { return this.addInto(o, new Matrix(this.r, this.c)); }
     /**
      * Subtracts two matrices. They must be of the same dimensions.
      * 
@@ -165,7 +378,7 @@ public class Matrix implements Iterable<float[]> {
      * 
      * @throws ArithmeticException if the two matrices are not equal in dimensions.
      */
-    public Matrix subtract(Matrix o) throws ArithmeticException { return this.add(o.negate()); }
+    public Matrix subtract(Matrix o) throws ArithmeticException { return this.subtractInto(o, new Matrix(this.r, this.c)); }
     /**
      * Multiplies two matrices together.
      * 
@@ -174,7 +387,96 @@ public class Matrix implements Iterable<float[]> {
      * 
      * @throws ArithmeticException if the column count of this Matrix is not equal to the row count of the other Matrix.
      */
-    public Matrix multiply(Matrix o) throws ArithmeticException { 
+    public Matrix multiply(Matrix o) throws ArithmeticException { return this.multiplyInto(o, new Matrix(this.r, o.c)); }
+    /**
+     * Multiplies two matrices together on the common fork/join pool.
+     * 
+     * @param o The other Matrix.
+     * @return A new Matrix with the calculated results.
+     * 
+     * @throws ArithmeticException if the column count of this Matrix is not equal to the row count of the other Matrix.
+     */
+    public Matrix multiplyParallel(Matrix o) throws ArithmeticException { 
+        return this.multiplyParallel(o, java.util.concurrent.ForkJoinPool.commonPool(), Gemm.PARALLEL_THRESHOLD);
+    }
+    /**
+     * Multiplies two matrices together by splitting the result into blocks
+     * and computing them on a fork/join pool.
+     * 
+     * @param o The other Matrix.
+     * @param pool The pool to run on.
+     * @param threshold The most multiply-adds a single task will do before it splits. 
+     *      Products smaller than this run on the calling thread.
+     * @return A new Matrix with the calculated results.
+     * 
+     * @throws ArithmeticException if the column count of this Matrix is not equal to the row count of the other Matrix.
+     */
+    public Matrix multiplyParallel(Matrix o, java.util.concurrent.ForkJoinPool pool, long threshold) throws ArithmeticException { 
+        this.checkMultiply(o);
+        Matrix result = new Matrix(this.r, o.c);
+        if ((long) this.r * o.c * this.c <= threshold) Gemm.multiply(this, o, result);
+        else Gemm.parallel(this, o, result, pool, threshold);
+        return result;
+    }
+    /**
+     * Multiplies two square matrices together with the Strassen-Winograd 
+     * algorithm, which does fewer multiplications than multiply() for large 
+     * inputs at the cost of some accuracy. Use strassenError() to see how 
+     * much accuracy is lost for a given input.
+     * 
+     * @param o The other Matrix.
+     * @return A new Matrix with the calculated results.
+     * 
+     * @throws ArithmeticException if the two matrices are not square & of equal size.
+     */
+    public Matrix multiplyStrassen(Matrix o) throws ArithmeticException {
+        return this.multiplyStrassen(o, Gemm.STRASSEN_CUTOFF);
+    }
+    /**
+     * Multiplies two square matrices together with the Strassen-Winograd 
+     * algorithm. The inputs are zero padded so they split evenly, and the
+     * recursion hands off to the blocked kernel once a block is at or 
+     * below the cutoff.
+     * 
+     * @param o The other Matrix.
+     * @param cutoff The largest block size that is multiplied classically.
+     * @return A new Matrix with the calculated results.
+     * 
+     * @throws ArithmeticException if the two matrices are not square & of equal size.
+     */
+    public Matrix multiplyStrassen(Matrix o, int cutoff) throws ArithmeticException {
+        if (this.r != this.c || !this.sizeEquals(o)) 
+            throw new ArithmeticException("Strassen multiplication needs two square matrices of equal size ...");
+        if (1 > cutoff) throw new ArithmeticException("Strassen cutoff must be at least 1 ... " + cutoff);
+        Matrix result = new Matrix(this.r, o.c);
+        Gemm.strassen(this, o, result, cutoff);
+        return result;
+    }
+    /**
+     * Measures how far the Strassen-Winograd product strays from the classic 
+     * product for these inputs. Both products are computed, so this costs
+     * more than either one.
+     * 
+     * @param o The other Matrix.
+     * @param cutoff The cutoff to pass to multiplyStrassen().
+     * @return The relative error, || strassen - classic || / || classic || .
+     * 
+     * @throws ArithmeticException if the two matrices are not square & of equal size.
+     */
+    public float strassenError(Matrix o, int cutoff) throws ArithmeticException {
+        Matrix classic = this.multiply(o);
+        float n = classic.norm();
+        float diff = this.multiplyStrassen(o, cutoff).subtract(classic).norm();
+        return n == 0 ? diff : diff / n;
+    }
+    /**
+     * Checks that this Matrix can be multiplied by another.
+     * 
+     * @param o The other Matrix.
+     * 
+     * @throws ArithmeticException if the column count of this Matrix is not equal to the row count of the other Matrix.
+     */
+    private void checkMultiply(Matrix o) throws ArithmeticException {
         // Can we actually multiply them?
         // The columns of this matrix must 
         // equal the rows of the other.
@@ -185,13 +487,6 @@ public class Matrix implements Iterable<float[]> {
                     "Column count of this matrix: " + this.c + "\n" +
                     "Row count of the other matrix: " + o.r + "\n"
                 );
-        Matrix result = new Matrix(this.r, o.c);
-        
-        for (int i = 0; this.r > i; i++) for (int j = 0; o.c > j; j++) 
-            for (int k = 0; this.c > k; k++) {
-                result.mat[i][j] += this.mat[i][k] * o.mat[k][j];
-            }
-        return result;
     }
     /**
      * Multiplies two matrices together using the Hadamard product.
@@ -203,9 +498,8 @@ public class Matrix implements Iterable<float[]> {
      */
     public Matrix hadamardProduct(Matrix o) throws ArithmeticException {
         if (!this.sizeEquals(o)) throw new ArithmeticException("Matrices must be the same size to calculate the Hadamard Product ...");
-        Matrix result = new Matrix(this);
-        for (int i = 0; this.r > i; i++) for (int j = 0; this.c > j; j++) 
-            result.mat[i][j] *= o.mat[i][j];
+        Matrix result = new Matrix(this.r, this.c);
+        ElementKernels.multiply(data, offset, stride, o.data, o.offset, o.stride, result.data, 0, c, r, c);
         return result;
     }
     /**
@@ -219,7 +513,8 @@ public class Matrix implements Iterable<float[]> {
      */
     public Matrix divide(Matrix o) throws ArithmeticException { 
         if (o.r != o.c) throw new ArithmeticException("Cannot divide by a non-square matrix ..."); 
-        return this.multiply(o.inverse()); 
+        // X = this * o^-1 is the solution of X * o = this, no inverse needed.
+        return o.solveRight(this); 
     }
     /**
      * Multiplies two matrices together using the Hadamard quotient.
@@ -231,13 +526,166 @@ public class Matrix implements Iterable<float[]> {
      */
     public Matrix hadamardquotient(Matrix o) throws ArithmeticException {
         if (!this.sizeEquals(o)) throw new ArithmeticException("Matrices must be the same size to calculate the Hadamard Product ...");
-        Matrix result = new Matrix(this);
-        for (int i = 0; this.r > i; i++) for (int j = 0; this.c > j; j++) 
-            result.mat[i][j] /= o.mat[i][j];
+        Matrix result = new Matrix(this.r, this.c);
+        ElementKernels.divide(data, offset, stride, o.data, o.offset, o.stride, result.data, 0, c, r, c);
         return result;
     }
     //</editor-fold>
     
+    //<editor-fold defaultstate="collapsed" desc=" Destination Operations ">
+    /**
+     * Adds a scalar to each element & writes the result into dest.
+     * dest may be this Matrix.
+     * 
+     * @param f The scalar to add.
+     * @param dest Where to write the result.
+     * @return dest.
+     * 
+     * @throws ArithmeticException if dest isn't the same size as this Matrix.
+     */
+    public Matrix addInto(float f, Matrix dest) throws ArithmeticException {
+        this.checkDestination(dest, this.r, this.c);
+        ElementKernels.add(data, offset, stride, f, dest.data, dest.offset, dest.stride, r, c);
+        dest.invalidateCache();
+        return dest;
+    }
+    /**
+     * Scales each element by a scalar & writes the result into dest.
+     * dest may be this Matrix.
+     * 
+     * @param f The scalar to scale by.
+     * @param dest Where to write the result.
+     * @return dest.
+     * 
+     * @throws ArithmeticException if dest isn't the same size as this Matrix.
+     */
+    public Matrix scaleInto(float f, Matrix dest) throws ArithmeticException {
+        this.checkDestination(dest, this.r, this.c);
+        ElementKernels.scale(data, offset, stride, f, dest.data, dest.offset, dest.stride, r, c);
+        dest.invalidateCache();
+        return dest;
+    }
+    /**
+     * Adds two matrices together & writes the result into dest.
+     * dest may be either operand.
+     * 
+     * @param o The other Matrix to add.
+     * @param dest Where to write the result.
+     * @return dest.
+     * 
+     * @throws ArithmeticException if the three matrices are not equal in dimensions.
+     */
+    public Matrix addInto(Matrix o, Matrix dest) throws ArithmeticException {
+        if (!this.sizeEquals(o)) throw new ArithmeticException("Matrices must be the same size to add ...");
+        this.checkDestination(dest, this.r, this.c);
+        ElementKernels.add(data, offset, stride, o.data, o.offset, o.stride, dest.data, dest.offset, dest.stride, r, c);
+        dest.invalidateCache();
+        return dest;
+    }
+    /**
+     * Subtracts another Matrix from this one & writes the result into dest.
+     * dest may be either operand.
+     * 
+     * @param o The subtrahend Matrix.
+     * @param dest Where to write the result.
+     * @return dest.
+     * 
+     * @throws ArithmeticException if the three matrices are not equal in dimensions.
+     */
+    public Matrix subtractInto(Matrix o, Matrix dest) throws ArithmeticException {
+        if (!this.sizeEquals(o)) throw new ArithmeticException("Matrices must be the same size to subtract ...");
+        this.checkDestination(dest, this.r, this.c);
+        ElementKernels.subtract(data, offset, stride, o.data, o.offset, o.stride, dest.data, dest.offset, dest.stride, r, c);
+        dest.invalidateCache();
+        return dest;
+    }
+    /**
+     * Multiplies two matrices together & writes the result into dest.
+     * dest must not overlap either operand, sibling views of one matrix are fine.
+     * 
+     * @param o The other Matrix.
+     * @param dest Where to write the result, it must be ( this rows ) x ( o columns ).
+     * @return dest.
+     * 
+     * @throws ArithmeticException if the matrices can't be multiplied, dest is 
+     *      the wrong size, or dest overlaps an operand.
+     */
+    public Matrix multiplyInto(Matrix o, Matrix dest) throws ArithmeticException {
+        this.checkMultiply(o);
+        this.checkDestination(dest, this.r, o.c);
+        if (dest.overlaps(this) || dest.overlaps(o)) 
+            throw new ArithmeticException("Cannot multiply into a matrix that shares storage with an operand ...");
+        for (int i = 0; dest.r > i; i++) 
+            java.util.Arrays.fill(dest.data, dest.offset + i * dest.stride, dest.offset + i * dest.stride + dest.c, 0.0f);
+        // Large products go through the cache blocked kernel.
+        Gemm.multiply(this, o, dest);
+        dest.invalidateCache();
+        return dest;
+    }
+    /**
+     * Transposes this Matrix into dest. dest must not overlap this Matrix.
+     * 
+     * @param dest Where to write the result, it must be ( this columns ) x ( this rows ).
+     * @return dest.
+     * 
+     * @throws ArithmeticException if dest is the wrong size or overlaps this Matrix.
+     */
+    public Matrix transposeInto(Matrix dest) throws ArithmeticException {
+        this.checkDestination(dest, this.c, this.r);
+        if (dest.overlaps(this)) throw new ArithmeticException("Cannot transpose into a matrix that shares storage with this one ...");
+        TransposeKernels.transpose(data, offset, stride, dest.data, dest.offset, dest.stride, this.r, this.c);
+        dest.invalidateCache();
+        return dest;
+    }
+    
+    /**
+     * Adds a scalar to each element of this Matrix in place.
+     * 
+     * @param f The scalar to add.
+     * @return This Matrix.
+     */
+    public Matrix addLocal(float f) { return this.addInto(f, this); }
+    /**
+     * Scales each element of this Matrix in place.
+     * 
+     * @param f The scalar to scale by.
+     * @return This Matrix.
+     */
+    public Matrix scaleLocal(float f) { return this.scaleInto(f, this); }
+    /**
+     * Adds another Matrix to this one in place.
+     * 
+     * @param o The other Matrix to add.
+     * @return This Matrix.
+     * 
+     * @throws ArithmeticException if the two matrices are not equal in dimensions.
+     */
+    public Matrix addLocal(Matrix o) throws ArithmeticException { return this.addInto(o, this); }
+    /**
+     * Subtracts another Matrix from this one in place.
+     * 
+     * @param o The subtrahend Matrix.
+     * @return This Matrix.
+     * 
+     * @throws ArithmeticException if the two matrices are not equal in dimensions.
+     */
+    public Matrix subtractLocal(Matrix o) throws ArithmeticException { return this.subtractInto(o, this); }
+    
+    /**
+     * Checks that a destination Matrix has the expected size.
+     * 
+     * @param dest The destination Matrix.
+     * @param rows The expected row count.
+     * @param columns The expected column count.
+     * 
+     * @throws ArithmeticException if dest is the wrong size.
+     */
+    private void checkDestination(Matrix dest, int rows, int columns) throws ArithmeticException {
+        if (dest.r != rows || dest.c != columns) 
+            throw new ArithmeticException("Destination matrix is " + dest.r + " x " + dest.c + ", expected " + rows + " x " + columns + " ...");
+    }
+    //</editor-fold>
+    
     //<editor-fold defaultstate="collapsed" desc=" Special Matrix Operations ">
     /**
      * Performs Gaussian elimination. Assumes the right half of this matrix is the identity or another matrix.
@@ -248,7 +696,7 @@ public class Matrix implements Iterable<float[]> {
      */
     public Matrix gaussianEliminate() throws ArithmeticException { 
         if (this.c % 2 == 1) throw new ArithmeticException("Cannot perform a guassian elimination without explicit column arguement if column count is odd ...");
-        return this.getLeftHalf().guassianEliminate(this.getRightHalf()); 
+        return this.getLeftHalfView().guassianEliminate(this.getRightHalfView()); 
     }
     /**
      * Performs Gaussian elimination with another augmented matrix, o.
@@ -259,40 +707,103 @@ public class Matrix implements Iterable<float[]> {
      * @throws ArithmeticException if the matrix is singular.
      */
     public Matrix guassianEliminate(Matrix o) throws ArithmeticException {
-        Matrix augmented = this.augment(o);
+        // Return a compact copy of the left half (the reduced original matrix)
+        // so the n x 2n augmented matrix can be collected.
+        return this.reduce(this.augment(o), null).getLeft(this.c);
+    }
+    /**
+     * Performs Gaussian elimination with another augmented matrix, o,
+     * splitting the row updates of each pivot across a pool.
+     * 
+     * @param o The other Matrix.
+     * @param pool The pool to run on.
+     * @return A new Matrix that's been reduced.
+     * 
+     * @throws ArithmeticException if the matrix is singular.
+     */
+    public Matrix guassianEliminate(Matrix o, java.util.concurrent.ForkJoinPool pool) throws ArithmeticException {
+        return this.reduce(this.augment(o), pool).getLeft(this.c);
+    }
+    /**
+     * Solves this * X = B for any amount of right hand sides with one 
+     * Gauss-Jordan pass over ( this | B1 | B2 | ... ) .
+     * 
+     * @param rhs The right hand sides, each with as many rows as this matrix.
+     * @return A new Matrix X for each right hand side, in the same order.
+     * 
+     * @throws ArithmeticException if the row counts don't match or the matrix is singular.
+     */
+    public Matrix[] gaussJordanSolve(Matrix... rhs) throws ArithmeticException { return this.gaussJordanSolve(null, rhs); }
+    /**
+     * Solves this * X = B for any amount of right hand sides with one 
+     * Gauss-Jordan pass over ( this | B1 | B2 | ... ) , splitting the row
+     * updates of each pivot across a pool.
+     * 
+     * @param pool The pool to run on, serial if null.
+     * @param rhs The right hand sides, each with as many rows as this matrix.
+     * @return A new Matrix X for each right hand side, in the same order.
+     * 
+     * @throws ArithmeticException if the row counts don't match or the matrix is singular.
+     */
+    public Matrix[] gaussJordanSolve(java.util.concurrent.ForkJoinPool pool, Matrix... rhs) throws ArithmeticException {
+        int nc = this.c;
+        for (Matrix b : rhs) {
+            if (b.r != this.r) throw new ArithmeticException("Cannot augment two matrices if they have different row counts ...");
+            nc += b.c;
+        }
+        Matrix augmented = new Matrix(this.r, nc);
+        for (int i = 0; this.r > i; i++) {
+            int at = i * nc;
+            System.arraycopy(data, offset + i * stride, augmented.data, at, this.c);
+            at += this.c;
+            for (Matrix b : rhs) {
+                System.arraycopy(b.data, b.offset + i * b.stride, augmented.data, at, b.c);
+                at += b.c;
+            }
+        }
+        this.reduce(augmented, pool);
+        // Copy each solution out so the augmented matrix can be collected.
+        Matrix[] out = new Matrix[rhs.length];
+        for (int k = 0, at = this.c; rhs.length > k; at += rhs[k].c, k++) out[k] = new Matrix(augmented.getView(0, at, this.r, rhs[k].c));
+        return out;
+    }
+    /**
+     * Runs Gauss-Jordan elimination with partial pivoting on an augmented 
+     * matrix whose left part is this matrix, in place.
+     * 
+     * @param augmented The contiguous ( this | o ) matrix to reduce.
+     * @param pool The pool to split the row updates on, serial if null.
+     * @return augmented.
+     * 
+     * @throws ArithmeticException if the matrix is singular.
+     */
+    private Matrix reduce(Matrix augmented, java.util.concurrent.ForkJoinPool pool) throws ArithmeticException {
+        if (this.c > this.r) throw new ArithmeticException("Cannot eliminate a matrix with more columns than rows ...");
+        float[] a = augmented.data;
+        int ac = augmented.c;
 
         for (int pivot = 0; this.c > pivot; pivot++) {
-            // 1. Find a nonzero pivot (swap rows if needed)
-            if (augmented.mat[pivot][pivot] == 0) {
-                boolean swapped = false;
-                for (int k = pivot + 1; k < this.r; k++) {
-                    if (augmented.mat[k][pivot] != 0) {
-                        float[] temp = augmented.mat[pivot];
-                        augmented.mat[pivot] = augmented.mat[k];
-                        augmented.mat[k] = temp;
-                        swapped = true;
-                        break;
-                    }
-                }
-                if (!swapped) throw new ArithmeticException("Matrix is singular, cannot eliminate ...");
+            int p = pivot * ac;
+            // 1. Swap the row with the largest entry in this column up
+            int best = pivot;
+            float max = Math.abs(a[p + pivot]);
+            for (int k = pivot + 1; this.r > k; k++) {
+                float v = Math.abs(a[k * ac + pivot]);
+                if (v > max) { max = v; best = k; }
             }
+            if (max == 0) throw new ArithmeticException("Matrix is singular, cannot eliminate ...");
+            if (best != pivot) swapRows(a, p, best * ac, ac);
 
-            // 2. Scale pivot row so pivot = 1
-            float pivotVal = augmented.mat[pivot][pivot];
-            for (int j = 0; augmented.c > j; j++) augmented.mat[pivot][j] /= pivotVal;
+            // 2. Scale pivot row so pivot = 1, everything left of it is already 0
+            float pivotVal = a[p + pivot];
+            for (int j = pivot; ac > j; j++) a[p + j] /= pivotVal;
 
             // 3. Eliminate other rows in this column
-            for (int i = 0; this.r > i; i++) {
-                if (i != pivot) {
-                    float factor = augmented.mat[i][pivot];
-                    for (int j = 0; augmented.c > j; j++) 
-                        augmented.mat[i][j] -= factor * augmented.mat[pivot][j];
-                }
-            }
+            if (pool == null) ElementKernels.eliminate(a, ac, pivot, 0, this.r, ac);
+            else ElementKernels.eliminateParallel(a, ac, pivot, this.r, ac, pool);
         }
 
-        // 4. Return the left half (the reduced original matrix)
-        return augmented.getLeft(this.c);
+        return augmented;
     }
     //</editor-fold>
     
@@ -306,46 +817,254 @@ public class Matrix implements Iterable<float[]> {
      * @throws ArithmeticException if this matrix isn't a square matrix.
      */
     public float determinant() throws ArithmeticException {
+        return this.cachedDeterminant(null);
+    }
+    /**
+     * Calculates the determinant of this matrix, running the factorization 
+     * on a fork/join pool.
+     * 
+     * @param pool The pool to run on.
+     * @return The determinant.
+     * 
+     * @throws ArithmeticException if this matrix isn't a square matrix.
+     */
+    public float determinant(java.util.concurrent.ForkJoinPool pool) throws ArithmeticException {
+        return this.cachedDeterminant(pool);
+    }
+    /**
+     * Looks the determinant up in the cache or calculates it.
+     */
+    private float cachedDeterminant(java.util.concurrent.ForkJoinPool pool) throws ArithmeticException {
+        MatrixCache cache = this.cache();
         if (r != c) throw new ArithmeticException("Cannot calculate the determinant of a non-square matrix ...");
-        
-        float[][] tempMat = new float[r][c];
-        for (int i = 0; r > i; i++) 
-            System.arraycopy(this.mat[i], 0, tempMat[i], 0, c);
-        
-        int n = r, swaps = 0;
-        float det = 1.0f;
-
-        for (int p = 0; n > p; p++) {
-            int maxRow = p;
-            for (int i = p + 1; n > i; i++) 
-                if (Math.abs(tempMat[i][p]) > Math.abs(tempMat[maxRow][p])) 
-                    maxRow = i;
-
-            if (maxRow != p) {
-                float[] temp = tempMat[p];
-                tempMat[p] = tempMat[maxRow];
-                tempMat[maxRow] = temp;
-                swaps++; // Track the number of swaps
-            }
-
-            // Determinant is 0 if [p][p] is close enough to 0
-            if (Math.abs(tempMat[p][p]) <= 1e-6f)  return 0.0f; 
-            
-            // Elimination loop to create an upper triangular matrix (Gaussian Elimination)
-            for (int i = p + 1; n > i; i++) {
-                float factor = tempMat[i][p] / tempMat[p][p];
-                for (int j = p; n > j; j++) 
-                    tempMat[i][j] -= factor * tempMat[p][j];
-            }
+        if (cache == null) return this.factorLU(pool, false).determinant();
+        if (cache.count(cache.hasDeterminant)) return cache.determinant;
+        cache.determinant = this.factorLU(pool, false).determinant();
+        cache.hasDeterminant = true;
+        return cache.determinant;
+    }
+    /**
+     * Solves this * X = rhs for X without forming an inverse. This matrix
+     * is factored once & every column of rhs is back substituted against it.
+     * Symmetric matrices with a positive diagonal are tried with Cholesky 
+     * first, other square matrices use LU. Tall matrices give the least 
+     * squares solution through QR. With caching on the factors are kept.
+     * 
+     * @param rhs The right hand sides, one per column.
+     * @return A new Matrix X.
+     * 
+     * @throws ArithmeticException if this matrix is wide, is singular, 
+     *      or rhs has the wrong row count.
+     */
+    public Matrix solve(Matrix rhs) throws ArithmeticException { return this.solve(rhs, null, false); }
+    /**
+     * Solves this * X = rhs for X like solve(rhs) does. LU factoring &
+     * the columns of rhs are spread over a fork/join pool, Cholesky & QR
+     * run on the calling thread.
+     * 
+     * @param rhs The right hand sides, one per column.
+     * @param pool The pool to run on.
+     * @return A new Matrix X.
+     * 
+     * @throws ArithmeticException if this matrix is wide, is singular, 
+     *      or rhs has the wrong row count.
+     */
+    public Matrix solve(Matrix rhs, java.util.concurrent.ForkJoinPool pool) throws ArithmeticException { return this.solve(rhs, pool, false); }
+    /**
+     * Solves X * this = rhs for X, which is rhs * this^-1 without forming 
+     * the inverse. This is done as this^T * X^T = rhs^T with the factors
+     * of this matrix, so they're shared with solve().
+     * 
+     * @param rhs The right hand sides, one per row.
+     * @return A new Matrix X.
+     * 
+     * @throws ArithmeticException if this matrix isn't square, is singular, 
+     *      or rhs has the wrong column count.
+     */
+    public Matrix solveRight(Matrix rhs) throws ArithmeticException {
+        if (rhs.c != this.r) throw new ArithmeticException("Right hand side must have " + this.r + " columns, it has " + rhs.c + " ...");
+        return this.solve(rhs.transpose(), null, true).transpose();
+    }
+    /**
+     * Solves X * this = rhs for X, factoring on & spreading the rows 
+     * of rhs over a fork/join pool.
+     * 
+     * @param rhs The right hand sides, one per row.
+     * @param pool The pool to run on.
+     * @return A new Matrix X.
+     * 
+     * @throws ArithmeticException if this matrix isn't square, is singular, 
+     *      or rhs has the wrong column count.
+     */
+    public Matrix solveRight(Matrix rhs, java.util.concurrent.ForkJoinPool pool) throws ArithmeticException {
+        if (rhs.c != this.r) throw new ArithmeticException("Right hand side must have " + this.r + " columns, it has " + rhs.c + " ...");
+        return this.solve(rhs.transpose(), pool, true).transpose();
+    }
+    /**
+     * Picks a factorization the same way for every solve overload.
+     * 
+     * @param rhs The right hand sides, one per column.
+     * @param pool The pool to run LU on, serial if null.
+     * @param transpose True to solve this^T * X = rhs instead.
+     * @return A new Matrix X.
+     */
+    private Matrix solve(Matrix rhs, java.util.concurrent.ForkJoinPool pool, boolean transpose) throws ArithmeticException {
+        if (this.r > this.c) {
+            if (transpose) throw new ArithmeticException("Cannot solve with the transpose of a non-square matrix ...");
+            return this.factorQR(true).solve(rhs);
         }
-
-        // The determinant of the triangular matrix is the product of the diagonal elements
-        for (int i = 0; n > i; i++) det *= tempMat[i][i];
-
-        // Adjust the sign based on the number of row swaps
-        if (swaps % 2 != 0) det = -det;
-
-        return det;
+        // Exactly symmetric, so the transpose is the same matrix.
+        if (this.isLikelySPD()) {
+            CholeskyDecomposition ch = this.factorCholesky(true);
+            if (ch.isSPD()) return ch.solve(rhs);
+        }
+        LUDecomposition lu = this.factorLU(pool, true);
+        if (transpose) return pool == null ? lu.solveTranspose(rhs) : lu.solveTranspose(rhs, pool);
+        return pool == null ? lu.solve(rhs) : lu.solve(rhs, pool);
+    }
+    /**
+     * Factors this matrix into P * A = L * U with partial pivoting. Hold on 
+     * to the result to reuse it for any amount of determinants, solves or 
+     * inverses against this matrix.
+     * 
+     * @return A new LUDecomposition of this Matrix.
+     * 
+     * @throws ArithmeticException if this matrix isn't a square matrix.
+     */
+    public LUDecomposition decomposeLU() throws ArithmeticException { return this.factorLU(null, true); }
+    /**
+     * Factors this matrix into P * A = L * U with partial pivoting, running 
+     * the trailing updates on a fork/join pool.
+     * 
+     * @param pool The pool to run on.
+     * @return A new LUDecomposition of this Matrix.
+     * 
+     * @throws ArithmeticException if this matrix isn't a square matrix.
+     */
+    public LUDecomposition decomposeLU(java.util.concurrent.ForkJoinPool pool) throws ArithmeticException { return this.factorLU(pool, true); }
+    /**
+     * Gets the LU factors from the cache or factors this matrix.
+     * 
+     * @param pool The pool to factor on, serial if null.
+     * @param count True if this lookup should show up in the counters.
+     * @return The LUDecomposition of this Matrix.
+     */
+    private LUDecomposition factorLU(java.util.concurrent.ForkJoinPool pool, boolean count) throws ArithmeticException {
+        MatrixCache cache = this.cache();
+        if (cache == null) return new LUDecomposition(this, pool);
+        boolean hit = cache.lu != null;
+        if (count) cache.count(hit);
+        if (!hit) cache.lu = new LUDecomposition(this, pool);
+        return cache.lu;
+    }
+    /**
+     * Factors this symmetric positive-definite matrix into L * L^T . Check 
+     * isSPD() on the result, it's false if this matrix wasn't positive-definite.
+     * 
+     * @return A new CholeskyDecomposition of this Matrix.
+     * 
+     * @throws ArithmeticException if this matrix isn't a square matrix.
+     */
+    public CholeskyDecomposition decomposeCholesky() throws ArithmeticException { return this.factorCholesky(true); }
+    /**
+     * Factors this matrix into Q * R with Householder reflections.
+     * 
+     * @return A new QRDecomposition of this Matrix.
+     * 
+     * @throws ArithmeticException if this matrix has more columns than rows.
+     */
+    public QRDecomposition decomposeQR() throws ArithmeticException { return this.factorQR(true); }
+    /**
+     * Gets the Cholesky factor from the cache or factors this matrix.
+     */
+    private CholeskyDecomposition factorCholesky(boolean count) throws ArithmeticException {
+        MatrixCache cache = this.cache();
+        if (cache == null) return new CholeskyDecomposition(this);
+        boolean hit = cache.cholesky != null;
+        if (count) cache.count(hit);
+        if (!hit) cache.cholesky = new CholeskyDecomposition(this);
+        return cache.cholesky;
+    }
+    /**
+     * Gets the QR factors from the cache or factors this matrix.
+     */
+    private QRDecomposition factorQR(boolean count) throws ArithmeticException {
+        MatrixCache cache = this.cache();
+        if (cache == null) return new QRDecomposition(this);
+        boolean hit = cache.qr != null;
+        if (count) cache.count(hit);
+        if (!hit) cache.qr = new QRDecomposition(this);
+        return cache.qr;
+    }
+    /**
+     * Factors this symmetric matrix into V * D * V^T .
+     *
+     * @return A new EigenDecomposition of this Matrix.
+     *
+     * @throws ArithmeticException if this matrix isn't symmetric.
+     */
+    public EigenDecomposition decomposeEigen() throws ArithmeticException { return new EigenDecomposition(this); }
+    /**
+     * Factors this matrix into U * S * V^T with one-sided Jacobi rotations.
+     *
+     * @return A new SingularValueDecomposition of this Matrix.
+     */
+    public SingularValueDecomposition decomposeSVD() { return new SingularValueDecomposition(this); }
+    /**
+     * Finds the k largest singular values & their vectors with a randomized
+     * projection. Much faster than the full decomposition when k is small.
+     *
+     * @param k How many singular values to keep.
+     * @return A new truncated SingularValueDecomposition of this Matrix.
+     *
+     * @throws ArithmeticException if k is less than 1 or more than the smaller dimension.
+     */
+    public SingularValueDecomposition decomposeSVD(int k) throws ArithmeticException { return SingularValueDecomposition.randomized(this, k); }
+    /**
+     * Finds the k largest singular values & their vectors with a randomized
+     * projection, running the big products on a pool.
+     *
+     * @param k How many singular values to keep.
+     * @param pool The pool to run on.
+     * @return A new truncated SingularValueDecomposition of this Matrix.
+     *
+     * @throws ArithmeticException if k is less than 1 or more than the smaller dimension.
+     */
+    public SingularValueDecomposition decomposeSVD(int k, java.util.concurrent.ForkJoinPool pool) throws ArithmeticException { return SingularValueDecomposition.randomized(this, k, pool); }
+    
+    /**
+     * Checks if this matrix equals its own transpose.
+     * 
+     * @return True if this matrix is square & symmetric.
+     */
+    public boolean isSymmetric() { return this.isSymmetric(0.0f); }
+    /**
+     * Checks if this matrix equals its own transpose, allowing each pair 
+     * to differ by eps relative to the larger of the two.
+     * 
+     * @param eps The relative tolerance.
+     * @return True if this matrix is square & symmetric within eps.
+     */
+    public boolean isSymmetric(float eps) {
+        if (r != c) return false;
+        for (int i = 0; r > i; i++) for (int j = 0; i > j; j++) {
+            float a = data[offset + i * stride + j], b = data[offset + j * stride + i];
+            if (Math.abs(a - b) > eps * Math.max(Math.abs(a), Math.abs(b))) return false;
+        }
+        return true;
+    }
+    /**
+     * Cheap test for positive-definiteness. Every SPD matrix is symmetric 
+     * with a positive diagonal, so anything failing this can skip Cholesky.
+     * Passing it doesn't guarantee Cholesky will succeed. Symmetry has to
+     * be exact, Cholesky only reads the lower triangle so any mismatch
+     * would have it solve a different system.
+     * 
+     * @return True if this matrix might be symmetric positive-definite.
+     */
+    private boolean isLikelySPD() {
+        for (int i = 0; r > i; i++) if (!(data[offset + i * stride + i] > 0.0f)) return false;
+        return this.isSymmetric();
     }
     /**
      * Gets the identity matrix of this matrix using it's size. 
@@ -368,7 +1087,7 @@ public class Matrix implements Iterable<float[]> {
     public static Matrix getIdentity(int n) {
         Matrix id = new Matrix(n);
         for (int i = 0; n > i; i++)
-            id.mat[i][i] = 1.0f;
+            id.data[i * n + i] = 1.0f;
         return id;
     }
     
@@ -381,10 +1100,12 @@ public class Matrix implements Iterable<float[]> {
      * @return The square of this Matrix's norm.
      */
     public float squareNorm() { 
-        float sumSqrs = 0.0f;
-        for (int i = 0; this.r > i; i++) for (int j = 0; this.c > j; j++) 
-            sumSqrs += this.mat[i][j] * this.mat[i][j];
-        return sumSqrs;
+        MatrixCache cache = this.cache();
+        if (cache == null) return ElementKernels.sumSquares(data, offset, stride, r, c);
+        if (cache.count(cache.hasSquareNorm)) return cache.squareNorm;
+        cache.squareNorm = ElementKernels.sumSquares(data, offset, stride, r, c);
+        cache.hasSquareNorm = true;
+        return cache.squareNorm;
     }
     /**
      * Calculates and returns the norm of this matrix.
@@ -408,12 +1129,29 @@ public class Matrix implements Iterable<float[]> {
      * 
      * @return A new Matrix that's the inverse of this Matrix.
      */
-    public Matrix inverse() {
+    public Matrix inverse() { return this.invert(null); }
+    /**
+     * Calculates the inverse of this matrix, factoring & substituting 
+     * on a fork/join pool.
+     * 
+     * @param pool The pool to run on.
+     * @return A new Matrix that's the inverse of this Matrix.
+     */
+    public Matrix inverse(java.util.concurrent.ForkJoinPool pool) { return this.invert(pool); }
+    /**
+     * Looks the inverse up in the cache or calculates it. The cached copy
+     * is never handed out, callers get their own.
+     */
+    private Matrix invert(java.util.concurrent.ForkJoinPool pool) {
+        MatrixCache cache = this.cache();
         if (r != c) throw new ArithmeticException("Cannot inverse a non-square matrix ...");
-        if (this.determinant() == 0) throw new ArithmeticException("Matrix is singular and cannot be inverted ...");
-        Matrix augmented = augment(this.getIdentity());
-        augmented = augmented.gaussianEliminate();
-        return augmented.getRightHalf();
+        if (cache != null && cache.count(cache.inverse != null)) return new Matrix(cache.inverse);
+        LUDecomposition lu = this.factorLU(pool, false);
+        if (lu.isSingular()) throw new ArithmeticException("Matrix is singular and cannot be inverted ...");
+        Matrix inv = pool == null ? lu.inverse() : lu.solve(Matrix.getIdentity(r), pool);
+        if (cache == null) return inv;
+        cache.inverse = inv;
+        return new Matrix(inv);
     }
     
     /**
@@ -429,15 +1167,11 @@ public class Matrix implements Iterable<float[]> {
         if (this.r != o.r) throw new ArithmeticException("Cannot augment two matrices if they have different row counts ...");
         int nc = this.c + o.c;
         Matrix augmented = new Matrix(this.r, nc);
-        for (int i = 0; this.r > i; i++) for (int j = 0; nc > j; j++) {
+        for (int i = 0; this.r > i; i++) {
             // Adding this matrix to the augmented matrix.
-            if (this.c > j) {
-                augmented.mat[i][j] = this.mat[i][j];
-            }
+            System.arraycopy(this.data, this.offset + i * this.stride, augmented.data, i * nc, this.c);
             // Adding the other matrix to the augmented matrix.
-            else {
-                augmented.mat[i][j] = o.mat[i][j - this.c];
-            }
+            System.arraycopy(o.data, o.offset + i * o.stride, augmented.data, i * nc + this.c, o.c);
         }
         return augmented;
     }
@@ -451,23 +1185,38 @@ public class Matrix implements Iterable<float[]> {
      * @throws ArithmeticException if this Matrix isn't able 
      *      to be halfed. (i.e., the columns mod 2 == 1)
      */
-    public Matrix getRightHalf() throws ArithmeticException {
-        if (this.c % 2 == 1) throw new ArithmeticException("Cannot half a matrix when the column count is odd ...");
-        return this.getRight(this.c / 2);
-    }
+    public Matrix getRightHalf() throws ArithmeticException { return new Matrix(this.getRightHalfView()); }
     /**
      * Creates a new Matrix and fills it with whatever is to 
      * the right of colStart.
      * 
      * @param colStart The column to start the split.
      * @return A new sub Matrix with whatever is to the right of colStart.
+     * 
+     * @throws ArrayIndexOutOfBoundsException if colStart is outside the matrix.
      */
-    public Matrix getRight(int colStart) {
-        Matrix right = new Matrix(this.r, colStart);
-        for (int i = 0; this.r > i; i++) for (int j = colStart; this.c > j; j++) 
-            right.mat[i][j - colStart] = this.mat[i][j];
-        return right;
+    public Matrix getRight(int colStart) throws ArrayIndexOutOfBoundsException { return new Matrix(this.getRightView(colStart)); }
+    /**
+     * Gets the right half of this matrix without copying it.
+     * 
+     * @return A view of the right half of this one.
+     * 
+     * @throws ArithmeticException if this Matrix isn't able 
+     *      to be halfed. (i.e., the columns mod 2 == 1)
+     */
+    public Matrix getRightHalfView() throws ArithmeticException {
+        if (this.c % 2 == 1) throw new ArithmeticException("Cannot half a matrix when the column count is odd ...");
+        return this.getRightView(this.c / 2);
     }
+    /**
+     * Gets whatever is to the right of colStart without copying it.
+     * 
+     * @param colStart The column to start the split.
+     * @return A view of whatever is to the right of colStart.
+     * 
+     * @throws ArrayIndexOutOfBoundsException if colStart is outside the matrix.
+     */
+    public Matrix getRightView(int colStart) throws ArrayIndexOutOfBoundsException { return this.getView(0, colStart, this.r, this.c - colStart); }
     
     /**
      * Creates a new Matrix and fills it with the left half 
@@ -478,23 +1227,38 @@ public class Matrix implements Iterable<float[]> {
      * @throws ArithmeticException if this Matrix isn't able 
      *      to be halfed. (i.e., the columns mod 2 == 1)
      */
-    public Matrix getLeftHalf() throws ArithmeticException {
-        if (this.c % 2 == 1) throw new ArithmeticException("Cannot half a matrix when the column count is odd ...");
-        return this.getLeft(this.c / 2);
-    } 
+    public Matrix getLeftHalf() throws ArithmeticException { return new Matrix(this.getLeftHalfView()); } 
     /**
      * Creates a new Matrix and fills it with whatever is to 
      * the left of colEnd.
      * 
      * @param colEnd The column to end the split.
      * @return A new sub Matrix with whatever is to the left of colEnd.
+     * 
+     * @throws ArrayIndexOutOfBoundsException if colEnd is outside the matrix.
+     */
+    public Matrix getLeft(int colEnd) throws ArrayIndexOutOfBoundsException { return new Matrix(this.getLeftView(colEnd)); }
+    /**
+     * Gets the left half of this matrix without copying it.
+     * 
+     * @return A view of the left half of this one.
+     * 
+     * @throws ArithmeticException if this Matrix isn't able 
+     *      to be halfed. (i.e., the columns mod 2 == 1)
      */
-    public Matrix getLeft(int colEnd) {
-        Matrix left = new Matrix(this.r, colEnd);
-        for (int i = 0; this.r > i; i++) for (int j = 0; colEnd > j; j++) 
-            left.mat[i][j] = this.mat[i][j];
-        return left;
+    public Matrix getLeftHalfView() throws ArithmeticException {
+        if (this.c % 2 == 1) throw new ArithmeticException("Cannot half a matrix when the column count is odd ...");
+        return this.getLeftView(this.c / 2);
     }
+    /**
+     * Gets whatever is to the left of colEnd without copying it.
+     * 
+     * @param colEnd The column to end the split.
+     * @return A view of whatever is to the left of colEnd.
+     * 
+     * @throws ArrayIndexOutOfBoundsException if colEnd is outside the matrix.
+     */
+    public Matrix getLeftView(int colEnd) throws ArrayIndexOutOfBoundsException { return this.getView(0, 0, this.r, colEnd); }
     
     /**
      * Calculates a new normalized Matrix using this one.
@@ -503,31 +1267,137 @@ public class Matrix implements Iterable<float[]> {
      */
     public Matrix normalize() {
         float n = this.norm();
-        Matrix normalized = new Matrix(this.r, this.c);
-        for (int i = 0; i < this.r; i++) for (int j = 0; j < this.c; j++) 
-            normalized.setValue(i, j, this.mat[i][j] / n);
+        Matrix normalized = new Matrix(this);
+        float[] nd = normalized.data;
+        for (int k = 0, len = r * c; len > k; k++) nd[k] /= n;
         return normalized;
     }
     
+    /**
+     * Starts a lazy expression over this matrix. Chain operations on it &
+     * call evaluate() to run them all in one fused pass.
+     *
+     * @return A MatrixExpr that reads this matrix.
+     */
+    public MatrixExpr lazy() { return MatrixExpr.of(this); }
+
     /**
      * @return A new Matrix that is this Matrix but flipped over the diagonal.
      */
-    public Matrix transpose() {
-        Matrix transposed = new Matrix(this.c, this.r);
-        for (int i = 0; this.r > i; i++) for (int j = 0; this.c > j; j++) 
-            transposed.mat[j][i] = this.mat[i][j];
-        return transposed;
+    public Matrix transpose() { return this.transposeInto(new Matrix(this.c, this.r)); }
+    /**
+     * Transposes this matrix on the common pool.
+     * 
+     * @return A new Matrix that is this Matrix but flipped over the diagonal.
+     */
+    public Matrix transposeParallel() { return this.transposeParallel(java.util.concurrent.ForkJoinPool.commonPool()); }
+    /**
+     * Transposes this matrix on a pool.
+     * 
+     * @param pool The pool to run on.
+     * @return A new Matrix that is this Matrix but flipped over the diagonal.
+     */
+    public Matrix transposeParallel(java.util.concurrent.ForkJoinPool pool) {
+        Matrix dest = new Matrix(this.c, this.r);
+        TransposeKernels.transposeParallel(data, offset, stride, dest.data, 0, this.r, this.r, this.c, pool);
+        return dest;
+    }
+    /**
+     * Flips this square matrix over the diagonal without a second matrix.
+     * 
+     * @return This matrix.
+     * 
+     * @throws ArithmeticException if this matrix isn't square.
+     */
+    public Matrix transposeLocal() throws ArithmeticException {
+        if (r != c) throw new ArithmeticException("Cannot transpose a non-square matrix in place ...");
+        TransposeKernels.transposeSquare(data, offset, stride, r);
+        this.invalidateCache();
+        return this;
+    }
+    /**
+     * Flips this square matrix over the diagonal without a second matrix, on a pool.
+     * 
+     * @param pool The pool to run on.
+     * @return This matrix.
+     * 
+     * @throws ArithmeticException if this matrix isn't square.
+     */
+    public Matrix transposeLocalParallel(java.util.concurrent.ForkJoinPool pool) throws ArithmeticException {
+        if (r != c) throw new ArithmeticException("Cannot transpose a non-square matrix in place ...");
+        TransposeKernels.transposeSquareParallel(data, offset, stride, r, pool);
+        this.invalidateCache();
+        return this;
     }
     
-    public void mutate(java.util.function.Function<Float, Float> mutator) {
-        for (int i = 0; this.r > i; i++) for (int j = 0; this.c > j; j++) 
-            this.mat[i][j] = mutator.apply(this.mat[i][j]);
+    /**
+     * Replaces every element of this matrix with mutator( element ) .
+     *
+     * @param mutator The function to apply.
+     */
+    public void mutate(FloatUnaryOperator mutator) {
+        ElementKernels.map(data, offset, stride, 0, r, c, mutator);
+        this.invalidateCache();
+    }
+    /**
+     * Replaces every element of this matrix with mutator( i , j , element ) .
+     *
+     * @param mutator The function to apply.
+     */
+    public void mutate(IndexedFloatOperator mutator) {
+        ElementKernels.map(data, offset, stride, 0, r, c, mutator);
+        this.invalidateCache();
+    }
+    public Matrix mutateCopy(FloatUnaryOperator mutator) {
+        Matrix copy = new Matrix(this);
+               copy.mutate(mutator);
+        return copy;
     }
-    public Matrix mutateCopy(java.util.function.Function<Float, Float> mutator) {
+    public Matrix mutateCopy(IndexedFloatOperator mutator) {
         Matrix copy = new Matrix(this);
                copy.mutate(mutator);
         return copy;
     }
+    /**
+     * Mutates this matrix on the common fork/join pool, splitting the rows
+     * between tasks. The mutator must be safe to call from several threads.
+     *
+     * @param mutator The function to apply.
+     */
+    public void mutateParallel(FloatUnaryOperator mutator) {
+        this.mutateParallel(mutator, java.util.concurrent.ForkJoinPool.commonPool());
+    }
+    /**
+     * Mutates this matrix on a fork/join pool, splitting the rows between
+     * tasks. The mutator must be safe to call from several threads.
+     *
+     * @param mutator The function to apply.
+     * @param pool The pool to run on.
+     */
+    public void mutateParallel(FloatUnaryOperator mutator, java.util.concurrent.ForkJoinPool pool) {
+        ElementKernels.mapParallel(data, offset, stride, r, c, mutator, pool);
+        this.invalidateCache();
+    }
+    /**
+     * Mutates this matrix with an indexed mutator on the common fork/join
+     * pool. The mutator must be safe to call from several threads.
+     *
+     * @param mutator The function to apply.
+     */
+    public void mutateParallel(IndexedFloatOperator mutator) {
+        this.mutateParallel(mutator, java.util.concurrent.ForkJoinPool.commonPool());
+    }
+    /**
+     * Mutates this matrix with an indexed mutator on a fork/join pool. The
+     * mutator must be safe to call from several threads.
+     *
+     * @param mutator The function to apply.
+     * @param pool The pool to run on.
+     */
+    public void mutateParallel(IndexedFloatOperator mutator, java.util.concurrent.ForkJoinPool pool) {
+        ElementKernels.mapParallel(data, offset, stride, r, c, mutator, pool);
+        this.invalidateCache();
+    }
     //</editor-fold>
     
     //<editor-fold defaultstate="collapsed" desc=" String Methods ">
@@ -535,7 +1405,7 @@ public class Matrix implements Iterable<float[]> {
     public String toString() {
         StringBuilder sb = new StringBuilder();
         for (int i = 0; i < this.r; i++) {
-            for (int j = 0; j < this.c; j++) sb.append(String.format("%8.3f", this.mat[i][j]));
+            for (int j = 0; j < this.c; j++) sb.append(String.format("%8.3f", data[offset + i * stride + j]));
             sb.append("\n");
         }
         return sb.toString();
@@ -558,8 +1428,12 @@ public class Matrix implements Iterable<float[]> {
      * @return True if they're equal, false if not.
      */
     public boolean equals(Matrix o) {
-        for (int i = 0; this.r > i; i++) for (int j = 0; this.c > j; j++) 
-            if (this.mat[i][j] != o.mat[i][j]) return false;
+        if (!this.sizeEquals(o)) return false;
+        for (int i = 0; this.r > i; i++) {
+            int ti = this.offset + i * this.stride, oi = o.offset + i * o.stride;
+            for (int j = 0; this.c > j; j++) 
+                if (this.data[ti + j] != o.data[oi + j]) return false;
+        }
         return true;
     }
     //</editor-fold>  
@@ -567,10 +1441,18 @@ public class Matrix implements Iterable<float[]> {
     //<editor-fold defaultstate="collapsed" desc=" Overrides ">
     @Override
     public int hashCode() {
-        int hash = java.util.Arrays.deepHashCode(mat);
+        int hash = 1;
+        for (int i = 0; r > i; i++) {
+            int ti = offset + i * stride;
+            for (int j = 0; c > j; j++) hash = 31 * hash + Float.floatToIntBits(data[ti + j]);
+        }
         return hash ^ (31 * r + c);
     }
     
+    /**
+     * Iterates over copies of each row. Use getRow(int) for a
+     * row that writes through to this matrix.
+     */
     @Override
     public java.util.Iterator<float[]> iterator() {
         return new java.util.Iterator<float[]>() {
@@ -580,9 +1462,30 @@ public class Matrix implements Iterable<float[]> {
             public boolean hasNext() { return i < r; }
 
             @Override
-            public float[] next() { return mat[i++]; }
+            public float[] next() { 
+                if (i >= r) throw new java.util.NoSuchElementException();
+                return getRowArray(i++); 
+            }
         };
     }
     //</editor-fold>  
     
+    //<editor-fold defaultstate="collapsed" desc=" Helpers ">
+    /**
+     * Swaps two rows of a flat array in place.
+     * 
+     * @param a The array.
+     * @param p The start of the first row.
+     * @param q The start of the second row.
+     * @param len The row length.
+     */
+    static void swapRows(float[] a, int p, int q, int len) {
+        for (int j = 0; len > j; j++) {
+            float temp = a[p + j];
+            a[p + j] = a[q + j];
+            a[q + j] = temp;
+        }
+    }
+    //</editor-fold>  
+    
 }
@@ -0,0 +1,54 @@
+package Matrix;
+
+/**
+ * Derived values remembered by a Matrix with caching turned on. Matrix
+ * clears this whenever it writes to its own elements, or on lookup once
+ * a view sharing its storage has written to it. The hit & miss counters
+ * survive the clear.
+ *
+ * @author Harrison Davis
+ */
+final class MatrixCache {
+
+    // The sum of the squared elements, valid if hasSquareNorm.
+    float squareNorm;
+    boolean hasSquareNorm;
+    // The determinant, valid if hasDeterminant.
+    float determinant;
+    boolean hasDeterminant;
+    // The factors & the inverse, null until asked for. A Cholesky that
+    // found the matrix isn't positive-definite is kept too, so it isn't retried.
+    LUDecomposition lu;
+    CholeskyDecomposition cholesky;
+    QRDecomposition qr;
+    Matrix inverse;
+    // How many lookups found a value & how many had to compute one.
+    long hits, misses;
+    // The write count of the matrix's storage when these values were good.
+    long version;
+
+    /**
+     * Forgets every value but keeps the counters.
+     */
+    void clear() {
+        hasSquareNorm = false;
+        hasDeterminant = false;
+        lu = null;
+        cholesky = null;
+        qr = null;
+        inverse = null;
+    }
+
+    /**
+     * Counts a lookup.
+     *
+     * @param hit True if the value was already known.
+     * @return hit.
+     */
+    boolean count(boolean hit) {
+        if (hit) hits++;
+        else misses++;
+        return hit;
+    }
+
+}
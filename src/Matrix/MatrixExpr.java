@@ -0,0 +1,359 @@
+package Matrix;
+
+/**
+ * A lazy matrix expression. Building one only records the operations,
+ * nothing is computed until evaluate() is called. Evaluation then runs
+ * every element-wise step in one pass over the output, a chunk of a row
+ * at a time, so a chain like a.lazy().add(b).scale(k) makes no full size
+ * temporaries. One product in the expression is written straight into
+ * the output a panel of rows at a time, and the element-wise steps on top
+ * of it (bias, scale, activation ...) run on each panel while it's still
+ * in cache.
+ *
+ * @author Harrison Davis
+ */
+public abstract class MatrixExpr {
+
+    // How many elements of a row are evaluated at once.
+    static final int CHUNK = 512;
+    // How many rows of a fused product are computed before its epilogue runs.
+    static final int PANEL_ROWS = 64;
+
+    // The size of the result.
+    final int r, c;
+
+    private MatrixExpr(int rows, int columns) { r = rows; c = columns; }
+
+    //<editor-fold defaultstate="collapsed" desc=" Builders ">
+    /**
+     * Starts an expression from a matrix. The matrix is read when the
+     * expression is evaluated, not now.
+     *
+     * @param m The matrix.
+     * @return A leaf expression over m.
+     */
+    public static MatrixExpr of(Matrix m) { return new Leaf(m); }
+
+    /**
+     * @param o The other expression.
+     * @return this + o .
+     *
+     * @throws ArithmeticException if the two are not equal in dimensions.
+     */
+    public MatrixExpr add(MatrixExpr o) throws ArithmeticException { return new Binary(Binary.ADD, this, o); }
+    public MatrixExpr add(Matrix o) throws ArithmeticException { return this.add(of(o)); }
+    /**
+     * @param o The subtrahend expression.
+     * @return this - o .
+     *
+     * @throws ArithmeticException if the two are not equal in dimensions.
+     */
+    public MatrixExpr subtract(MatrixExpr o) throws ArithmeticException { return new Binary(Binary.SUBTRACT, this, o); }
+    public MatrixExpr subtract(Matrix o) throws ArithmeticException { return this.subtract(of(o)); }
+    /**
+     * @param o The other expression.
+     * @return The Hadamard product of this & o.
+     *
+     * @throws ArithmeticException if the two are not equal in dimensions.
+     */
+    public MatrixExpr hadamardProduct(MatrixExpr o) throws ArithmeticException { return new Binary(Binary.MULTIPLY, this, o); }
+    public MatrixExpr hadamardProduct(Matrix o) throws ArithmeticException { return this.hadamardProduct(of(o)); }
+    /**
+     * @param o The other expression.
+     * @return The Hadamard quotient of this & o.
+     *
+     * @throws ArithmeticException if the two are not equal in dimensions.
+     */
+    public MatrixExpr hadamardquotient(MatrixExpr o) throws ArithmeticException { return new Binary(Binary.DIVIDE, this, o); }
+    public MatrixExpr hadamardquotient(Matrix o) throws ArithmeticException { return this.hadamardquotient(of(o)); }
+    /**
+     * Adds a 1 x c row to every row, like a bias.
+     *
+     * @param row The row to add.
+     * @return this + row, broadcast down the rows.
+     *
+     * @throws ArithmeticException if row isn't 1 x c.
+     */
+    public MatrixExpr addRow(Matrix row) throws ArithmeticException {
+        if (row.getRows() != 1 || row.getColumns() != c)
+            throw new ArithmeticException("Row must be 1 x " + c + ", it's " + row.getRows() + " x " + row.getColumns() + " ...");
+        // A row stride of zero repeats the same row for every i.
+        return this.add(new Leaf(new Matrix(row.data, row.offset, 0, r, c)));
+    }
+    /**
+     * @param o The other expression.
+     * @return this * o .
+     *
+     * @throws ArithmeticException if the column count of this is not equal to the row count of o.
+     */
+    public MatrixExpr multiply(MatrixExpr o) throws ArithmeticException { return new Product(this, o); }
+    public MatrixExpr multiply(Matrix o) throws ArithmeticException { return this.multiply(of(o)); }
+    /**
+     * @param f The scalar to add.
+     * @return this + f .
+     */
+    public MatrixExpr add(float f) { return new Scalar(Scalar.ADD, this, f); }
+    /**
+     * @param f The scalar to subtract.
+     * @return this - f .
+     */
+    public MatrixExpr subtract(float f) { return this.add(-f); }
+    /**
+     * @param f The scalar to scale by.
+     * @return this * f .
+     */
+    public MatrixExpr scale(float f) { return new Scalar(Scalar.SCALE, this, f); }
+    /**
+     * @return -this .
+     */
+    public MatrixExpr negate() { return this.scale(-1.0f); }
+    /**
+     * @param mutator The function to apply to every element.
+     * @return mutator( this ) .
+     */
+    public MatrixExpr map(FloatUnaryOperator mutator) { return new Map(this, mutator); }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" Getters ">
+    /**
+     * @return The row count of the result.
+     */
+    public int getRows() { return r; }
+    /**
+     * @return The column count of the result.
+     */
+    public int getColumns() { return c; }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" Evaluation ">
+    /**
+     * Evaluates this expression into a new Matrix.
+     *
+     * @return A new Matrix holding the result.
+     */
+    public Matrix evaluate() { return this.evaluateInto(new Matrix(r, c)); }
+    /**
+     * Evaluates this expression into dest. dest may be one of the matrices
+     * the expression reads, as long as it's read as a whole & not through a
+     * different view of the same storage.
+     *
+     * @param dest Where to write the result, it must be r x c.
+     * @return dest.
+     *
+     * @throws ArithmeticException if dest is the wrong size or overlaps an input in a way that can't be evaluated in place.
+     */
+    public Matrix evaluateInto(Matrix dest) throws ArithmeticException {
+        if (dest.getRows() != r || dest.getColumns() != c)
+            throw new ArithmeticException("Destination matrix is " + dest.getRows() + " x " + dest.getColumns() + ", expected " + r + " x " + c + " ...");
+        boolean aliased = this.reads(dest, true);
+        dest.invalidateCache();
+
+        // Products are fused into dest when nothing else reads it, any others are computed up front.
+        Product fused = aliased ? null : this.firstProduct();
+        MatrixExpr plan = this.materialize(fused, dest);
+        float[][] scratch = new float[plan.height()][CHUNK];
+
+        if (fused == null) { plan.run(dest, 0, r, scratch); return dest; }
+
+        Matrix a = fused.left.evaluateOperand(), b = fused.right.evaluateOperand();
+        int k = a.getColumns();
+        for (int i0 = 0; r > i0; i0 += PANEL_ROWS) {
+            int rows = Math.min(PANEL_ROWS, r - i0);
+            for (int i = i0; i0 + rows > i; i++)
+                java.util.Arrays.fill(dest.data, dest.offset + i * dest.stride, dest.offset + i * dest.stride + c, 0.0f);
+            Gemm.multiply(a.data, a.offset + i0 * a.stride, a.stride, b.data, b.offset, b.stride,
+                          dest.data, dest.offset + i0 * dest.stride, dest.stride, rows, c, k);
+            // The epilogue, if the product isn't the whole expression.
+            if (plan.getClass() != Leaf.class) plan.run(dest, i0, rows, scratch);
+        }
+        return dest;
+    }
+
+    /**
+     * Writes rows [ i0 , i0 + rows ) of this expression into dest, a chunk at a time.
+     */
+    private void run(Matrix dest, int i0, int rows, float[][] scratch) {
+        for (int i = i0; i0 + rows > i; i++) {
+            int di = dest.offset + i * dest.stride;
+            for (int j0 = 0; c > j0; j0 += CHUNK)
+                this.eval(i, j0, Math.min(CHUNK, c - j0), dest.data, di + j0, scratch, 0);
+        }
+    }
+
+    /**
+     * Computes elements ( i , j0 ) through ( i , j0 + len - 1 ) into out.
+     *
+     * @param i The row.
+     * @param j0 The first column.
+     * @param len How many elements, at most CHUNK.
+     * @param out Where to write.
+     * @param oo Where in out to write.
+     * @param scratch One CHUNK sized buffer per level of the tree.
+     * @param depth The level of this node.
+     */
+    abstract void eval(int i, int j0, int len, float[] out, int oo, float[][] scratch, int depth);
+    /**
+     * @return How many scratch buffers evaluating this needs.
+     */
+    abstract int height();
+    /**
+     * @return True if any leaf reads m's storage.
+     *
+     * @throws ArithmeticException if strict & a leaf reads it through a different view.
+     */
+    abstract boolean reads(Matrix m, boolean strict) throws ArithmeticException;
+    /**
+     * @return The first product found, or null.
+     */
+    abstract Product firstProduct();
+    /**
+     * Replaces every product with a leaf. The fused product reads from
+     * dest, the rest are computed now.
+     */
+    abstract MatrixExpr materialize(Product fused, Matrix dest);
+
+    /**
+     * @return The value of this expression as a matrix, without copying leaves.
+     */
+    Matrix evaluateOperand() { return this.evaluate(); }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" Nodes ">
+    private static final class Leaf extends MatrixExpr {
+        final Matrix m;
+
+        Leaf(Matrix m) { super(m.getRows(), m.getColumns()); this.m = m; }
+
+        @Override
+        void eval(int i, int j0, int len, float[] out, int oo, float[][] scratch, int depth) {
+            int src = m.offset + i * m.stride + j0;
+            if (out != m.data || oo != src) System.arraycopy(m.data, src, out, oo, len);
+        }
+        @Override int height() { return 0; }
+        @Override
+        boolean reads(Matrix o, boolean strict) throws ArithmeticException {
+            if (m.data != o.data) return false;
+            if (strict && (m.offset != o.offset || m.stride != o.stride))
+                throw new ArithmeticException("Cannot evaluate into a matrix that overlaps an input through a different view ...");
+            return true;
+        }
+        @Override Product firstProduct() { return null; }
+        @Override MatrixExpr materialize(Product fused, Matrix dest) { return this; }
+        @Override Matrix evaluateOperand() { return m; }
+    }
+
+    private static final class Binary extends MatrixExpr {
+        static final int ADD = 0, SUBTRACT = 1, MULTIPLY = 2, DIVIDE = 3;
+        final int op;
+        final MatrixExpr left, right;
+
+        Binary(int op, MatrixExpr left, MatrixExpr right) throws ArithmeticException {
+            super(left.r, left.c);
+            if (left.r != right.r || left.c != right.c)
+                throw new ArithmeticException("Matrices must be the same size for element-wise operations ... "
+                                              + left.r + " x " + left.c + " != " + right.r + " x " + right.c);
+            this.op = op; this.left = left; this.right = right;
+        }
+
+        @Override
+        void eval(int i, int j0, int len, float[] out, int oo, float[][] scratch, int depth) {
+            float[] y; int yo;
+            // Leaves on the right are read in place instead of copied.
+            if (right instanceof Leaf) {
+                Matrix m = ((Leaf) right).m;
+                y = m.data; yo = m.offset + i * m.stride + j0;
+                if (y == out) {
+                    // right is dest itself, grab it before the left side overwrites it.
+                    System.arraycopy(y, yo, scratch[depth], 0, len);
+                    y = scratch[depth]; yo = 0;
+                }
+            } else {
+                y = scratch[depth]; yo = 0;
+                right.eval(i, j0, len, y, 0, scratch, depth + 1);
+            }
+            left.eval(i, j0, len, out, oo, scratch, depth + 1);
+            switch (op) {
+                case ADD:      ElementKernels.add(out, oo, y, yo, out, oo, len); break;
+                case SUBTRACT: ElementKernels.subtract(out, oo, y, yo, out, oo, len); break;
+                case MULTIPLY: ElementKernels.multiply(out, oo, y, yo, out, oo, len); break;
+                default:       ElementKernels.divide(out, oo, y, yo, out, oo, len); break;
+            }
+        }
+        @Override int height() { return 1 + Math.max(left.height(), right.height()); }
+        @Override boolean reads(Matrix m, boolean strict) { return left.reads(m, strict) | right.reads(m, strict); }
+        @Override Product firstProduct() { Product p = left.firstProduct(); return p != null ? p : right.firstProduct(); }
+        @Override
+        MatrixExpr materialize(Product fused, Matrix dest) {
+            return new Binary(op, left.materialize(fused, dest), right.materialize(fused, dest));
+        }
+    }
+
+    private static final class Scalar extends MatrixExpr {
+        static final int ADD = 0, SCALE = 1;
+        final int op;
+        final MatrixExpr e;
+        final float f;
+
+        Scalar(int op, MatrixExpr e, float f) { super(e.r, e.c); this.op = op; this.e = e; this.f = f; }
+
+        @Override
+        void eval(int i, int j0, int len, float[] out, int oo, float[][] scratch, int depth) {
+            e.eval(i, j0, len, out, oo, scratch, depth);
+            if (op == ADD) ElementKernels.add(out, oo, f, out, oo, len);
+            else ElementKernels.scale(out, oo, f, out, oo, len);
+        }
+        @Override int height() { return e.height(); }
+        @Override boolean reads(Matrix m, boolean strict) { return e.reads(m, strict); }
+        @Override Product firstProduct() { return e.firstProduct(); }
+        @Override MatrixExpr materialize(Product fused, Matrix dest) { return new Scalar(op, e.materialize(fused, dest), f); }
+    }
+
+    private static final class Map extends MatrixExpr {
+        final MatrixExpr e;
+        final FloatUnaryOperator f;
+
+        Map(MatrixExpr e, FloatUnaryOperator f) { super(e.r, e.c); this.e = e; this.f = f; }
+
+        @Override
+        void eval(int i, int j0, int len, float[] out, int oo, float[][] scratch, int depth) {
+            e.eval(i, j0, len, out, oo, scratch, depth);
+            for (int k = oo; oo + len > k; k++) out[k] = f.applyAsFloat(out[k]);
+        }
+        @Override int height() { return e.height(); }
+        @Override boolean reads(Matrix m, boolean strict) { return e.reads(m, strict); }
+        @Override Product firstProduct() { return e.firstProduct(); }
+        @Override MatrixExpr materialize(Product fused, Matrix dest) { return new Map(e.materialize(fused, dest), f); }
+    }
+
+    private static final class Product extends MatrixExpr {
+        final MatrixExpr left, right;
+
+        Product(MatrixExpr left, MatrixExpr right) throws ArithmeticException {
+            super(left.r, right.c);
+            if (left.c != right.r)
+                throw new ArithmeticException
+                    (
+                        "Cannot multiply these matrices ... \n" +
+                        "Column count of this matrix: " + left.c + "\n" +
+                        "Row count of the other matrix: " + right.r + "\n"
+                    );
+            this.left = left; this.right = right;
+        }
+
+        @Override
+        void eval(int i, int j0, int len, float[] out, int oo, float[][] scratch, int depth) {
+            throw new IllegalStateException("Products are materialized before evaluation");
+        }
+        @Override int height() { return 0; }
+        // Operands of a product are never read element by element, any view of dest is fine.
+        @Override boolean reads(Matrix m, boolean strict) { return left.reads(m, false) | right.reads(m, false); }
+        @Override Product firstProduct() { return this; }
+        @Override
+        MatrixExpr materialize(Product fused, Matrix dest) {
+            if (this == fused) return new Leaf(dest);
+            return new Leaf(left.evaluateOperand().multiply(right.evaluateOperand()));
+        }
+    }
+    //</editor-fold>
+
+}
@@ -0,0 +1,215 @@
+package Matrix;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Compact binary format for matrices. Everything is little-endian:
+ * <pre>
+ *   int   magic    'M' 'T' 'R' 'X'
+ *   int   version  currently 1
+ *   int   rows
+ *   int   columns
+ *   float data     rows * columns values, row-major
+ * </pre>
+ * The data is moved in bulk through channels. A heap Matrix is staged
+ * through one direct buffer of at most 1 MB, so every value is copied once
+ * on the way, while a little-endian BufferMatrix is handed to the channel
+ * as it is. A saved file can be mapped straight into a MappedMatrix
+ * without reading it.
+ *
+ * @author Harrison Davis
+ */
+public final class MatrixIO {
+
+    // "MTRX" read as a little-endian int.
+    static final int MAGIC = 'M' | 'T' << 8 | 'R' << 16 | 'X' << 24;
+    // The format version written by this class.
+    static final int VERSION = 1;
+    // The size of the header in bytes.
+    public static final int HEADER_BYTES = 16;
+    // How many bytes are moved per channel call.
+    private static final int CHUNK_BYTES = 1 << 20;
+
+    private MatrixIO() { }
+
+    //<editor-fold defaultstate="collapsed" desc=" Writers ">
+    /**
+     * Writes a Matrix to a channel. Rows are put straight into a float view
+     * of the staging buffer, views included, without a flat copy first.
+     *
+     * @param m The Matrix to write.
+     * @param out The channel to write to. It isn't closed.
+     *
+     * @throws IOException if the channel fails.
+     */
+    public static void write(Matrix m, WritableByteChannel out) throws IOException {
+        int r = m.getRows(), c = m.getColumns();
+        writeHeader(out, r, c);
+        ByteBuffer buf = ByteBuffer.allocateDirect(chunkBytes(r, c)).order(ByteOrder.LITTLE_ENDIAN);
+        java.nio.FloatBuffer f = buf.asFloatBuffer();
+        // A contiguous matrix is one long run, otherwise each row is a run.
+        boolean whole = m.isContiguous();
+        int runs = whole ? 1 : r, width = whole ? r * c : c;
+        for (int i = 0; runs > i; i++) {
+            for (int at = m.offset + i * m.stride, left = width; left > 0; ) {
+                int len = Math.min(left, f.remaining());
+                f.put(m.data, at, len);
+                at += len; left -= len;
+                if (!f.hasRemaining()) flush(out, buf, f);
+            }
+        }
+        if (f.position() > 0) flush(out, buf, f);
+    }
+    /**
+     * Writes a buffer backed matrix to a channel. Little-endian buffers are
+     * handed to the channel as they are, without copying.
+     *
+     * @param m The matrix to write.
+     * @param out The channel to write to. It isn't closed.
+     *
+     * @throws IOException if the channel fails.
+     */
+    public static void write(BufferMatrix m, WritableByteChannel out) throws IOException {
+        writeHeader(out, m.r, m.c);
+        ByteBuffer[] buffers = m.lockBuffers();
+        try {
+            ByteBuffer tmp = null;
+            for (int k = 0; buffers.length > k; k++) {
+                ByteBuffer src = buffers[k].duplicate();
+                src.clear();
+                if (buffers[k].order() == ByteOrder.LITTLE_ENDIAN) { writeFully(out, src); continue; }
+                // Native order is big-endian, swap through a bounce buffer.
+                if (tmp == null) tmp = ByteBuffer.allocateDirect(CHUNK_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                java.nio.FloatBuffer f = src.order(buffers[k].order()).asFloatBuffer();
+                java.nio.FloatBuffer t = tmp.asFloatBuffer();
+                while (f.hasRemaining()) {
+                    int len = Math.min(t.remaining(), f.remaining());
+                    // A bulk put between the two views swaps the byte order.
+                    t.put(f.slice(f.position(), len));
+                    f.position(f.position() + len);
+                    flush(out, tmp, t);
+                }
+            }
+        } finally { m.unlockBuffers(); }
+    }
+    /**
+     * Saves a Matrix to a file, replacing it if it exists.
+     *
+     * @param m The Matrix to save.
+     * @param file The file to write.
+     *
+     * @throws IOException if the file can't be written.
+     */
+    public static void save(Matrix m, Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            write(m, ch);
+        }
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" Readers ">
+    /**
+     * Reads a Matrix from a channel.
+     *
+     * @param in The channel to read from. It isn't closed.
+     * @return A new Matrix.
+     *
+     * @throws IOException if the channel fails, ends early, or doesn't hold a matrix.
+     */
+    public static Matrix read(ReadableByteChannel in) throws IOException {
+        int[] size = readHeader(in);
+        int r = size[0], c = size[1];
+        // Mapped matrices can be bigger than this, a heap one has to fit in one array.
+        if ((long) r * c > Integer.MAX_VALUE) throw new IOException("Matrix is " + r + " x " + c + ", too big to read onto the heap ...");
+        Matrix m = new Matrix(r, c);
+        ByteBuffer buf = ByteBuffer.allocateDirect(chunkBytes(r, c)).order(ByteOrder.LITTLE_ENDIAN);
+        int perChunk = buf.capacity() / Float.BYTES;
+        for (long k = 0, n = (long) r * c; n > k; k += perChunk) {
+            int len = (int) Math.min(perChunk, n - k);
+            buf.clear().limit(len * Float.BYTES);
+            readFully(in, buf);
+            buf.flip();
+            buf.asFloatBuffer().get(m.data, (int) k, len);
+        }
+        return m;
+    }
+    /**
+     * Loads a Matrix from a file.
+     *
+     * @param file The file to read.
+     * @return A new Matrix.
+     *
+     * @throws IOException if the file can't be read or doesn't hold a matrix.
+     */
+    public static Matrix load(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            return read(ch);
+        }
+    }
+    /**
+     * Maps a saved file instead of reading it. Nothing but the header is
+     * read up front.
+     *
+     * @param file The file to map.
+     * @param readOnly True to map read only.
+     * @return The mapped matrix. Close it when done.
+     *
+     * @throws IOException if the file can't be mapped or doesn't hold a matrix.
+     */
+    public static MappedMatrix map(Path file, boolean readOnly) throws IOException {
+        int[] size;
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            size = readHeader(ch);
+        }
+        return MappedMatrix.open(file, size[0], size[1], HEADER_BYTES, readOnly);
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" Helpers ">
+    private static void writeHeader(WritableByteChannel out, int rows, int columns) throws IOException {
+        ByteBuffer h = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        h.putInt(MAGIC).putInt(VERSION).putInt(rows).putInt(columns).flip();
+        writeFully(out, h);
+    }
+    /**
+     * @return { rows , columns } .
+     */
+    private static int[] readHeader(ReadableByteChannel in) throws IOException {
+        ByteBuffer h = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(in, h);
+        h.flip();
+        if (h.getInt() != MAGIC) throw new IOException("Not a matrix file, bad magic number ...");
+        int version = h.getInt();
+        if (version != VERSION) throw new IOException("Unsupported matrix file version " + version + " ...");
+        int r = h.getInt(), c = h.getInt();
+        if (0 > r || 0 > c) throw new IOException("Corrupt matrix file, size " + r + " x " + c + " ...");
+        return new int[] { r, c };
+    }
+    private static int chunkBytes(int r, int c) {
+        return (int) Math.max(Float.BYTES, Math.min(CHUNK_BYTES, (long) r * c * Float.BYTES));
+    }
+    /**
+     * Writes the floats put into a view of buf so far, then empties the view.
+     */
+    private static void flush(WritableByteChannel out, ByteBuffer buf, java.nio.FloatBuffer f) throws IOException {
+        buf.clear().limit(f.position() * Float.BYTES);
+        writeFully(out, buf);
+        f.clear();
+    }
+    private static void writeFully(WritableByteChannel out, ByteBuffer b) throws IOException {
+        while (b.hasRemaining()) out.write(b);
+    }
+    private static void readFully(ReadableByteChannel in, ByteBuffer b) throws IOException {
+        while (b.hasRemaining()) if (0 > in.read(b)) throw new EOFException("Matrix data ended early ...");
+    }
+    //</editor-fold>
+
+}
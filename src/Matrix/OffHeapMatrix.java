@@ -0,0 +1,124 @@
+package Matrix;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * A matrix that lives in direct memory instead of on the Java heap, so
+ * huge working sets don't add to GC pauses & aren't capped by the array
+ * size limit. Close it (or use try-with-resources) to free the memory as
+ * soon as it's no longer needed.
+ *
+ * @author Harrison Davis
+ */
+public class OffHeapMatrix extends BufferMatrix {
+
+    //<editor-fold defaultstate="collapsed" desc=" Constructors ">
+    /**
+     * Constructor for a square matrix.
+     *
+     * @param size The size. This will become the row & column count.
+     */
+    public OffHeapMatrix(int size) { this(size, size); }
+    /**
+     * Full explicit constructor. Every element starts at zero.
+     *
+     * @param rows The amount of rows.
+     * @param columns The amount of columns.
+     */
+    public OffHeapMatrix(int rows, int columns) { this(rows, columns, rowsPerChunk(columns)); }
+    /**
+     * Copy constructor from a heap Matrix.
+     *
+     * @param copy The Matrix to copy.
+     */
+    public OffHeapMatrix(Matrix copy) {
+        this(copy.getRows(), copy.getColumns());
+        this.copyFrom(copy);
+    }
+
+    private OffHeapMatrix(int rows, int columns, int rowsPerChunk) {
+        super(rows, columns, rowsPerChunk, allocate(rows, columns, rowsPerChunk));
+    }
+
+    /**
+     * Allocates zeroed direct buffers in native byte order.
+     */
+    private static ByteBuffer[] allocate(int rows, int columns, int rowsPerChunk) {
+        ByteBuffer[] out = new ByteBuffer[chunkCount(rows, rowsPerChunk)];
+        for (int k = 0; out.length > k; k++) {
+            int chunkRows = Math.min(rowsPerChunk, rows - k * rowsPerChunk);
+            out[k] = ByteBuffer.allocateDirect(Math.max(0, chunkRows) * columns * Float.BYTES).order(ByteOrder.nativeOrder());
+        }
+        return out;
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" Operations ">
+    /**
+     * Multiplies two matrices together.
+     *
+     * @param o The other matrix.
+     * @return A new OffHeapMatrix with the calculated results.
+     *
+     * @throws ArithmeticException if the column count of this matrix is not equal to the row count of the other.
+     */
+    public OffHeapMatrix multiply(BufferMatrix o) throws ArithmeticException {
+        if (this.c != o.r) throw new ArithmeticException("Cannot multiply these matrices ... " + this.c + " != " + o.r);
+        OffHeapMatrix result = new OffHeapMatrix(this.r, o.c);
+        this.multiplyInto(o, result);
+        return result;
+    }
+    /**
+     * @return A new OffHeapMatrix that is this matrix but flipped over the diagonal.
+     */
+    public OffHeapMatrix transpose() {
+        OffHeapMatrix result = new OffHeapMatrix(this.c, this.r);
+        this.transposeInto(result);
+        return result;
+    }
+    /**
+     * Adds two matrices together.
+     *
+     * @param o The other matrix.
+     * @return A new OffHeapMatrix that's elements are the sum of this one and the other.
+     *
+     * @throws ArithmeticException if the two matrices are not equal in dimensions.
+     */
+    public OffHeapMatrix add(BufferMatrix o) throws ArithmeticException {
+        if (this.r != o.r || this.c != o.c) throw new ArithmeticException("Matrices must be the same size to add ...");
+        OffHeapMatrix result = new OffHeapMatrix(this.r, this.c);
+        this.addInto(o, result);
+        return result;
+    }
+    /**
+     * Subtracts two matrices.
+     *
+     * @param o The subtrahend matrix.
+     * @return A new OffHeapMatrix that's elements are the difference of this one and the other.
+     *
+     * @throws ArithmeticException if the two matrices are not equal in dimensions.
+     */
+    public OffHeapMatrix subtract(BufferMatrix o) throws ArithmeticException {
+        if (this.r != o.r || this.c != o.c) throw new ArithmeticException("Matrices must be the same size to subtract ...");
+        OffHeapMatrix result = new OffHeapMatrix(this.r, this.c);
+        this.subtractInto(o, result);
+        return result;
+    }
+    /**
+     * Scales each element by some scalar.
+     *
+     * @param f The scalar to scale by.
+     * @return A new OffHeapMatrix where each element has been scaled.
+     */
+    public OffHeapMatrix scale(float f) {
+        OffHeapMatrix result = new OffHeapMatrix(this.r, this.c);
+        this.scaleInto(f, result);
+        return result;
+    }
+    //</editor-fold>
+
+    @Override
+    BufferMatrix newScratch(int rows, int columns) { return new OffHeapMatrix(rows, columns); }
+
+}
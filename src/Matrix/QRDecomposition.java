@@ -0,0 +1,271 @@
+package Matrix;
+
+/**
+ * Householder QR decomposition of an m x n matrix with m &gt;= n, A = Q * R .
+ * Mostly used to solve least squares problems. The reflectors are stored
+ * column by column as rows of a transposed copy of A so every Householder
+ * step works on contiguous memory. Columns are factored BLOCK at a time &
+ * the rest of the matrix is updated once per panel with the compact WY form
+ * of the panel's reflectors, so most of the work goes through Gemm.
+ *
+ * @author Harrison Davis
+ */
+public class QRDecomposition {
+
+    // Columns factored per panel.
+    static final int BLOCK = 32;
+
+    // The transpose of the packed QR, n x m. Row k holds the k-th Householder
+    // vector from position k on & the k-th column of R above it.
+    final float[] qrt;
+    // The diagonal of R.
+    final float[] rdiag;
+    // The row & column count of the factored matrix.
+    final int m, n;
+    // How many reflections were actually applied, each one flips the sign of det(Q).
+    private int reflections;
+
+    //<editor-fold defaultstate="collapsed" desc=" Constructors ">
+    /**
+     * Factors a matrix. The matrix itself isn't changed.
+     *
+     * @param a The Matrix to factor.
+     *
+     * @throws ArithmeticException if the matrix has more columns than rows.
+     */
+    public QRDecomposition(Matrix a) throws ArithmeticException {
+        if (a.getColumns() > a.getRows()) throw new ArithmeticException("Cannot QR decompose a matrix with more columns than rows ...");
+        m = a.getRows(); n = a.getColumns();
+        qrt = a.transpose().data;
+        rdiag = new float[n];
+        factor();
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" Factorization ">
+    private void factor() {
+        for (int k0 = 0; n > k0; k0 += BLOCK) {
+            int k1 = Math.min(n, k0 + BLOCK);
+            this.factorPanel(k0, k1);
+            if (n > k1) this.updateTrailing(k0, k1);
+        }
+    }
+
+    /**
+     * Unblocked Householder QR of columns [ k0 , k1 ) . Each reflection is
+     * only applied to the columns of the panel.
+     */
+    private void factorPanel(int k0, int k1) {
+        for (int k = k0; k1 > k; k++) {
+            int rk = k * m;
+            // Norm of the k-th column below the diagonal, done in double to avoid overflow.
+            double sum = 0.0;
+            for (int i = k; m > i; i++) sum += (double) qrt[rk + i] * qrt[rk + i];
+            float nrm = (float) Math.sqrt(sum);
+
+            if (nrm != 0.0f) {
+                // Form the k-th Householder vector.
+                if (0 > qrt[rk + k]) nrm = -nrm;
+                for (int i = k; m > i; i++) qrt[rk + i] /= nrm;
+                qrt[rk + k] += 1.0f;
+                reflections++;
+
+                // Apply it to the remaining columns of the panel.
+                for (int j = k + 1; k1 > j; j++) {
+                    int rj = j * m;
+                    float s = 0.0f;
+                    for (int i = k; m > i; i++) s += qrt[rk + i] * qrt[rj + i];
+                    s = -s / qrt[rk + k];
+                    for (int i = k; m > i; i++) qrt[rj + i] += s * qrt[rk + i];
+                }
+            }
+            rdiag[k] = -nrm;
+        }
+    }
+
+    /**
+     * Applies the reflectors of panel [ k0 , k1 ) to every column past it.
+     * Each reflector is H = I - tau * v * v^T with tau = 1 / v[k], so the
+     * panel is H0 * H1 * ... = I - V * T * V^T with T upper triangular.
+     * The columns past the panel are rows of qrt, W = A2^T, so the update
+     * A2 -= V * T^T * V^T * A2 becomes W -= ( ( W * V ) * T ) * V^T .
+     */
+    private void updateTrailing(int k0, int k1) {
+        int nb = k1 - k0, mm = m - k0, nt = n - k1;
+        // V, mm x nb, & V^T, nb x mm, with the zeros above each vector filled in.
+        float[] v = new float[mm * nb], vt = new float[nb * mm];
+        for (int k = k0; k1 > k; k++) {
+            int rk = k * m, p = k - k0;
+            for (int i = k; m > i; i++) {
+                float x = qrt[rk + i];
+                v[(i - k0) * nb + p] = x;
+                vt[p * mm + i - k0] = x;
+            }
+        }
+
+        // T ( 0 : p , p ) = -tau * T ( 0 : p , 0 : p ) * V ( : , 0 : p )^T * v_p .
+        float[] t = new float[nb * nb], w = new float[nb];
+        for (int p = 0; nb > p; p++) {
+            int vp = p * mm;
+            float d = vt[vp + p];
+            // A column that was already zero got no reflection.
+            if (d == 0.0f) continue;
+            float tau = 1.0f / d;
+            t[p * nb + p] = tau;
+            for (int q = 0; p > q; q++) {
+                float s = 0.0f;
+                for (int i = p; mm > i; i++) s += vt[q * mm + i] * vt[vp + i];
+                w[q] = s;
+            }
+            for (int q = 0; p > q; q++) {
+                float s = 0.0f;
+                for (int l = q; p > l; l++) s += t[q * nb + l] * w[l];
+                t[q * nb + p] = -tau * s;
+            }
+        }
+
+        int wOff = k1 * m + k0;
+        float[] y = new float[nt * nb], z = new float[nt * nb];
+        Gemm.multiply(qrt, wOff, m, v, 0, nb, y, 0, nb, nt, nb, mm);
+        Gemm.multiply(y, 0, nb, t, 0, nb, z, 0, nb, nt, nb, nb);
+        for (int i = 0; z.length > i; i++) z[i] = -z[i];
+        Gemm.multiply(z, 0, nb, vt, 0, mm, qrt, wOff, m, nt, mm, nb);
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" Getters ">
+    /**
+     * @return True if R has no zero on its diagonal.
+     */
+    public boolean isFullRank() {
+        for (int k = 0; n > k; k++) if (rdiag[k] == 0.0f) return false;
+        return true;
+    }
+    /**
+     * @return A new n x n Matrix holding the upper triangular factor R.
+     */
+    public Matrix getR() {
+        Matrix r = new Matrix(n, n);
+        for (int i = 0; n > i; i++) {
+            r.data[i * n + i] = rdiag[i];
+            for (int j = i + 1; n > j; j++) r.data[i * n + j] = qrt[j * m + i];
+        }
+        return r;
+    }
+    /**
+     * @return A new m x n Matrix holding the orthogonal factor Q.
+     */
+    public Matrix getQ() {
+        Matrix q = new Matrix(m, n);
+        float[] qd = q.data;
+        for (int k = n - 1; k >= 0; k--) {
+            int rk = k * m;
+            qd[k * n + k] = 1.0f;
+            if (qrt[rk + k] == 0.0f) continue;
+            for (int j = k; n > j; j++) {
+                float s = 0.0f;
+                for (int i = k; m > i; i++) s += qrt[rk + i] * qd[i * n + j];
+                s = -s / qrt[rk + k];
+                for (int i = k; m > i; i++) qd[i * n + j] += s * qrt[rk + i];
+            }
+        }
+        return q;
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" Information Calculators ">
+    /**
+     * Calculates the determinant of a square factored matrix. This is the
+     * product of the diagonal of R, with a sign flip per reflection.
+     *
+     * @return The determinant.
+     *
+     * @throws ArithmeticException if the factored matrix isn't square.
+     */
+    public float determinant() throws ArithmeticException {
+        if (m != n) throw new ArithmeticException("Cannot calculate the determinant of a non-square matrix ...");
+        float det = (reflections % 2 == 0) ? 1.0f : -1.0f;
+        for (int k = 0; n > k; k++) det *= rdiag[k];
+        return det;
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" Solvers ">
+    /**
+     * Finds the X that minimizes || A * X - B || . When A is square this is
+     * the exact solution of A * X = B .
+     *
+     * @param b The right hand sides, one per column. It must have m rows.
+     * @return A new n x ( b columns ) Matrix X.
+     *
+     * @throws ArithmeticException if the row count of b is wrong or A is rank deficient.
+     */
+    public Matrix solve(Matrix b) throws ArithmeticException {
+        if (b.getRows() != m) throw new ArithmeticException("Right hand side must have " + m + " rows, it has " + b.getRows() + " ...");
+        if (!this.isFullRank()) throw new ArithmeticException("Matrix is rank deficient, cannot solve ...");
+        int nx = b.getColumns();
+        float[] y = new Matrix(b).data;
+        this.applyQt(y, nx);
+        Matrix x = new Matrix(n, nx, y);
+        this.backSubstitute(x.data, nx);
+        return x;
+    }
+    /**
+     * Finds the x that minimizes || A * x - b || .
+     *
+     * @param b The right hand side. It must have length m.
+     * @return A new array x of length n.
+     *
+     * @throws ArithmeticException if the length of b is wrong or A is rank deficient.
+     */
+    public float[] solve(float[] b) throws ArithmeticException {
+        if (b.length != m) throw new ArithmeticException("Right hand side must have length " + m + ", it has " + b.length + " ...");
+        if (!this.isFullRank()) throw new ArithmeticException("Matrix is rank deficient, cannot solve ...");
+        float[] y = b.clone();
+        this.applyQt(y, 1);
+        float[] x = java.util.Arrays.copyOf(y, n);
+        this.backSubstitute(x, 1);
+        return x;
+    }
+
+    /**
+     * Overwrites an m x nx row-major array Y with Q^T * Y .
+     */
+    private void applyQt(float[] y, int nx) {
+        float[] s = new float[nx];
+        for (int k = 0; n > k; k++) {
+            int rk = k * m;
+            if (qrt[rk + k] == 0.0f) continue;
+            java.util.Arrays.fill(s, 0.0f);
+            for (int i = k; m > i; i++) {
+                float v = qrt[rk + i];
+                int ri = i * nx;
+                for (int j = 0; nx > j; j++) s[j] += v * y[ri + j];
+            }
+            float d = -1.0f / qrt[rk + k];
+            for (int j = 0; nx > j; j++) s[j] *= d;
+            for (int i = k; m > i; i++) {
+                float v = qrt[rk + i];
+                int ri = i * nx;
+                for (int j = 0; nx > j; j++) y[ri + j] += s[j] * v;
+            }
+        }
+    }
+    /**
+     * Solves R * X = Y in place over the first n rows of a row-major array.
+     */
+    private void backSubstitute(float[] x, int nx) {
+        for (int k = n - 1; k >= 0; k--) {
+            int rk = k * nx;
+            for (int j = 0; nx > j; j++) x[rk + j] /= rdiag[k];
+            for (int i = 0; k > i; i++) {
+                float f = qrt[k * m + i];
+                if (f == 0.0f) continue;
+                int ri = i * nx;
+                for (int j = 0; nx > j; j++) x[ri + j] -= f * x[rk + j];
+            }
+        }
+    }
+    //</editor-fold>
+
+}
@@ -0,0 +1,247 @@
+package Matrix;
+
+/**
+ * Thin singular value decomposition of an m x n matrix, A = U * S * V^T .
+ * With p = min( m , n ), U is m x p, S is p x p & V is n x p. The full
+ * decomposition uses one-sided Jacobi rotations in double precision, which
+ * is slow but very accurate. For the top k components of a big matrix use
+ * randomized(), which only ever runs Jacobi on a small projected matrix.
+ *
+ * @author Harrison Davis
+ */
+public class SingularValueDecomposition {
+
+    // Give up after this many sweeps over every pair of columns.
+    static final int MAX_SWEEPS = 64;
+    // Extra samples taken by randomized() past the k that were asked for.
+    static final int OVERSAMPLE = 10;
+    // Power iterations run by randomized(), each one sharpens a slowly decaying spectrum.
+    static final int POWER_ITERATIONS = 2;
+    // Seed for the random projection so results are repeatable.
+    static final long SEED = 0x5EEDL;
+
+    // U, m x p, & V, n x p, both row-major.
+    final float[] u, v;
+    // The singular values, descending.
+    final float[] s;
+    // The row & column count of the factored matrix & how many singular values were kept.
+    final int m, n, p;
+
+    //<editor-fold defaultstate="collapsed" desc=" Constructors ">
+    /**
+     * Factors a matrix. The matrix itself isn't changed.
+     *
+     * @param a The Matrix to factor.
+     *
+     * @throws ArithmeticException if the Jacobi sweeps don't converge.
+     */
+    public SingularValueDecomposition(Matrix a) throws ArithmeticException {
+        m = a.getRows(); n = a.getColumns(); p = Math.min(m, n);
+        // Work on whichever of A or A^T is tall so the columns are the short side.
+        boolean flip = n > m;
+        int rows = flip ? n : m;
+        // Columns of the working matrix stored as rows.
+        double[] g = new double[p * rows];
+        for (int i = 0; m > i; i++) for (int j = 0; n > j; j++) {
+            if (flip) g[i * n + j] = a.getValue(i, j);
+            else g[j * m + i] = a.getValue(i, j);
+        }
+        double[] w = new double[p * p];
+        for (int j = 0; p > j; j++) w[j * p + j] = 1.0;
+        jacobi(g, w, rows, p);
+
+        // Singular values are the column norms, the left vectors the normalized columns.
+        double[] norms = new double[p];
+        for (int j = 0; p > j; j++) norms[j] = Math.sqrt(dot(g, j * rows, j * rows, rows));
+        Integer[] order = new Integer[p];
+        for (int j = 0; p > j; j++) order[j] = j;
+        java.util.Arrays.sort(order, (x, y) -> Double.compare(norms[y], norms[x]));
+
+        s = new float[p];
+        float[] left = new float[rows * p], right = new float[p * p];
+        for (int c = 0; p > c; c++) {
+            int j = order[c];
+            double sv = norms[j];
+            s[c] = (float) sv;
+            if (sv != 0.0) for (int i = 0; rows > i; i++) left[i * p + c] = (float) (g[j * rows + i] / sv);
+            for (int i = 0; p > i; i++) right[i * p + c] = (float) w[j * p + i];
+        }
+        // A^T = U' S V'^T means A = V' S U'^T .
+        u = flip ? right : left;
+        v = flip ? left : right;
+    }
+    /**
+     * Storage constructor, the arrays are kept as they are.
+     */
+    private SingularValueDecomposition(int m, int n, int p, float[] u, float[] s, float[] v) {
+        this.m = m; this.n = n; this.p = p;
+        this.u = u; this.s = s; this.v = v;
+    }
+
+    /**
+     * Randomized truncated decomposition that keeps the k largest singular
+     * values. A is sampled by a random projection, the samples are
+     * orthonormalized with QR & only the small projected matrix is factored
+     * exactly. Best when k is much smaller than both dimensions.
+     *
+     * @param a The Matrix to factor.
+     * @param k How many singular values to keep.
+     * @return A new SingularValueDecomposition with p = k.
+     *
+     * @throws ArithmeticException if k is less than 1 or more than min( m , n ).
+     */
+    public static SingularValueDecomposition randomized(Matrix a, int k) throws ArithmeticException {
+        return randomized(a, k, null);
+    }
+    /**
+     * Randomized truncated decomposition that keeps the k largest singular
+     * values, running the big products on a pool.
+     *
+     * @param a The Matrix to factor.
+     * @param k How many singular values to keep.
+     * @param pool The pool to run the products on, serial if null.
+     * @return A new SingularValueDecomposition with p = k.
+     *
+     * @throws ArithmeticException if k is less than 1 or more than min( m , n ).
+     */
+    public static SingularValueDecomposition randomized(Matrix a, int k, java.util.concurrent.ForkJoinPool pool) throws ArithmeticException {
+        int m = a.getRows(), n = a.getColumns();
+        if (k < 1 || k > Math.min(m, n)) throw new ArithmeticException("Cannot keep " + k + " singular values of a " + m + " x " + n + " matrix ...");
+        int l = k + OVERSAMPLE;
+        // Nothing to gain from sampling, do it exactly.
+        if (l >= Math.min(m, n)) return new SingularValueDecomposition(a).truncate(k);
+
+        java.util.Random rnd = new java.util.Random(SEED);
+        Matrix omega = new Matrix(n, l);
+        for (int i = 0; omega.data.length > i; i++) omega.data[i] = (float) rnd.nextGaussian();
+        Matrix at = a.transpose();
+
+        // Q spans the range of A * Omega, refined by ( A * A^T )^q .
+        Matrix q = product(a, omega, pool).decomposeQR().getQ();
+        for (int it = 0; POWER_ITERATIONS > it; it++) {
+            Matrix z = product(at, q, pool).decomposeQR().getQ();
+            q = product(a, z, pool).decomposeQR().getQ();
+        }
+
+        // B = Q^T * A is l x n, factor its transpose so the short side is l.
+        // B^T = Ub * S * Vb^T gives A ~ ( Q * Vb ) * S * Ub^T .
+        SingularValueDecomposition b = new SingularValueDecomposition(product(at, q, pool));
+        Matrix uq = product(q, new Matrix(l, l, b.v), pool);
+        return new SingularValueDecomposition(m, n, l, uq.data, b.s, b.u).truncate(k);
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" Factorization ">
+    /**
+     * One-sided Jacobi. Rotates pairs of the p columns of g, each of length
+     * rows, until they're all orthogonal, applying the same rotations to w.
+     */
+    private static void jacobi(double[] g, double[] w, int rows, int p) throws ArithmeticException {
+        final double tol = rows * Math.ulp(1.0);
+        for (int sweep = 0; ; sweep++) {
+            if (sweep == MAX_SWEEPS) throw new ArithmeticException("Singular values did not converge ...");
+            boolean rotated = false;
+            for (int j = 0; p - 1 > j; j++) {
+                int gj = j * rows;
+                for (int k = j + 1; p > k; k++) {
+                    int gk = k * rows;
+                    double alpha = dot(g, gj, gj, rows), beta = dot(g, gk, gk, rows), gamma = dot(g, gj, gk, rows);
+                    if (Math.abs(gamma) <= tol * Math.sqrt(alpha * beta)) continue;
+                    rotated = true;
+                    double zeta = (beta - alpha) / (2.0 * gamma);
+                    double t = (zeta >= 0 ? 1.0 : -1.0) / (Math.abs(zeta) + Math.sqrt(1.0 + zeta * zeta));
+                    double c = 1.0 / Math.sqrt(1.0 + t * t), sn = c * t;
+                    rotate(g, gj, gk, rows, c, sn);
+                    rotate(w, j * p, k * p, p, c, sn);
+                }
+            }
+            if (!rotated) return;
+        }
+    }
+
+    /**
+     * Rotates two runs of the same array.
+     */
+    private static void rotate(double[] a, int x, int y, int len, double c, double s) {
+        for (int i = 0; len > i; i++) {
+            double ax = a[x + i], ay = a[y + i];
+            a[x + i] = c * ax - s * ay;
+            a[y + i] = s * ax + c * ay;
+        }
+    }
+
+    /**
+     * Dot product of two runs in the same array.
+     */
+    private static double dot(double[] a, int x, int y, int len) {
+        double sum = 0.0;
+        for (int i = 0; len > i; i++) sum += a[x + i] * a[y + i];
+        return sum;
+    }
+
+    /**
+     * Multiplies serially or on a pool.
+     */
+    private static Matrix product(Matrix a, Matrix b, java.util.concurrent.ForkJoinPool pool) {
+        return pool == null ? a.multiply(b) : a.multiplyParallel(b, pool, Gemm.PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * Keeps the first k singular values & vectors.
+     */
+    private SingularValueDecomposition truncate(int k) {
+        if (k == p) return this;
+        float[] tu = new float[m * k], tv = new float[n * k];
+        for (int i = 0; m > i; i++) System.arraycopy(u, i * p, tu, i * k, k);
+        for (int i = 0; n > i; i++) System.arraycopy(v, i * p, tv, i * k, k);
+        return new SingularValueDecomposition(m, n, k, tu, java.util.Arrays.copyOf(s, k), tv);
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" Getters ">
+    /**
+     * @return A new m x p Matrix holding the left singular vectors as columns.
+     */
+    public Matrix getU() { return new Matrix(m, p, u); }
+    /**
+     * @return A new p x p diagonal Matrix holding the singular values.
+     */
+    public Matrix getS() {
+        Matrix d = new Matrix(p, p);
+        for (int i = 0; p > i; i++) d.data[i * p + i] = s[i];
+        return d;
+    }
+    /**
+     * @return A new n x p Matrix holding the right singular vectors as columns.
+     */
+    public Matrix getV() { return new Matrix(n, p, v); }
+    /**
+     * @return A new array holding the singular values in descending order.
+     */
+    public float[] getSingularValues() { return s.clone(); }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" Information Calculators ">
+    /**
+     * @return The spectral norm, the largest singular value.
+     */
+    public float norm2() { return p == 0 ? 0.0f : s[0]; }
+    /**
+     * @return The ratio of the largest to the smallest kept singular value.
+     */
+    public float cond() { return p == 0 ? 0.0f : s[0] / s[p - 1]; }
+    /**
+     * Counts the singular values that aren't negligible next to the largest.
+     *
+     * @return The numerical rank.
+     */
+    public int rank() {
+        if (p == 0) return 0;
+        float tol = Math.max(m, n) * s[0] * Math.ulp(1.0f);
+        int r = 0;
+        for (int i = 0; p > i; i++) if (s[i] > tol) r++;
+        return r;
+    }
+    //</editor-fold>
+
+}
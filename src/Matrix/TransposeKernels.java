@@ -0,0 +1,184 @@
+package Matrix;
+
+/**
+ * Cache-oblivious transpose kernels over flat row-major storage. The block
+ * is cut in half along its longer side until it fits in a small tile, so
+ * every level of cache ends up working on blocks that fit in it without
+ * knowing its size. Square blocks can also be transposed in place by
+ * swapping the two off-diagonal quadrants.
+ *
+ * @author Harrison Davis
+ */
+final class TransposeKernels {
+
+    // Blocks with both sides at most this long are transposed directly.
+    static final int TILE = 32;
+    // The fewest elements a parallel transpose task will take.
+    static final int TASK_ELEMENTS = 1 << 16;
+
+    private TransposeKernels() { }
+
+    //<editor-fold defaultstate="collapsed" desc=" Out of Place ">
+    /**
+     * B = A^T where A is rows x cols.
+     */
+    static void transpose(float[] a, int ao, int lda, float[] b, int bo, int ldb, int rows, int cols) {
+        if (rows <= TILE && cols <= TILE) {
+            for (int i = 0; rows > i; i++) {
+                int ai = ao + i * lda;
+                for (int j = 0; cols > j; j++) b[bo + j * ldb + i] = a[ai + j];
+            }
+        } else if (rows >= cols) {
+            int half = rows >>> 1;
+            transpose(a, ao, lda, b, bo, ldb, half, cols);
+            transpose(a, ao + half * lda, lda, b, bo + half, ldb, rows - half, cols);
+        } else {
+            int half = cols >>> 1;
+            transpose(a, ao, lda, b, bo, ldb, rows, half);
+            transpose(a, ao + half, lda, b, bo + half * ldb, ldb, rows, cols - half);
+        }
+    }
+
+    /**
+     * B = A^T on a pool.
+     */
+    static void transposeParallel(float[] a, int ao, int lda, float[] b, int bo, int ldb, int rows, int cols,
+                                  java.util.concurrent.ForkJoinPool pool) {
+        if ((long) rows * cols <= TASK_ELEMENTS) transpose(a, ao, lda, b, bo, ldb, rows, cols);
+        else pool.invoke(new TransposeTask(a, ao, lda, b, bo, ldb, rows, cols));
+    }
+
+    /**
+     * Splits the same way as transpose() until a block has at most
+     * TASK_ELEMENTS elements, then runs it serially.
+     */
+    private static final class TransposeTask extends java.util.concurrent.RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final float[] a, b;
+        private final int ao, lda, bo, ldb, rows, cols;
+
+        TransposeTask(float[] a, int ao, int lda, float[] b, int bo, int ldb, int rows, int cols) {
+            this.a = a; this.ao = ao; this.lda = lda; this.b = b; this.bo = bo; this.ldb = ldb; this.rows = rows; this.cols = cols;
+        }
+
+        @Override
+        protected void compute() {
+            if ((long) rows * cols <= TASK_ELEMENTS) { transpose(a, ao, lda, b, bo, ldb, rows, cols); return; }
+            if (rows >= cols) {
+                int half = rows >>> 1;
+                invokeAll(new TransposeTask(a, ao, lda, b, bo, ldb, half, cols),
+                          new TransposeTask(a, ao + half * lda, lda, b, bo + half, ldb, rows - half, cols));
+            } else {
+                int half = cols >>> 1;
+                invokeAll(new TransposeTask(a, ao, lda, b, bo, ldb, rows, half),
+                          new TransposeTask(a, ao + half, lda, b, bo + half * ldb, ldb, rows, cols - half));
+            }
+        }
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" In Place ">
+    /**
+     * A = A^T where A is n x n. The diagonal quadrants are transposed in
+     * place & the off-diagonal ones are swapped with each other's transpose.
+     */
+    static void transposeSquare(float[] a, int ao, int lda, int n) {
+        if (n <= TILE) {
+            for (int i = 0; n > i; i++) for (int j = i + 1; n > j; j++) {
+                int x = ao + i * lda + j, y = ao + j * lda + i;
+                float t = a[x]; a[x] = a[y]; a[y] = t;
+            }
+            return;
+        }
+        int h = n >>> 1;
+        transposeSquare(a, ao, lda, h);
+        transposeSquare(a, ao + h * lda + h, lda, n - h);
+        swap(a, ao + h, ao + h * lda, lda, h, n - h);
+    }
+
+    /**
+     * Swaps the rows x cols block at p with the transpose of the cols x rows
+     * block at q. The two blocks must not overlap.
+     */
+    static void swap(float[] a, int p, int q, int lda, int rows, int cols) {
+        if (rows <= TILE && cols <= TILE) {
+            for (int i = 0; rows > i; i++) {
+                int pi = p + i * lda;
+                for (int j = 0; cols > j; j++) {
+                    int y = q + j * lda + i;
+                    float t = a[pi + j]; a[pi + j] = a[y]; a[y] = t;
+                }
+            }
+        } else if (rows >= cols) {
+            int half = rows >>> 1;
+            swap(a, p, q, lda, half, cols);
+            swap(a, p + half * lda, q + half, lda, rows - half, cols);
+        } else {
+            int half = cols >>> 1;
+            swap(a, p, q, lda, rows, half);
+            swap(a, p + half, q + half * lda, lda, rows, cols - half);
+        }
+    }
+
+    /**
+     * A = A^T on a pool. The three pieces of each level touch disjoint
+     * elements so they all run at once.
+     */
+    static void transposeSquareParallel(float[] a, int ao, int lda, int n, java.util.concurrent.ForkJoinPool pool) {
+        if ((long) n * n <= TASK_ELEMENTS) transposeSquare(a, ao, lda, n);
+        else pool.invoke(new SquareTask(a, ao, lda, n));
+    }
+
+    /**
+     * In place transpose of a square block, forking the two diagonal
+     * quadrants & the off-diagonal swap.
+     */
+    private static final class SquareTask extends java.util.concurrent.RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final float[] a;
+        private final int ao, lda, n;
+
+        SquareTask(float[] a, int ao, int lda, int n) { this.a = a; this.ao = ao; this.lda = lda; this.n = n; }
+
+        @Override
+        protected void compute() {
+            if ((long) n * n <= TASK_ELEMENTS) { transposeSquare(a, ao, lda, n); return; }
+            int h = n >>> 1;
+            invokeAll(new SquareTask(a, ao, lda, h),
+                      new SquareTask(a, ao + h * lda + h, lda, n - h),
+                      new SwapTask(a, ao + h, ao + h * lda, lda, h, n - h));
+        }
+    }
+
+    /**
+     * Parallel version of swap().
+     */
+    private static final class SwapTask extends java.util.concurrent.RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final float[] a;
+        private final int p, q, lda, rows, cols;
+
+        SwapTask(float[] a, int p, int q, int lda, int rows, int cols) {
+            this.a = a; this.p = p; this.q = q; this.lda = lda; this.rows = rows; this.cols = cols;
+        }
+
+        @Override
+        protected void compute() {
+            if ((long) rows * cols <= TASK_ELEMENTS) { swap(a, p, q, lda, rows, cols); return; }
+            if (rows >= cols) {
+                int half = rows >>> 1;
+                invokeAll(new SwapTask(a, p, q, lda, half, cols),
+                          new SwapTask(a, p + half * lda, q + half, lda, rows - half, cols));
+            } else {
+                int half = cols >>> 1;
+                invokeAll(new SwapTask(a, p, q, lda, rows, half),
+                          new SwapTask(a, p + half, q + half * lda, lda, rows, cols - half));
+            }
+        }
+    }
+    //</editor-fold>
+
+}
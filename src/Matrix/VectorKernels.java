@@ -0,0 +1,75 @@
+package Matrix;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Vector API versions of the linear kernels in ElementKernels. This class
+ * is only ever loaded when jdk.incubator.vector is present, so nothing 
+ * outside of ElementKernels should touch it.
+ *
+ * @author Harrison Davis
+ */
+final class VectorKernels {
+
+    // The widest float vector the hardware supports.
+    private static final VectorSpecies<Float> S = FloatVector.SPECIES_PREFERRED;
+
+    private VectorKernels() { }
+
+    static void add(float[] x, int xo, float[] y, int yo, float[] z, int zo, int n) {
+        int i = 0;
+        for (int bound = S.loopBound(n); bound > i; i += S.length())
+            FloatVector.fromArray(S, x, xo + i).add(FloatVector.fromArray(S, y, yo + i)).intoArray(z, zo + i);
+        for (; n > i; i++) z[zo + i] = x[xo + i] + y[yo + i];
+    }
+    static void subtract(float[] x, int xo, float[] y, int yo, float[] z, int zo, int n) {
+        int i = 0;
+        for (int bound = S.loopBound(n); bound > i; i += S.length())
+            FloatVector.fromArray(S, x, xo + i).sub(FloatVector.fromArray(S, y, yo + i)).intoArray(z, zo + i);
+        for (; n > i; i++) z[zo + i] = x[xo + i] - y[yo + i];
+    }
+    static void multiply(float[] x, int xo, float[] y, int yo, float[] z, int zo, int n) {
+        int i = 0;
+        for (int bound = S.loopBound(n); bound > i; i += S.length())
+            FloatVector.fromArray(S, x, xo + i).mul(FloatVector.fromArray(S, y, yo + i)).intoArray(z, zo + i);
+        for (; n > i; i++) z[zo + i] = x[xo + i] * y[yo + i];
+    }
+    static void divide(float[] x, int xo, float[] y, int yo, float[] z, int zo, int n) {
+        int i = 0;
+        for (int bound = S.loopBound(n); bound > i; i += S.length())
+            FloatVector.fromArray(S, x, xo + i).div(FloatVector.fromArray(S, y, yo + i)).intoArray(z, zo + i);
+        for (; n > i; i++) z[zo + i] = x[xo + i] / y[yo + i];
+    }
+    static void add(float[] x, int xo, float f, float[] z, int zo, int n) {
+        int i = 0;
+        for (int bound = S.loopBound(n); bound > i; i += S.length())
+            FloatVector.fromArray(S, x, xo + i).add(f).intoArray(z, zo + i);
+        for (; n > i; i++) z[zo + i] = x[xo + i] + f;
+    }
+    static void scale(float[] x, int xo, float f, float[] z, int zo, int n) {
+        int i = 0;
+        for (int bound = S.loopBound(n); bound > i; i += S.length())
+            FloatVector.fromArray(S, x, xo + i).mul(f).intoArray(z, zo + i);
+        for (; n > i; i++) z[zo + i] = x[xo + i] * f;
+    }
+    static void subtractScaled(float[] x, int xo, float f, float[] y, int yo, int n) {
+        int i = 0;
+        for (int bound = S.loopBound(n); bound > i; i += S.length())
+            FloatVector.fromArray(S, y, yo + i).sub(FloatVector.fromArray(S, x, xo + i).mul(f)).intoArray(y, yo + i);
+        for (; n > i; i++) y[yo + i] -= f * x[xo + i];
+    }
+    static float sumSquares(float[] x, int xo, int n) {
+        FloatVector acc = FloatVector.zero(S);
+        int i = 0;
+        for (int bound = S.loopBound(n); bound > i; i += S.length()) {
+            FloatVector v = FloatVector.fromArray(S, x, xo + i);
+            acc = v.fma(v, acc);
+        }
+        float sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; n > i; i++) sum += x[xo + i] * x[xo + i];
+        return sum;
+    }
+
+}
@@ -0,0 +1,151 @@
+package SparseMatrix;
+
+/**
+ * Coordinate list builder for sparse matrices. Entries can be added in
+ * any order, duplicates are summed when the builder is turned into a
+ * CSRMatrix or CSCMatrix.
+ *
+ * @author Harrison Davis
+ */
+public class COOBuilder {
+
+    // The row & column count of the matrix being built.
+    private final int r, c;
+    // The entries, ( rowIdx[k] , colIdx[k] ) = values[k] .
+    private int[] rowIdx, colIdx;
+    private float[] values;
+    // How many entries have been added.
+    private int size;
+
+    //<editor-fold defaultstate="collapsed" desc=" Constructors ">
+    /**
+     * Constructor for an empty builder.
+     *
+     * @param rows The amount of rows.
+     * @param columns The amount of columns.
+     */
+    public COOBuilder(int rows, int columns) { this(rows, columns, 16); }
+    /**
+     * Constructor with a starting capacity.
+     *
+     * @param rows The amount of rows.
+     * @param columns The amount of columns.
+     * @param capacity How many entries to make room for up front.
+     */
+    public COOBuilder(int rows, int columns, int capacity) {
+        r = rows; c = columns;
+        capacity = Math.max(1, capacity);
+        rowIdx = new int[capacity]; colIdx = new int[capacity]; values = new float[capacity];
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" Getters & Setters ">
+    /**
+     * @return The amount of rows.
+     */
+    public int getRows() { return r; }
+    /**
+     * @return The amount of columns.
+     */
+    public int getColumns() { return c; }
+    /**
+     * @return How many entries have been added, counting duplicates.
+     */
+    public int size() { return size; }
+
+    /**
+     * Adds an entry. Zeros are skipped & repeated positions are summed.
+     *
+     * @param i The row position.
+     * @param j The column position.
+     * @param value The value at ( i , j ) .
+     * @return This builder.
+     *
+     * @throws ArrayIndexOutOfBoundsException If the position is outside the matrix.
+     */
+    public COOBuilder add(int i, int j, float value) throws ArrayIndexOutOfBoundsException {
+        if (i > r - 1 || 0 > i) throw new ArrayIndexOutOfBoundsException("Row index, " + i + ", out of bounds!");
+        if (j > c - 1 || 0 > j) throw new ArrayIndexOutOfBoundsException("Column index, " + j + ", out of bounds!");
+        if (value == 0.0f) return this;
+        if (size == values.length) {
+            int cap = size * 2;
+            rowIdx = java.util.Arrays.copyOf(rowIdx, cap);
+            colIdx = java.util.Arrays.copyOf(colIdx, cap);
+            values = java.util.Arrays.copyOf(values, cap);
+        }
+        rowIdx[size] = i; colIdx[size] = j; values[size] = value;
+        size++;
+        return this;
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" Converters ">
+    /**
+     * @return A new CSRMatrix holding the entries added so far.
+     */
+    public CSRMatrix toCSR() {
+        Compressed cs = compress(rowIdx, colIdx, r, c);
+        return new CSRMatrix(r, c, cs.ptr, cs.idx, cs.val);
+    }
+    /**
+     * @return A new CSCMatrix holding the entries added so far.
+     */
+    public CSCMatrix toCSC() {
+        Compressed cs = compress(colIdx, rowIdx, c, r);
+        return new CSCMatrix(r, c, cs.ptr, cs.idx, cs.val);
+    }
+
+    /**
+     * Buckets the entries by their major index with a counting sort, then
+     * sorts each bucket by minor index & sums duplicates.
+     */
+    private Compressed compress(int[] major, int[] minor, int majorCount, int minorCount) {
+        int[] ptr = new int[majorCount + 1];
+        for (int k = 0; size > k; k++) ptr[major[k] + 1]++;
+        for (int i = 0; majorCount > i; i++) ptr[i + 1] += ptr[i];
+
+        int[] next = java.util.Arrays.copyOf(ptr, majorCount);
+        int[] idx = new int[size];
+        float[] val = new float[size];
+        for (int k = 0; size > k; k++) {
+            int dst = next[major[k]]++;
+            idx[dst] = minor[k];
+            val[dst] = values[k];
+        }
+
+        // Sort each bucket by minor index & fold duplicates together.
+        int[] order = new int[0];
+        int out = 0;
+        int[] newPtr = new int[majorCount + 1];
+        float[] dense = new float[minorCount];
+        boolean[] seen = new boolean[minorCount];
+        for (int i = 0; majorCount > i; i++) {
+            int start = ptr[i], end = ptr[i + 1], count = 0;
+            if (order.length < end - start) order = new int[end - start];
+            for (int k = start; end > k; k++) {
+                int j = idx[k];
+                if (!seen[j]) { seen[j] = true; order[count++] = j; }
+                dense[j] += val[k];
+            }
+            java.util.Arrays.sort(order, 0, count);
+            for (int q = 0; count > q; q++) {
+                int j = order[q];
+                if (dense[j] != 0.0f) { idx[out] = j; val[out] = dense[j]; out++; }
+                dense[j] = 0.0f; seen[j] = false;
+            }
+            newPtr[i + 1] = out;
+        }
+        return new Compressed(newPtr, java.util.Arrays.copyOf(idx, out), java.util.Arrays.copyOf(val, out));
+    }
+
+    /**
+     * The three arrays of a compressed sparse format.
+     */
+    private static final class Compressed {
+        final int[] ptr, idx;
+        final float[] val;
+        Compressed(int[] ptr, int[] idx, float[] val) { this.ptr = ptr; this.idx = idx; this.val = val; }
+    }
+    //</editor-fold>
+
+}
@@ -0,0 +1,153 @@
+package SparseMatrix;
+
+import Matrix.Matrix;
+
+/**
+ * Compressed sparse column matrix. Only the non-zero values are stored,
+ * column by column. Handy when columns are the natural unit, and as the
+ * transpose of a CSRMatrix without moving any data.
+ *
+ * @author Harrison Davis
+ */
+public class CSCMatrix {
+
+    // The row & column count.
+    private final int r, c;
+    // Column j holds values[colPtr[j] .. colPtr[j + 1]) at rows rowIdx[ same range ] ,
+    // sorted by row.
+    final int[] colPtr, rowIdx;
+    final float[] values;
+
+    //<editor-fold defaultstate="collapsed" desc=" Constructors ">
+    /**
+     * Dense constructor. Copies every non-zero of a Matrix.
+     *
+     * @param m The Matrix to compress.
+     */
+    public CSCMatrix(Matrix m) {
+        CSCMatrix csc = new CSRMatrix(m).toCSC();
+        r = csc.r; c = csc.c; colPtr = csc.colPtr; rowIdx = csc.rowIdx; values = csc.values;
+    }
+    /**
+     * Array constructor. The arrays are used as is, not copied.
+     *
+     * @param rows The amount of rows.
+     * @param columns The amount of columns.
+     * @param colPtr The column pointers, length columns + 1.
+     * @param rowIdx The row of each value, sorted within each column.
+     * @param values The non-zero values.
+     */
+    CSCMatrix(int rows, int columns, int[] colPtr, int[] rowIdx, float[] values) {
+        r = rows; c = columns; this.colPtr = colPtr; this.rowIdx = rowIdx; this.values = values;
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" Getters ">
+    /**
+     * @return The amount of rows.
+     */
+    public int getRows() { return r; }
+    /**
+     * @return The amount of columns.
+     */
+    public int getColumns() { return c; }
+    /**
+     * @return The amount of stored non-zero values.
+     */
+    public int getNonZeroCount() { return values.length; }
+
+    /**
+     * Gets a value at some position. This is a binary search over the column.
+     *
+     * @param i The row position.
+     * @param j The column position.
+     * @return The value at that position.
+     *
+     * @throws ArrayIndexOutOfBoundsException If the position is outside the matrix.
+     */
+    public float getValue(int i, int j) throws ArrayIndexOutOfBoundsException {
+        if (i > r - 1 || 0 > i) throw new ArrayIndexOutOfBoundsException("Row index, " + i + ", out of bounds!");
+        if (j > c - 1 || 0 > j) throw new ArrayIndexOutOfBoundsException("Column index, " + j + ", out of bounds!");
+        int k = java.util.Arrays.binarySearch(rowIdx, colPtr[j], colPtr[j + 1], i);
+        return 0 > k ? 0.0f : values[k];
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" Products ">
+    /**
+     * Sparse matrix-vector product. Each column is scattered into the result.
+     *
+     * @param x The vector, length = column count.
+     * @return A new array equal to this * x .
+     *
+     * @throws ArithmeticException if x has the wrong length.
+     */
+    public float[] multiply(float[] x) throws ArithmeticException {
+        if (x.length != c) throw new ArithmeticException("Vector length " + x.length + " doesn't match the column count " + c + " ...");
+        float[] y = new float[r];
+        for (int j = 0; c > j; j++) {
+            float xj = x[j];
+            if (xj == 0.0f) continue;
+            for (int k = colPtr[j]; colPtr[j + 1] > k; k++) y[rowIdx[k]] += values[k] * xj;
+        }
+        return y;
+    }
+    /**
+     * Sparse times dense product. Columns scatter into every row, so this
+     * stays serial, use toCSR().multiplyParallel( b ) to split it.
+     *
+     * @param b The dense right operand.
+     * @return A new Matrix equal to this * b .
+     *
+     * @throws ArithmeticException if the column count of this doesn't match the row count of b.
+     */
+    public Matrix multiply(Matrix b) throws ArithmeticException {
+        if (b.getRows() != c) throw new ArithmeticException("Cannot multiply, column count " + c + " doesn't match row count " + b.getRows() + " ...");
+        int n = b.getColumns();
+        float[] bd = b.toFlatArray(), out = new float[Math.multiplyExact(r, n)];
+        for (int p = 0; c > p; p++) {
+            int rb = p * n;
+            for (int k = colPtr[p]; colPtr[p + 1] > k; k++) {
+                float v = values[k];
+                int ri = rowIdx[k] * n;
+                for (int j = 0; n > j; j++) out[ri + j] += v * bd[rb + j];
+            }
+        }
+        return Matrix.wrap(r, n, out);
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" Transformers ">
+    /**
+     * @return A new CSCMatrix that is this one flipped over the diagonal.
+     */
+    public CSCMatrix transpose() {
+        CSRMatrix csr = this.toCSR();
+        return new CSCMatrix(c, r, csr.rowPtr, csr.colIdx, csr.values);
+    }
+    /**
+     * Converts to compressed sparse row form. The arrays of this matrix
+     * already describe the transpose in CSR form, so that is transposed.
+     *
+     * @return A new CSRMatrix equal to this one.
+     */
+    public CSRMatrix toCSR() {
+        CSCMatrix t = new CSRMatrix(c, r, colPtr, rowIdx, values).toCSC();
+        return new CSRMatrix(r, c, t.colPtr, t.rowIdx, t.values);
+    }
+    /**
+     * @return A new dense Matrix equal to this one.
+     */
+    public Matrix toMatrix() {
+        float[] out = new float[Math.multiplyExact(r, c)];
+        for (int j = 0; c > j; j++) for (int k = colPtr[j]; colPtr[j + 1] > k; k++) out[rowIdx[k] * c + j] = values[k];
+        return Matrix.wrap(r, c, out);
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" String Methods ">
+    @Override
+    public String toString() { return "CSCMatrix " + r + " x " + c + " , " + values.length + " non-zeros"; }
+    //</editor-fold>
+
+}
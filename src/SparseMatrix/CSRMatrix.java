@@ -0,0 +1,278 @@
+package SparseMatrix;
+
+import Matrix.Matrix;
+
+/**
+ * Compressed sparse row matrix. Only the non-zero values are stored, row
+ * by row, so memory & the cost of a product scale with the amount of
+ * non-zeros rather than rows * columns.
+ *
+ * @author Harrison Davis
+ */
+public class CSRMatrix {
+
+    // Default amount of multiply-adds a single parallel SpMV or SpMM task will do.
+    static final int PARALLEL_THRESHOLD = 1 << 14;
+
+    // The row & column count.
+    private final int r, c;
+    // Row i holds values[rowPtr[i] .. rowPtr[i + 1]) at columns colIdx[ same range ] ,
+    // sorted by column.
+    final int[] rowPtr, colIdx;
+    final float[] values;
+
+    //<editor-fold defaultstate="collapsed" desc=" Constructors ">
+    /**
+     * Dense constructor. Copies every non-zero of a Matrix.
+     *
+     * @param m The Matrix to compress.
+     */
+    public CSRMatrix(Matrix m) {
+        r = m.getRows(); c = m.getColumns();
+        float[] d = m.toFlatArray();
+        int nnz = 0;
+        for (float v : d) if (v != 0.0f) nnz++;
+        rowPtr = new int[r + 1]; colIdx = new int[nnz]; values = new float[nnz];
+        int k = 0;
+        for (int i = 0; r > i; i++) {
+            for (int j = 0; c > j; j++) {
+                float v = d[i * c + j];
+                if (v != 0.0f) { colIdx[k] = j; values[k] = v; k++; }
+            }
+            rowPtr[i + 1] = k;
+        }
+    }
+    /**
+     * Array constructor. The arrays are used as is, not copied.
+     *
+     * @param rows The amount of rows.
+     * @param columns The amount of columns.
+     * @param rowPtr The row pointers, length rows + 1.
+     * @param colIdx The column of each value, sorted within each row.
+     * @param values The non-zero values.
+     */
+    CSRMatrix(int rows, int columns, int[] rowPtr, int[] colIdx, float[] values) {
+        r = rows; c = columns; this.rowPtr = rowPtr; this.colIdx = colIdx; this.values = values;
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" Getters ">
+    /**
+     * @return The amount of rows.
+     */
+    public int getRows() { return r; }
+    /**
+     * @return The amount of columns.
+     */
+    public int getColumns() { return c; }
+    /**
+     * @return The amount of stored non-zero values.
+     */
+    public int getNonZeroCount() { return values.length; }
+
+    /**
+     * Gets a value at some position. This is a binary search over the row.
+     *
+     * @param i The row position.
+     * @param j The column position.
+     * @return The value at that position.
+     *
+     * @throws ArrayIndexOutOfBoundsException If the position is outside the matrix.
+     */
+    public float getValue(int i, int j) throws ArrayIndexOutOfBoundsException {
+        if (i > r - 1 || 0 > i) throw new ArrayIndexOutOfBoundsException("Row index, " + i + ", out of bounds!");
+        if (j > c - 1 || 0 > j) throw new ArrayIndexOutOfBoundsException("Column index, " + j + ", out of bounds!");
+        int k = java.util.Arrays.binarySearch(colIdx, rowPtr[i], rowPtr[i + 1], j);
+        return 0 > k ? 0.0f : values[k];
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" Products ">
+    /**
+     * Sparse matrix-vector product.
+     *
+     * @param x The vector, length = column count.
+     * @return A new array equal to this * x .
+     *
+     * @throws ArithmeticException if x has the wrong length.
+     */
+    public float[] multiply(float[] x) throws ArithmeticException {
+        if (x.length != c) throw new ArithmeticException("Vector length " + x.length + " doesn't match the column count " + c + " ...");
+        float[] y = new float[r];
+        spmv(x, y, 0, r);
+        return y;
+    }
+    /**
+     * Sparse matrix-vector product on the common fork/join pool.
+     *
+     * @param x The vector, length = column count.
+     * @return A new array equal to this * x .
+     *
+     * @throws ArithmeticException if x has the wrong length.
+     */
+    public float[] multiplyParallel(float[] x) throws ArithmeticException {
+        return this.multiplyParallel(x, java.util.concurrent.ForkJoinPool.commonPool(), PARALLEL_THRESHOLD);
+    }
+    /**
+     * Sparse matrix-vector product with the rows split across a pool. Rows
+     * are partitioned so each task gets about the same amount of non-zeros.
+     *
+     * @param x The vector, length = column count.
+     * @param pool The pool to run on.
+     * @param threshold The most non-zeros a single task will handle before it splits.
+     * @return A new array equal to this * x .
+     *
+     * @throws ArithmeticException if x has the wrong length.
+     */
+    public float[] multiplyParallel(float[] x, java.util.concurrent.ForkJoinPool pool, int threshold) throws ArithmeticException {
+        if (x.length != c) throw new ArithmeticException("Vector length " + x.length + " doesn't match the column count " + c + " ...");
+        float[] y = new float[r];
+        if (threshold >= values.length) spmv(x, y, 0, r);
+        else pool.invoke(new ProductTask(x, y, 1, 0, r, Math.max(1, threshold)));
+        return y;
+    }
+    /**
+     * Sparse times dense product.
+     *
+     * @param b The dense right operand.
+     * @return A new Matrix equal to this * b .
+     *
+     * @throws ArithmeticException if the column count of this doesn't match the row count of b.
+     */
+    public Matrix multiply(Matrix b) throws ArithmeticException {
+        if (b.getRows() != c) throw new ArithmeticException("Cannot multiply, column count " + c + " doesn't match row count " + b.getRows() + " ...");
+        int n = b.getColumns();
+        float[] bd = b.toFlatArray(), out = new float[Math.multiplyExact(r, n)];
+        spmm(bd, out, n, 0, r);
+        return Matrix.wrap(r, n, out);
+    }
+    /**
+     * Sparse times dense product on the common fork/join pool.
+     *
+     * @param b The dense right operand.
+     * @return A new Matrix equal to this * b .
+     *
+     * @throws ArithmeticException if the column count of this doesn't match the row count of b.
+     */
+    public Matrix multiplyParallel(Matrix b) throws ArithmeticException {
+        return this.multiplyParallel(b, java.util.concurrent.ForkJoinPool.commonPool(), PARALLEL_THRESHOLD);
+    }
+    /**
+     * Sparse times dense product with the rows split across a pool. Rows
+     * are partitioned so each task gets about the same amount of non-zeros.
+     *
+     * @param b The dense right operand.
+     * @param pool The pool to run on.
+     * @param threshold The most multiply-adds a single task will do before it splits.
+     * @return A new Matrix equal to this * b .
+     *
+     * @throws ArithmeticException if the column count of this doesn't match the row count of b.
+     */
+    public Matrix multiplyParallel(Matrix b, java.util.concurrent.ForkJoinPool pool, int threshold) throws ArithmeticException {
+        if (b.getRows() != c) throw new ArithmeticException("Cannot multiply, column count " + c + " doesn't match row count " + b.getRows() + " ...");
+        int n = b.getColumns();
+        float[] bd = b.toFlatArray(), out = new float[Math.multiplyExact(r, n)];
+        if (threshold >= (long) values.length * n) spmm(bd, out, n, 0, r);
+        else pool.invoke(new ProductTask(bd, out, n, 0, r, Math.max(1, threshold)));
+        return Matrix.wrap(r, n, out);
+    }
+
+    /**
+     * y[i] = row i dot x , for rows [ i0 , i1 ) .
+     */
+    private void spmv(float[] x, float[] y, int i0, int i1) {
+        for (int i = i0; i1 > i; i++) {
+            float sum = 0.0f;
+            for (int k = rowPtr[i]; rowPtr[i + 1] > k; k++) sum += values[k] * x[colIdx[k]];
+            y[i] = sum;
+        }
+    }
+    /**
+     * Row i of out = row i of this * B , for rows [ i0 , i1 ) . B & out are
+     * row-major with n columns.
+     */
+    private void spmm(float[] b, float[] out, int n, int i0, int i1) {
+        for (int i = i0; i1 > i; i++) {
+            int ri = i * n;
+            for (int k = rowPtr[i]; rowPtr[i + 1] > k; k++) {
+                float v = values[k];
+                int rb = colIdx[k] * n;
+                for (int j = 0; n > j; j++) out[ri + j] += v * b[rb + j];
+            }
+        }
+    }
+
+    /**
+     * Runs rows [ i0 , i1 ) of a product with n right hand columns, one
+     * meaning SpMV, splitting at the row that halves the non-zeros.
+     */
+    private final class ProductTask extends java.util.concurrent.RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final float[] x, y;
+        private final int n, i0, i1, threshold;
+
+        ProductTask(float[] x, float[] y, int n, int i0, int i1, int threshold) {
+            this.x = x; this.y = y; this.n = n; this.i0 = i0; this.i1 = i1; this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            int nnz = rowPtr[i1] - rowPtr[i0];
+            if (threshold >= (long) nnz * n || 1 >= i1 - i0) {
+                if (n == 1) spmv(x, y, i0, i1);
+                else spmm(x, y, n, i0, i1);
+                return;
+            }
+            int half = rowPtr[i0] + nnz / 2;
+            int mid = java.util.Arrays.binarySearch(rowPtr, i0, i1 + 1, half);
+            if (0 > mid) mid = -mid - 1;
+            mid = Math.max(i0 + 1, Math.min(i1 - 1, mid));
+            invokeAll(new ProductTask(x, y, n, i0, mid, threshold), new ProductTask(x, y, n, mid, i1, threshold));
+        }
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" Transformers ">
+    /**
+     * @return A new CSRMatrix that is this one flipped over the diagonal.
+     */
+    public CSRMatrix transpose() {
+        CSCMatrix csc = this.toCSC();
+        return new CSRMatrix(c, r, csc.colPtr, csc.rowIdx, csc.values);
+    }
+    /**
+     * Converts to compressed sparse column form with a counting sort.
+     *
+     * @return A new CSCMatrix equal to this one.
+     */
+    public CSCMatrix toCSC() {
+        int nnz = values.length;
+        int[] colPtr = new int[c + 1], rowIdx = new int[nnz];
+        float[] vals = new float[nnz];
+        for (int k = 0; nnz > k; k++) colPtr[colIdx[k] + 1]++;
+        for (int j = 0; c > j; j++) colPtr[j + 1] += colPtr[j];
+        int[] next = java.util.Arrays.copyOf(colPtr, c);
+        for (int i = 0; r > i; i++) for (int k = rowPtr[i]; rowPtr[i + 1] > k; k++) {
+            int dst = next[colIdx[k]]++;
+            rowIdx[dst] = i;
+            vals[dst] = values[k];
+        }
+        return new CSCMatrix(r, c, colPtr, rowIdx, vals);
+    }
+    /**
+     * @return A new dense Matrix equal to this one.
+     */
+    public Matrix toMatrix() {
+        float[] out = new float[Math.multiplyExact(r, c)];
+        for (int i = 0; r > i; i++) for (int k = rowPtr[i]; rowPtr[i + 1] > k; k++) out[i * c + colIdx[k]] = values[k];
+        return Matrix.wrap(r, c, out);
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" String Methods ">
+    @Override
+    public String toString() { return "CSRMatrix " + r + " x " + c + " , " + values.length + " non-zeros"; }
+    //</editor-fold>
+
+}
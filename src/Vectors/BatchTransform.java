@@ -0,0 +1,249 @@
+package Vectors;
+
+/**
+ * Applies one 4 x 4 transform to many vectors at once. The vectors are
+ * packed in float arrays, x y z w x y z w ... for vec4s & x y z x y z ...
+ * for vec3s, so there's no object per vector. Source & destination may
+ * be the same array at the same offset to transform in place.
+ * <p>
+ * vec4s go through the Vector API when jdk.incubator.vector is available
+ * at runtime. vec3 points skip the w row & the divide whenever the
+ * transform is affine.
+ *
+ * @author Harrison Davis
+ */
+public final class BatchTransform {
+
+    // True if the runtime was started with --add-modules jdk.incubator.vector.
+    static final boolean SIMD = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()
+                                && TransformKernels.supported();
+    // The fewest vectors a parallel task will take.
+    static final int VECTORS_PER_TASK = 1 << 14;
+
+    // What's being transformed.
+    private static final int VEC4 = 0, POINTS = 1, DIRECTIONS = 2;
+
+    private BatchTransform() { }
+
+    //<editor-fold defaultstate="collapsed" desc=" vec4 ">
+    /**
+     * Transforms packed vec4s.
+     *
+     * @param m The transform.
+     * @param src The packed vec4s.
+     * @param srcOff Where the first x is in src.
+     * @param dst Where to write the results, packed the same way.
+     * @param dstOff Where the first x goes in dst.
+     * @param count How many vec4s.
+     *
+     * @throws ArrayIndexOutOfBoundsException if either array is too short.
+     */
+    public static void transform(mat4 m, float[] src, int srcOff, float[] dst, int dstOff, int count) throws ArrayIndexOutOfBoundsException {
+        check(src, srcOff, dst, dstOff, count, 4);
+        run(VEC4, m, src, srcOff, dst, dstOff, 0, count);
+    }
+    /**
+     * Transforms packed vec4s by a 4 x 4 Matrix.
+     *
+     * @throws ArithmeticException if m isn't 4 x 4.
+     * @throws ArrayIndexOutOfBoundsException if either array is too short.
+     */
+    public static void transform(Matrix.Matrix m, float[] src, int srcOff, float[] dst, int dstOff, int count) throws ArithmeticException, ArrayIndexOutOfBoundsException {
+        transform(new mat4(m), src, srcOff, dst, dstOff, count);
+    }
+    /**
+     * Transforms packed vec4s on a fork/join pool.
+     *
+     * @param m The transform.
+     * @param src The packed vec4s.
+     * @param srcOff Where the first x is in src.
+     * @param dst Where to write the results, packed the same way.
+     * @param dstOff Where the first x goes in dst.
+     * @param count How many vec4s.
+     * @param pool The pool to run on.
+     *
+     * @throws ArrayIndexOutOfBoundsException if either array is too short.
+     */
+    public static void transformParallel(mat4 m, float[] src, int srcOff, float[] dst, int dstOff, int count,
+                                         java.util.concurrent.ForkJoinPool pool) throws ArrayIndexOutOfBoundsException {
+        check(src, srcOff, dst, dstOff, count, 4);
+        parallel(VEC4, m, src, srcOff, dst, dstOff, count, pool);
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" vec3 ">
+    /**
+     * Transforms packed vec3 points, ( x , y , z , 1 ) . The results are
+     * divided by w unless the transform is affine.
+     *
+     * @param m The transform.
+     * @param src The packed vec3s.
+     * @param srcOff Where the first x is in src.
+     * @param dst Where to write the results, packed the same way.
+     * @param dstOff Where the first x goes in dst.
+     * @param count How many vec3s.
+     *
+     * @throws ArrayIndexOutOfBoundsException if either array is too short.
+     */
+    public static void transformPoints(mat4 m, float[] src, int srcOff, float[] dst, int dstOff, int count) throws ArrayIndexOutOfBoundsException {
+        check(src, srcOff, dst, dstOff, count, 3);
+        run(POINTS, m, src, srcOff, dst, dstOff, 0, count);
+    }
+    /**
+     * Transforms packed vec3 points by a 4 x 4 Matrix.
+     *
+     * @throws ArithmeticException if m isn't 4 x 4.
+     * @throws ArrayIndexOutOfBoundsException if either array is too short.
+     */
+    public static void transformPoints(Matrix.Matrix m, float[] src, int srcOff, float[] dst, int dstOff, int count) throws ArithmeticException, ArrayIndexOutOfBoundsException {
+        transformPoints(new mat4(m), src, srcOff, dst, dstOff, count);
+    }
+    /**
+     * Transforms packed vec3 points on a fork/join pool.
+     *
+     * @throws ArrayIndexOutOfBoundsException if either array is too short.
+     */
+    public static void transformPointsParallel(mat4 m, float[] src, int srcOff, float[] dst, int dstOff, int count,
+                                               java.util.concurrent.ForkJoinPool pool) throws ArrayIndexOutOfBoundsException {
+        check(src, srcOff, dst, dstOff, count, 3);
+        parallel(POINTS, m, src, srcOff, dst, dstOff, count, pool);
+    }
+    /**
+     * Transforms packed vec3 directions, ( x , y , z , 0 ) , so translation
+     * is ignored.
+     *
+     * @throws ArrayIndexOutOfBoundsException if either array is too short.
+     */
+    public static void transformDirections(mat4 m, float[] src, int srcOff, float[] dst, int dstOff, int count) throws ArrayIndexOutOfBoundsException {
+        check(src, srcOff, dst, dstOff, count, 3);
+        run(DIRECTIONS, m, src, srcOff, dst, dstOff, 0, count);
+    }
+    /**
+     * Transforms packed vec3 directions on a fork/join pool.
+     *
+     * @throws ArrayIndexOutOfBoundsException if either array is too short.
+     */
+    public static void transformDirectionsParallel(mat4 m, float[] src, int srcOff, float[] dst, int dstOff, int count,
+                                                   java.util.concurrent.ForkJoinPool pool) throws ArrayIndexOutOfBoundsException {
+        check(src, srcOff, dst, dstOff, count, 3);
+        parallel(DIRECTIONS, m, src, srcOff, dst, dstOff, count, pool);
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" Kernels ">
+    private static void check(float[] src, int srcOff, float[] dst, int dstOff, int count, int width) throws ArrayIndexOutOfBoundsException {
+        long n = (long) count * width;
+        if (0 > count || 0 > srcOff || srcOff + n > src.length)
+            throw new ArrayIndexOutOfBoundsException("Source holds " + src.length + " floats, " + count + " vectors from " + srcOff + " need " + (srcOff + n) + "!");
+        if (0 > dstOff || dstOff + n > dst.length)
+            throw new ArrayIndexOutOfBoundsException("Destination holds " + dst.length + " floats, " + count + " vectors from " + dstOff + " need " + (dstOff + n) + "!");
+    }
+
+    /**
+     * Transforms vectors [ v0 , v1 ) .
+     */
+    private static void run(int kind, mat4 m, float[] src, int so, float[] dst, int dOff, int v0, int v1) {
+        switch (kind) {
+            case VEC4:       vec4s(m, src, so, dst, dOff, v0, v1); break;
+            case POINTS:     points(m, src, so, dst, dOff, v0, v1); break;
+            default:         directions(m, src, so, dst, dOff, v0, v1); break;
+        }
+    }
+
+    private static void vec4s(mat4 m, float[] src, int so, float[] dst, int dOff, int v0, int v1) {
+        if (SIMD) {
+            float[] rows = {
+                m.m00, m.m01, m.m02, m.m03,
+                m.m10, m.m11, m.m12, m.m13,
+                m.m20, m.m21, m.m22, m.m23,
+                m.m30, m.m31, m.m32, m.m33
+            };
+            v0 += TransformKernels.transform4(rows, src, so + v0 * 4, dst, dOff + v0 * 4, v1 - v0);
+        }
+        float m00 = m.m00, m01 = m.m01, m02 = m.m02, m03 = m.m03,
+              m10 = m.m10, m11 = m.m11, m12 = m.m12, m13 = m.m13,
+              m20 = m.m20, m21 = m.m21, m22 = m.m22, m23 = m.m23,
+              m30 = m.m30, m31 = m.m31, m32 = m.m32, m33 = m.m33;
+        boolean affine = m.isAffine();
+        for (int v = v0; v1 > v; v++) {
+            int s = so + v * 4, d = dOff + v * 4;
+            float x = src[s], y = src[s + 1], z = src[s + 2], w = src[s + 3];
+            dst[d]     = m00 * x + m01 * y + m02 * z + m03 * w;
+            dst[d + 1] = m10 * x + m11 * y + m12 * z + m13 * w;
+            dst[d + 2] = m20 * x + m21 * y + m22 * z + m23 * w;
+            // An affine w row is ( 0 , 0 , 0 , 1 ) , which leaves w alone.
+            dst[d + 3] = affine ? w : m30 * x + m31 * y + m32 * z + m33 * w;
+        }
+    }
+    private static void points(mat4 m, float[] src, int so, float[] dst, int dOff, int v0, int v1) {
+        float m00 = m.m00, m01 = m.m01, m02 = m.m02, m03 = m.m03,
+              m10 = m.m10, m11 = m.m11, m12 = m.m12, m13 = m.m13,
+              m20 = m.m20, m21 = m.m21, m22 = m.m22, m23 = m.m23,
+              m30 = m.m30, m31 = m.m31, m32 = m.m32, m33 = m.m33;
+        if (m.isAffine()) {
+            for (int v = v0; v1 > v; v++) {
+                int s = so + v * 3, d = dOff + v * 3;
+                float x = src[s], y = src[s + 1], z = src[s + 2];
+                dst[d]     = m00 * x + m01 * y + m02 * z + m03;
+                dst[d + 1] = m10 * x + m11 * y + m12 * z + m13;
+                dst[d + 2] = m20 * x + m21 * y + m22 * z + m23;
+            }
+            return;
+        }
+        for (int v = v0; v1 > v; v++) {
+            int s = so + v * 3, d = dOff + v * 3;
+            float x = src[s], y = src[s + 1], z = src[s + 2];
+            float iw = 1.0f / (m30 * x + m31 * y + m32 * z + m33);
+            dst[d]     = (m00 * x + m01 * y + m02 * z + m03) * iw;
+            dst[d + 1] = (m10 * x + m11 * y + m12 * z + m13) * iw;
+            dst[d + 2] = (m20 * x + m21 * y + m22 * z + m23) * iw;
+        }
+    }
+    private static void directions(mat4 m, float[] src, int so, float[] dst, int dOff, int v0, int v1) {
+        float m00 = m.m00, m01 = m.m01, m02 = m.m02,
+              m10 = m.m10, m11 = m.m11, m12 = m.m12,
+              m20 = m.m20, m21 = m.m21, m22 = m.m22;
+        for (int v = v0; v1 > v; v++) {
+            int s = so + v * 3, d = dOff + v * 3;
+            float x = src[s], y = src[s + 1], z = src[s + 2];
+            dst[d]     = m00 * x + m01 * y + m02 * z;
+            dst[d + 1] = m10 * x + m11 * y + m12 * z;
+            dst[d + 2] = m20 * x + m21 * y + m22 * z;
+        }
+    }
+
+    private static void parallel(int kind, mat4 m, float[] src, int so, float[] dst, int dOff, int count,
+                                 java.util.concurrent.ForkJoinPool pool) {
+        // Snapshot the fields so a change on another thread can't tear the batch.
+        mat4 copy = new mat4(m);
+        if (VECTORS_PER_TASK >= count) run(kind, copy, src, so, dst, dOff, 0, count);
+        else pool.invoke(new TransformTask(kind, copy, src, so, dst, dOff, 0, count));
+    }
+
+    /**
+     * Transforms vectors [ v0 , v1 ) , splitting them in half until a task
+     * has at most VECTORS_PER_TASK of them.
+     */
+    private static final class TransformTask extends java.util.concurrent.RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int kind;
+        private final mat4 m;
+        private final float[] src, dst;
+        private final int so, dOff, v0, v1;
+
+        TransformTask(int kind, mat4 m, float[] src, int so, float[] dst, int dOff, int v0, int v1) {
+            this.kind = kind; this.m = m; this.src = src; this.so = so; this.dst = dst; this.dOff = dOff; this.v0 = v0; this.v1 = v1;
+        }
+
+        @Override
+        protected void compute() {
+            if (VECTORS_PER_TASK >= v1 - v0) { run(kind, m, src, so, dst, dOff, v0, v1); return; }
+            int mid = (v0 + v1) >>> 1;
+            invokeAll(new TransformTask(kind, m, src, so, dst, dOff, v0, mid),
+                      new TransformTask(kind, m, src, so, dst, dOff, mid, v1));
+        }
+    }
+    //</editor-fold>
+
+}
@@ -0,0 +1,57 @@
+package Vectors;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorShuffle;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Vector API kernel for BatchTransform. This class is only ever loaded
+ * when jdk.incubator.vector is present, so nothing outside of
+ * BatchTransform should touch it.
+ *
+ * @author Harrison Davis
+ */
+final class TransformKernels {
+
+    // The widest float vector the hardware supports.
+    private static final VectorSpecies<Float> S = FloatVector.SPECIES_PREFERRED;
+    // Shuffles that copy component k of each packed vec4 across its four lanes.
+    private static final VectorShuffle<Float> X = broadcast(0), Y = broadcast(1), Z = broadcast(2), W = broadcast(3);
+
+    private TransformKernels() { }
+
+    /**
+     * @return True if a whole number of vec4s fits in a vector.
+     */
+    static boolean supported() { return S.length() % 4 == 0; }
+
+    /**
+     * Transforms packed vec4s, S.length() / 4 of them per step. Each step
+     * spreads x, y, z & w across their vec4's lanes & multiplies them by
+     * the matching column of the matrix, repeated once per vec4.
+     *
+     * @param m The matrix, row-major.
+     * @return How many vec4s were done. The caller finishes the rest.
+     */
+    static int transform4(float[] m, float[] src, int so, float[] dst, int dOff, int count) {
+        float[][] cols = new float[4][S.length()];
+        for (int l = 0; S.length() > l; l++)
+            for (int k = 0; 4 > k; k++) cols[k][l] = m[(l & 3) * 4 + k];
+        FloatVector c0 = FloatVector.fromArray(S, cols[0], 0), c1 = FloatVector.fromArray(S, cols[1], 0),
+                    c2 = FloatVector.fromArray(S, cols[2], 0), c3 = FloatVector.fromArray(S, cols[3], 0);
+
+        int n = S.loopBound(count * 4), i = 0;
+        for (; n > i; i += S.length()) {
+            FloatVector v = FloatVector.fromArray(S, src, so + i);
+            v.rearrange(X).mul(c0)
+             .add(v.rearrange(Y).mul(c1))
+             .add(v.rearrange(Z).mul(c2))
+             .add(v.rearrange(W).mul(c3))
+             .intoArray(dst, dOff + i);
+        }
+        return i / 4;
+    }
+
+    private static VectorShuffle<Float> broadcast(int k) { return VectorShuffle.fromOp(S, l -> (l & ~3) + k); }
+
+}
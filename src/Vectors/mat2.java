@@ -0,0 +1,179 @@
+package Vectors;
+
+/**
+ * A 2 x 2 matrix stored in four fields. Every operation is written out by
+ * hand, so there are no arrays, loops or bounds checks.
+ * Field mRC is the element at row R & column C.
+ *
+ * @author Harrison Davis
+ */
+public class mat2 {
+
+    //The four elements, row by row
+    public float m00, m01,
+                 m10, m11;
+
+    //<editor-fold defaultstate="collapsed" desc=" Constructors ">
+    /**
+     * Default constructor. The identity matrix.
+     */
+    public mat2() { this(1.0f); }
+    /**
+     * Diagonal constructor. Every element on the diagonal is a, the rest are 0.
+     *
+     * @param a The diagonal value.
+     */
+    public mat2(float a) { m00 = a; m11 = a; }
+    /**
+     * Full explicit constructor, row by row.
+     */
+    public mat2(float m00, float m01,
+                float m10, float m11) {
+        this.m00 = m00; this.m01 = m01;
+        this.m10 = m10; this.m11 = m11;
+    }
+    /**
+     * Column constructor.
+     *
+     * @param c0 The first column.
+     * @param c1 The second column.
+     */
+    public mat2(vec2 c0, vec2 c1) { this(c0.x, c1.x, c0.y, c1.y); }
+    /**
+     * Copy constructor.
+     *
+     * @param copy The mat2 to be copied.
+     */
+    public mat2(mat2 copy) { this(copy.m00, copy.m01, copy.m10, copy.m11); }
+    /**
+     * Constructor from a general 2 x 2 Matrix.
+     *
+     * @param m The Matrix to copy.
+     *
+     * @throws ArithmeticException if m isn't 2 x 2.
+     */
+    public mat2(Matrix.Matrix m) throws ArithmeticException {
+        if (m.getRows() != 2 || m.getColumns() != 2) throw new ArithmeticException("Cannot make a mat2 from a " + m.getRows() + " x " + m.getColumns() + " matrix ...");
+        m00 = m.getValue(0, 0); m01 = m.getValue(0, 1);
+        m10 = m.getValue(1, 0); m11 = m.getValue(1, 1);
+    }
+
+    /**
+     * Forms a counter-clockwise rotation.
+     *
+     * @param angle The angle in radians.
+     * @return A new mat2 that rotates by angle.
+     */
+    public static mat2 rotation(float angle) {
+        float c = (float) Math.cos(angle), s = (float) Math.sin(angle);
+        return new mat2(c, -s, s, c);
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" Simple Operators ">
+    /**
+     * Element-wise addition.
+     *
+     * @param o The other matrix to add.
+     * @return A new mat2 equal to this + o .
+     */
+    public mat2 add(mat2 o) { return new mat2(m00 + o.m00, m01 + o.m01, m10 + o.m10, m11 + o.m11); }
+    /**
+     * Element-wise subtraction.
+     *
+     * @param o The subtrahend matrix.
+     * @return A new mat2 equal to this - o .
+     */
+    public mat2 subtract(mat2 o) { return new mat2(m00 - o.m00, m01 - o.m01, m10 - o.m10, m11 - o.m11); }
+    /**
+     * Scales each element by a scalar.
+     *
+     * @param f The scalar to scale by.
+     * @return A new mat2 equal to this * f .
+     */
+    public mat2 scale(float f) { return new mat2(m00 * f, m01 * f, m10 * f, m11 * f); }
+    /**
+     * Matrix multiplication.
+     *
+     * @param o The right hand matrix.
+     * @return A new mat2 equal to this * o .
+     */
+    public mat2 multiply(mat2 o) {
+        return new mat2(
+            m00 * o.m00 + m01 * o.m10,  m00 * o.m01 + m01 * o.m11,
+            m10 * o.m00 + m11 * o.m10,  m10 * o.m01 + m11 * o.m11
+        );
+    }
+    /**
+     * Transforms a vector.
+     *
+     * @param v The vector.
+     * @return A new vector equal to this * v .
+     */
+    public vec2 transform(vec2 v) { return new vec2(m00 * v.x + m01 * v.y, m10 * v.x + m11 * v.y); }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" Information Calculators ">
+    /**
+     * @return The determinant.
+     */
+    public float determinant() { return m00 * m11 - m01 * m10; }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" Transformers ">
+    /**
+     * @return A new mat2 flipped over the diagonal.
+     */
+    public mat2 transpose() { return new mat2(m00, m10, m01, m11); }
+    /**
+     * Calculates the inverse.
+     *
+     * @return A new mat2 that's the inverse of this one.
+     *
+     * @throws ArithmeticException if this matrix is singular.
+     */
+    public mat2 inverse() throws ArithmeticException {
+        float det = this.determinant();
+        if (det == 0) throw new ArithmeticException("Matrix is singular and cannot be inverted ...");
+        float id = 1.0f / det;
+        return new mat2(m11 * id, -m01 * id, -m10 * id, m00 * id);
+    }
+    /**
+     * @return A new 2 x 2 Matrix with the same elements.
+     */
+    public Matrix.Matrix toMatrix() { return new Matrix.Matrix(2, 2, new float[] { m00, m01, m10, m11 }); }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" String Methods ">
+    @Override
+    public String toString() { return "[" + m00 + " : " + m01 + " ; " + m10 + " : " + m11 + "]"; }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" Equal Operators ">
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof mat2)) return false;
+        if (this == obj) return true;
+        mat2 o = (mat2) obj;
+        return m00 == o.m00 && m01 == o.m01 && m10 == o.m10 && m11 == o.m11;
+    }
+    /**
+     * Compares if two matrices are approximately equal.
+     *
+     * @param o     The other matrix.
+     * @param eps   Epsilon, how far away each element can be.
+     * @return      True if all elements differ by less than eps.
+     */
+    public boolean epsilonEquals(mat2 o, float eps) {
+        if (o == null) return false;
+        return Math.abs(m00 - o.m00) < eps && Math.abs(m01 - o.m01) < eps &&
+               Math.abs(m10 - o.m10) < eps && Math.abs(m11 - o.m11) < eps;
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" Overrides ">
+    @Override
+    public int hashCode() { return java.util.Objects.hash(m00, m01, m10, m11); }
+    //</editor-fold>
+
+}
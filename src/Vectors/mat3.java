@@ -0,0 +1,278 @@
+package Vectors;
+
+/**
+ * A 3 x 3 matrix stored in nine fields. Every operation is written out by
+ * hand, so there are no arrays, loops or bounds checks.
+ * Field mRC is the element at row R & column C.
+ *
+ * @author Harrison Davis
+ */
+public class mat3 {
+
+    //The nine elements, row by row
+    public float m00, m01, m02,
+                 m10, m11, m12,
+                 m20, m21, m22;
+
+    //<editor-fold defaultstate="collapsed" desc=" Constructors ">
+    /**
+     * Default constructor. The identity matrix.
+     */
+    public mat3() { this(1.0f); }
+    /**
+     * Diagonal constructor. Every element on the diagonal is a, the rest are 0.
+     *
+     * @param a The diagonal value.
+     */
+    public mat3(float a) { m00 = a; m11 = a; m22 = a; }
+    /**
+     * Full explicit constructor, row by row.
+     */
+    public mat3(float m00, float m01, float m02,
+                float m10, float m11, float m12,
+                float m20, float m21, float m22) {
+        this.m00 = m00; this.m01 = m01; this.m02 = m02;
+        this.m10 = m10; this.m11 = m11; this.m12 = m12;
+        this.m20 = m20; this.m21 = m21; this.m22 = m22;
+    }
+    /**
+     * Column constructor.
+     *
+     * @param c0 The first column.
+     * @param c1 The second column.
+     * @param c2 The third column.
+     */
+    public mat3(vec3 c0, vec3 c1, vec3 c2) {
+        this(c0.x, c1.x, c2.x,
+             c0.y, c1.y, c2.y,
+             c0.z, c1.z, c2.z);
+    }
+    /**
+     * Copy constructor.
+     *
+     * @param copy The mat3 to be copied.
+     */
+    public mat3(mat3 copy) {
+        this(copy.m00, copy.m01, copy.m02,
+             copy.m10, copy.m11, copy.m12,
+             copy.m20, copy.m21, copy.m22);
+    }
+    /**
+     * Takes the upper left 3 x 3 of a mat4, which is the rotation &
+     * scale part of an affine transform.
+     *
+     * @param m The mat4.
+     */
+    public mat3(mat4 m) {
+        this(m.m00, m.m01, m.m02,
+             m.m10, m.m11, m.m12,
+             m.m20, m.m21, m.m22);
+    }
+    /**
+     * Rotation constructor. The quaternion is normalized first.
+     *
+     * @param q The rotation.
+     *
+     * @throws ArithmeticException if q is zero.
+     */
+    public mat3(ComplexNumbers.Quaternion q) throws ArithmeticException {
+        float l = q.magnitudeSquared();
+        if (l == 0) throw new ArithmeticException("Cannot make a rotation from a zero quaternion ...");
+        float n = 2.0f / l;
+        float ii = q.i * q.i * n, jj = q.j * q.j * n, kk = q.k * q.k * n;
+        float ij = q.i * q.j * n, ik = q.i * q.k * n, jk = q.j * q.k * n;
+        float si = q.s * q.i * n, sj = q.s * q.j * n, sk = q.s * q.k * n;
+        m00 = 1 - jj - kk; m01 = ij - sk;     m02 = ik + sj;
+        m10 = ij + sk;     m11 = 1 - ii - kk; m12 = jk - si;
+        m20 = ik - sj;     m21 = jk + si;     m22 = 1 - ii - jj;
+    }
+    /**
+     * Constructor from a general 3 x 3 Matrix.
+     *
+     * @param m The Matrix to copy.
+     *
+     * @throws ArithmeticException if m isn't 3 x 3.
+     */
+    public mat3(Matrix.Matrix m) throws ArithmeticException {
+        if (m.getRows() != 3 || m.getColumns() != 3) throw new ArithmeticException("Cannot make a mat3 from a " + m.getRows() + " x " + m.getColumns() + " matrix ...");
+        m00 = m.getValue(0, 0); m01 = m.getValue(0, 1); m02 = m.getValue(0, 2);
+        m10 = m.getValue(1, 0); m11 = m.getValue(1, 1); m12 = m.getValue(1, 2);
+        m20 = m.getValue(2, 0); m21 = m.getValue(2, 1); m22 = m.getValue(2, 2);
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" Simple Operators ">
+    /**
+     * Element-wise addition.
+     *
+     * @param o The other matrix to add.
+     * @return A new mat3 equal to this + o .
+     */
+    public mat3 add(mat3 o) {
+        return new mat3(m00 + o.m00, m01 + o.m01, m02 + o.m02,
+                        m10 + o.m10, m11 + o.m11, m12 + o.m12,
+                        m20 + o.m20, m21 + o.m21, m22 + o.m22);
+    }
+    /**
+     * Element-wise subtraction.
+     *
+     * @param o The subtrahend matrix.
+     * @return A new mat3 equal to this - o .
+     */
+    public mat3 subtract(mat3 o) {
+        return new mat3(m00 - o.m00, m01 - o.m01, m02 - o.m02,
+                        m10 - o.m10, m11 - o.m11, m12 - o.m12,
+                        m20 - o.m20, m21 - o.m21, m22 - o.m22);
+    }
+    /**
+     * Scales each element by a scalar.
+     *
+     * @param f The scalar to scale by.
+     * @return A new mat3 equal to this * f .
+     */
+    public mat3 scale(float f) {
+        return new mat3(m00 * f, m01 * f, m02 * f,
+                        m10 * f, m11 * f, m12 * f,
+                        m20 * f, m21 * f, m22 * f);
+    }
+    /**
+     * Matrix multiplication.
+     *
+     * @param o The right hand matrix.
+     * @return A new mat3 equal to this * o .
+     */
+    public mat3 multiply(mat3 o) {
+        return new mat3(
+            m00 * o.m00 + m01 * o.m10 + m02 * o.m20,  m00 * o.m01 + m01 * o.m11 + m02 * o.m21,  m00 * o.m02 + m01 * o.m12 + m02 * o.m22,
+            m10 * o.m00 + m11 * o.m10 + m12 * o.m20,  m10 * o.m01 + m11 * o.m11 + m12 * o.m21,  m10 * o.m02 + m11 * o.m12 + m12 * o.m22,
+            m20 * o.m00 + m21 * o.m10 + m22 * o.m20,  m20 * o.m01 + m21 * o.m11 + m22 * o.m21,  m20 * o.m02 + m21 * o.m12 + m22 * o.m22
+        );
+    }
+    /**
+     * Transforms a vector.
+     *
+     * @param v The vector.
+     * @return A new vector equal to this * v .
+     */
+    public vec3 transform(vec3 v) {
+        return new vec3(m00 * v.x + m01 * v.y + m02 * v.z,
+                        m10 * v.x + m11 * v.y + m12 * v.z,
+                        m20 * v.x + m21 * v.y + m22 * v.z);
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" Information Calculators ">
+    /**
+     * @return The determinant.
+     */
+    public float determinant() {
+        return m00 * (m11 * m22 - m12 * m21)
+             - m01 * (m10 * m22 - m12 * m20)
+             + m02 * (m10 * m21 - m11 * m20);
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" Transformers ">
+    /**
+     * @return A new mat3 flipped over the diagonal.
+     */
+    public mat3 transpose() {
+        return new mat3(m00, m10, m20,
+                        m01, m11, m21,
+                        m02, m12, m22);
+    }
+    /**
+     * Calculates the inverse from the cofactors.
+     *
+     * @return A new mat3 that's the inverse of this one.
+     *
+     * @throws ArithmeticException if this matrix is singular.
+     */
+    public mat3 inverse() throws ArithmeticException {
+        float c00 = m11 * m22 - m12 * m21, c01 = m12 * m20 - m10 * m22, c02 = m10 * m21 - m11 * m20;
+        float det = m00 * c00 + m01 * c01 + m02 * c02;
+        if (det == 0) throw new ArithmeticException("Matrix is singular and cannot be inverted ...");
+        float id = 1.0f / det;
+        return new mat3(
+            c00 * id, (m02 * m21 - m01 * m22) * id, (m01 * m12 - m02 * m11) * id,
+            c01 * id, (m00 * m22 - m02 * m20) * id, (m02 * m10 - m00 * m12) * id,
+            c02 * id, (m01 * m20 - m00 * m21) * id, (m00 * m11 - m01 * m10) * id
+        );
+    }
+    /**
+     * Converts a rotation matrix into a unit quaternion. This matrix should
+     * be orthonormal with a determinant of 1.
+     *
+     * @return A new Quaternion with the same rotation.
+     */
+    public ComplexNumbers.Quaternion toQuaternion() {
+        float trace = m00 + m11 + m22;
+        float s, i, j, k;
+        // Work from the largest of the four so the square root is well away from 0.
+        if (trace > 0) {
+            float t = (float) Math.sqrt(trace + 1.0f) * 2;
+            s = 0.25f * t;
+            i = (m21 - m12) / t; j = (m02 - m20) / t; k = (m10 - m01) / t;
+        } else if (m00 > m11 && m00 > m22) {
+            float t = (float) Math.sqrt(1.0f + m00 - m11 - m22) * 2;
+            s = (m21 - m12) / t;
+            i = 0.25f * t; j = (m01 + m10) / t; k = (m02 + m20) / t;
+        } else if (m11 > m22) {
+            float t = (float) Math.sqrt(1.0f + m11 - m00 - m22) * 2;
+            s = (m02 - m20) / t;
+            i = (m01 + m10) / t; j = 0.25f * t; k = (m12 + m21) / t;
+        } else {
+            float t = (float) Math.sqrt(1.0f + m22 - m00 - m11) * 2;
+            s = (m10 - m01) / t;
+            i = (m02 + m20) / t; j = (m12 + m21) / t; k = 0.25f * t;
+        }
+        return new ComplexNumbers.Quaternion(s, i, j, k);
+    }
+    /**
+     * @return A new 3 x 3 Matrix with the same elements.
+     */
+    public Matrix.Matrix toMatrix() {
+        return new Matrix.Matrix(3, 3, new float[] { m00, m01, m02, m10, m11, m12, m20, m21, m22 });
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" String Methods ">
+    @Override
+    public String toString() {
+        return "[" + m00 + " : " + m01 + " : " + m02 + " ; "
+                   + m10 + " : " + m11 + " : " + m12 + " ; "
+                   + m20 + " : " + m21 + " : " + m22 + "]";
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" Equal Operators ">
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof mat3)) return false;
+        if (this == obj) return true;
+        mat3 o = (mat3) obj;
+        return m00 == o.m00 && m01 == o.m01 && m02 == o.m02 &&
+               m10 == o.m10 && m11 == o.m11 && m12 == o.m12 &&
+               m20 == o.m20 && m21 == o.m21 && m22 == o.m22;
+    }
+    /**
+     * Compares if two matrices are approximately equal.
+     *
+     * @param o     The other matrix.
+     * @param eps   Epsilon, how far away each element can be.
+     * @return      True if all elements differ by less than eps.
+     */
+    public boolean epsilonEquals(mat3 o, float eps) {
+        if (o == null) return false;
+        return Math.abs(m00 - o.m00) < eps && Math.abs(m01 - o.m01) < eps && Math.abs(m02 - o.m02) < eps &&
+               Math.abs(m10 - o.m10) < eps && Math.abs(m11 - o.m11) < eps && Math.abs(m12 - o.m12) < eps &&
+               Math.abs(m20 - o.m20) < eps && Math.abs(m21 - o.m21) < eps && Math.abs(m22 - o.m22) < eps;
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" Overrides ">
+    @Override
+    public int hashCode() { return java.util.Objects.hash(m00, m01, m02, m10, m11, m12, m20, m21, m22); }
+    //</editor-fold>
+
+}
@@ -0,0 +1,373 @@
+package Vectors;
+
+/**
+ * A 4 x 4 matrix stored in sixteen fields, for 3D transforms. Every
+ * operation is written out by hand, so there are no arrays, loops or
+ * bounds checks. Field mRC is the element at row R & column C, and
+ * vectors are treated as columns, so the translation lives in m03, m13
+ * & m23.
+ *
+ * @author Harrison Davis
+ */
+public class mat4 {
+
+    //The sixteen elements, row by row
+    public float m00, m01, m02, m03,
+                 m10, m11, m12, m13,
+                 m20, m21, m22, m23,
+                 m30, m31, m32, m33;
+
+    //<editor-fold defaultstate="collapsed" desc=" Constructors ">
+    /**
+     * Default constructor. The identity matrix.
+     */
+    public mat4() { this(1.0f); }
+    /**
+     * Diagonal constructor. Every element on the diagonal is a, the rest are 0.
+     *
+     * @param a The diagonal value.
+     */
+    public mat4(float a) { m00 = a; m11 = a; m22 = a; m33 = a; }
+    /**
+     * Full explicit constructor, row by row.
+     */
+    public mat4(float m00, float m01, float m02, float m03,
+                float m10, float m11, float m12, float m13,
+                float m20, float m21, float m22, float m23,
+                float m30, float m31, float m32, float m33) {
+        this.m00 = m00; this.m01 = m01; this.m02 = m02; this.m03 = m03;
+        this.m10 = m10; this.m11 = m11; this.m12 = m12; this.m13 = m13;
+        this.m20 = m20; this.m21 = m21; this.m22 = m22; this.m23 = m23;
+        this.m30 = m30; this.m31 = m31; this.m32 = m32; this.m33 = m33;
+    }
+    /**
+     * Column constructor.
+     *
+     * @param c0 The first column.
+     * @param c1 The second column.
+     * @param c2 The third column.
+     * @param c3 The fourth column.
+     */
+    public mat4(vec4 c0, vec4 c1, vec4 c2, vec4 c3) {
+        this(c0.x, c1.x, c2.x, c3.x,
+             c0.y, c1.y, c2.y, c3.y,
+             c0.z, c1.z, c2.z, c3.z,
+             c0.w, c1.w, c2.w, c3.w);
+    }
+    /**
+     * Copy constructor.
+     *
+     * @param copy The mat4 to be copied.
+     */
+    public mat4(mat4 copy) {
+        this(copy.m00, copy.m01, copy.m02, copy.m03,
+             copy.m10, copy.m11, copy.m12, copy.m13,
+             copy.m20, copy.m21, copy.m22, copy.m23,
+             copy.m30, copy.m31, copy.m32, copy.m33);
+    }
+    /**
+     * Affine constructor. The mat3 becomes the upper left 3 x 3 & the rest
+     * is the identity.
+     *
+     * @param m The linear part.
+     */
+    public mat4(mat3 m) {
+        this(m.m00, m.m01, m.m02, 0,
+             m.m10, m.m11, m.m12, 0,
+             m.m20, m.m21, m.m22, 0,
+             0,     0,     0,     1);
+    }
+    /**
+     * Rotation constructor. The quaternion is normalized first.
+     *
+     * @param q The rotation.
+     *
+     * @throws ArithmeticException if q is zero.
+     */
+    public mat4(ComplexNumbers.Quaternion q) throws ArithmeticException { this(new mat3(q)); }
+    /**
+     * Constructor from a general 4 x 4 Matrix.
+     *
+     * @param m The Matrix to copy.
+     *
+     * @throws ArithmeticException if m isn't 4 x 4.
+     */
+    public mat4(Matrix.Matrix m) throws ArithmeticException {
+        if (m.getRows() != 4 || m.getColumns() != 4) throw new ArithmeticException("Cannot make a mat4 from a " + m.getRows() + " x " + m.getColumns() + " matrix ...");
+        float[] a = m.toFlatArray();
+        m00 = a[0];  m01 = a[1];  m02 = a[2];  m03 = a[3];
+        m10 = a[4];  m11 = a[5];  m12 = a[6];  m13 = a[7];
+        m20 = a[8];  m21 = a[9];  m22 = a[10]; m23 = a[11];
+        m30 = a[12]; m31 = a[13]; m32 = a[14]; m33 = a[15];
+    }
+
+    /**
+     * Forms a translation.
+     *
+     * @param t How far to move.
+     * @return A new mat4 that translates by t.
+     */
+    public static mat4 translation(vec3 t) {
+        mat4 m = new mat4();
+        m.m03 = t.x; m.m13 = t.y; m.m23 = t.z;
+        return m;
+    }
+    /**
+     * Forms a scale along each axis.
+     *
+     * @param s The scale for each axis.
+     * @return A new mat4 that scales by s.
+     */
+    public static mat4 scaling(vec3 s) {
+        mat4 m = new mat4();
+        m.m00 = s.x; m.m11 = s.y; m.m22 = s.z;
+        return m;
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" Simple Operators ">
+    /**
+     * Element-wise addition.
+     *
+     * @param o The other matrix to add.
+     * @return A new mat4 equal to this + o .
+     */
+    public mat4 add(mat4 o) {
+        return new mat4(m00 + o.m00, m01 + o.m01, m02 + o.m02, m03 + o.m03,
+                        m10 + o.m10, m11 + o.m11, m12 + o.m12, m13 + o.m13,
+                        m20 + o.m20, m21 + o.m21, m22 + o.m22, m23 + o.m23,
+                        m30 + o.m30, m31 + o.m31, m32 + o.m32, m33 + o.m33);
+    }
+    /**
+     * Element-wise subtraction.
+     *
+     * @param o The subtrahend matrix.
+     * @return A new mat4 equal to this - o .
+     */
+    public mat4 subtract(mat4 o) {
+        return new mat4(m00 - o.m00, m01 - o.m01, m02 - o.m02, m03 - o.m03,
+                        m10 - o.m10, m11 - o.m11, m12 - o.m12, m13 - o.m13,
+                        m20 - o.m20, m21 - o.m21, m22 - o.m22, m23 - o.m23,
+                        m30 - o.m30, m31 - o.m31, m32 - o.m32, m33 - o.m33);
+    }
+    /**
+     * Scales each element by a scalar.
+     *
+     * @param f The scalar to scale by.
+     * @return A new mat4 equal to this * f .
+     */
+    public mat4 scale(float f) {
+        return new mat4(m00 * f, m01 * f, m02 * f, m03 * f,
+                        m10 * f, m11 * f, m12 * f, m13 * f,
+                        m20 * f, m21 * f, m22 * f, m23 * f,
+                        m30 * f, m31 * f, m32 * f, m33 * f);
+    }
+    /**
+     * Matrix multiplication. The result applies o first, then this.
+     *
+     * @param o The right hand matrix.
+     * @return A new mat4 equal to this * o .
+     */
+    public mat4 multiply(mat4 o) {
+        return new mat4(
+            m00 * o.m00 + m01 * o.m10 + m02 * o.m20 + m03 * o.m30,
+            m00 * o.m01 + m01 * o.m11 + m02 * o.m21 + m03 * o.m31,
+            m00 * o.m02 + m01 * o.m12 + m02 * o.m22 + m03 * o.m32,
+            m00 * o.m03 + m01 * o.m13 + m02 * o.m23 + m03 * o.m33,
+
+            m10 * o.m00 + m11 * o.m10 + m12 * o.m20 + m13 * o.m30,
+            m10 * o.m01 + m11 * o.m11 + m12 * o.m21 + m13 * o.m31,
+            m10 * o.m02 + m11 * o.m12 + m12 * o.m22 + m13 * o.m32,
+            m10 * o.m03 + m11 * o.m13 + m12 * o.m23 + m13 * o.m33,
+
+            m20 * o.m00 + m21 * o.m10 + m22 * o.m20 + m23 * o.m30,
+            m20 * o.m01 + m21 * o.m11 + m22 * o.m21 + m23 * o.m31,
+            m20 * o.m02 + m21 * o.m12 + m22 * o.m22 + m23 * o.m32,
+            m20 * o.m03 + m21 * o.m13 + m22 * o.m23 + m23 * o.m33,
+
+            m30 * o.m00 + m31 * o.m10 + m32 * o.m20 + m33 * o.m30,
+            m30 * o.m01 + m31 * o.m11 + m32 * o.m21 + m33 * o.m31,
+            m30 * o.m02 + m31 * o.m12 + m32 * o.m22 + m33 * o.m32,
+            m30 * o.m03 + m31 * o.m13 + m32 * o.m23 + m33 * o.m33
+        );
+    }
+    /**
+     * Transforms a vector.
+     *
+     * @param v The vector.
+     * @return A new vector equal to this * v .
+     */
+    public vec4 transform(vec4 v) {
+        return new vec4(m00 * v.x + m01 * v.y + m02 * v.z + m03 * v.w,
+                        m10 * v.x + m11 * v.y + m12 * v.z + m13 * v.w,
+                        m20 * v.x + m21 * v.y + m22 * v.z + m23 * v.w,
+                        m30 * v.x + m31 * v.y + m32 * v.z + m33 * v.w);
+    }
+    /**
+     * Transforms a point, ( x , y , z , 1 ) . If the bottom row isn't
+     * ( 0 , 0 , 0 , 1 ) the result is divided by its w.
+     *
+     * @param v The point.
+     * @return A new transformed point.
+     */
+    public vec3 transform(vec3 v) {
+        float x = m00 * v.x + m01 * v.y + m02 * v.z + m03,
+              y = m10 * v.x + m11 * v.y + m12 * v.z + m13,
+              z = m20 * v.x + m21 * v.y + m22 * v.z + m23;
+        if (this.isAffine()) return new vec3(x, y, z);
+        float w = m30 * v.x + m31 * v.y + m32 * v.z + m33;
+        return new vec3(x / w, y / w, z / w);
+    }
+    /**
+     * Transforms a direction, ( x , y , z , 0 ) , so translation is ignored.
+     *
+     * @param v The direction.
+     * @return A new transformed direction.
+     */
+    public vec3 transformDirection(vec3 v) {
+        return new vec3(m00 * v.x + m01 * v.y + m02 * v.z,
+                        m10 * v.x + m11 * v.y + m12 * v.z,
+                        m20 * v.x + m21 * v.y + m22 * v.z);
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" Information Calculators ">
+    /**
+     * @return The determinant.
+     */
+    public float determinant() {
+        float s0 = m00 * m11 - m10 * m01, s1 = m00 * m12 - m10 * m02, s2 = m00 * m13 - m10 * m03,
+              s3 = m01 * m12 - m11 * m02, s4 = m01 * m13 - m11 * m03, s5 = m02 * m13 - m12 * m03;
+        float c5 = m22 * m33 - m32 * m23, c4 = m21 * m33 - m31 * m23, c3 = m21 * m32 - m31 * m22,
+              c2 = m20 * m33 - m30 * m23, c1 = m20 * m32 - m30 * m22, c0 = m20 * m31 - m30 * m21;
+        return s0 * c5 - s1 * c4 + s2 * c3 + s3 * c2 - s4 * c1 + s5 * c0;
+    }
+    /**
+     * @return True if the bottom row is ( 0 , 0 , 0 , 1 ) .
+     */
+    public boolean isAffine() { return m30 == 0 && m31 == 0 && m32 == 0 && m33 == 1; }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" Transformers ">
+    /**
+     * @return A new mat4 flipped over the diagonal.
+     */
+    public mat4 transpose() {
+        return new mat4(m00, m10, m20, m30,
+                        m01, m11, m21, m31,
+                        m02, m12, m22, m32,
+                        m03, m13, m23, m33);
+    }
+    /**
+     * Calculates the inverse from the 2 x 2 minors of the top & bottom
+     * halves. Use inverseAffine() for affine transforms, it's cheaper.
+     *
+     * @return A new mat4 that's the inverse of this one.
+     *
+     * @throws ArithmeticException if this matrix is singular.
+     */
+    public mat4 inverse() throws ArithmeticException {
+        float s0 = m00 * m11 - m10 * m01, s1 = m00 * m12 - m10 * m02, s2 = m00 * m13 - m10 * m03,
+              s3 = m01 * m12 - m11 * m02, s4 = m01 * m13 - m11 * m03, s5 = m02 * m13 - m12 * m03;
+        float c5 = m22 * m33 - m32 * m23, c4 = m21 * m33 - m31 * m23, c3 = m21 * m32 - m31 * m22,
+              c2 = m20 * m33 - m30 * m23, c1 = m20 * m32 - m30 * m22, c0 = m20 * m31 - m30 * m21;
+        float det = s0 * c5 - s1 * c4 + s2 * c3 + s3 * c2 - s4 * c1 + s5 * c0;
+        if (det == 0) throw new ArithmeticException("Matrix is singular and cannot be inverted ...");
+        float id = 1.0f / det;
+        return new mat4(
+            ( m11 * c5 - m12 * c4 + m13 * c3) * id, (-m01 * c5 + m02 * c4 - m03 * c3) * id,
+            ( m31 * s5 - m32 * s4 + m33 * s3) * id, (-m21 * s5 + m22 * s4 - m23 * s3) * id,
+
+            (-m10 * c5 + m12 * c2 - m13 * c1) * id, ( m00 * c5 - m02 * c2 + m03 * c1) * id,
+            (-m30 * s5 + m32 * s2 - m33 * s1) * id, ( m20 * s5 - m22 * s2 + m23 * s1) * id,
+
+            ( m10 * c4 - m11 * c2 + m13 * c0) * id, (-m00 * c4 + m01 * c2 - m03 * c0) * id,
+            ( m30 * s4 - m31 * s2 + m33 * s0) * id, (-m20 * s4 + m21 * s2 - m23 * s0) * id,
+
+            (-m10 * c3 + m11 * c1 - m12 * c0) * id, ( m00 * c3 - m01 * c1 + m02 * c0) * id,
+            (-m30 * s3 + m31 * s1 - m32 * s0) * id, ( m20 * s3 - m21 * s1 + m22 * s0) * id
+        );
+    }
+    /**
+     * Inverts an affine transform, [ A t ; 0 1 ] becomes [ A^-1 -A^-1 t ; 0 1 ] .
+     * The bottom row is assumed to be ( 0 , 0 , 0 , 1 ) & isn't checked.
+     *
+     * @return A new mat4 that's the inverse of this one.
+     *
+     * @throws ArithmeticException if the linear part is singular.
+     */
+    public mat4 inverseAffine() throws ArithmeticException {
+        mat3 a = new mat3(this).inverse();
+        return new mat4(
+            a.m00, a.m01, a.m02, -(a.m00 * m03 + a.m01 * m13 + a.m02 * m23),
+            a.m10, a.m11, a.m12, -(a.m10 * m03 + a.m11 * m13 + a.m12 * m23),
+            a.m20, a.m21, a.m22, -(a.m20 * m03 + a.m21 * m13 + a.m22 * m23),
+            0,     0,     0,     1
+        );
+    }
+    /**
+     * Converts the rotation part of this transform into a unit quaternion.
+     * The upper left 3 x 3 should be a pure rotation.
+     *
+     * @return A new Quaternion with the same rotation.
+     */
+    public ComplexNumbers.Quaternion toQuaternion() { return new mat3(this).toQuaternion(); }
+    /**
+     * @return A new 4 x 4 Matrix with the same elements.
+     */
+    public Matrix.Matrix toMatrix() {
+        return new Matrix.Matrix(4, 4, new float[] {
+            m00, m01, m02, m03,
+            m10, m11, m12, m13,
+            m20, m21, m22, m23,
+            m30, m31, m32, m33
+        });
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" String Methods ">
+    @Override
+    public String toString() {
+        return "[" + m00 + " : " + m01 + " : " + m02 + " : " + m03 + " ; "
+                   + m10 + " : " + m11 + " : " + m12 + " : " + m13 + " ; "
+                   + m20 + " : " + m21 + " : " + m22 + " : " + m23 + " ; "
+                   + m30 + " : " + m31 + " : " + m32 + " : " + m33 + "]";
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" Equal Operators ">
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof mat4)) return false;
+        if (this == obj) return true;
+        mat4 o = (mat4) obj;
+        return m00 == o.m00 && m01 == o.m01 && m02 == o.m02 && m03 == o.m03 &&
+               m10 == o.m10 && m11 == o.m11 && m12 == o.m12 && m13 == o.m13 &&
+               m20 == o.m20 && m21 == o.m21 && m22 == o.m22 && m23 == o.m23 &&
+               m30 == o.m30 && m31 == o.m31 && m32 == o.m32 && m33 == o.m33;
+    }
+    /**
+     * Compares if two matrices are approximately equal.
+     *
+     * @param o     The other matrix.
+     * @param eps   Epsilon, how far away each element can be.
+     * @return      True if all elements differ by less than eps.
+     */
+    public boolean epsilonEquals(mat4 o, float eps) {
+        if (o == null) return false;
+        return Math.abs(m00 - o.m00) < eps && Math.abs(m01 - o.m01) < eps && Math.abs(m02 - o.m02) < eps && Math.abs(m03 - o.m03) < eps &&
+               Math.abs(m10 - o.m10) < eps && Math.abs(m11 - o.m11) < eps && Math.abs(m12 - o.m12) < eps && Math.abs(m13 - o.m13) < eps &&
+               Math.abs(m20 - o.m20) < eps && Math.abs(m21 - o.m21) < eps && Math.abs(m22 - o.m22) < eps && Math.abs(m23 - o.m23) < eps &&
+               Math.abs(m30 - o.m30) < eps && Math.abs(m31 - o.m31) < eps && Math.abs(m32 - o.m32) < eps && Math.abs(m33 - o.m33) < eps;
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc=" Overrides ">
+    @Override
+    public int hashCode() {
+        return java.util.Objects.hash(m00, m01, m02, m03, m10, m11, m12, m13,
+                                      m20, m21, m22, m23, m30, m31, m32, m33);
+    }
+    //</editor-fold>
+
+}